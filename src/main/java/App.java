@@ -5,47 +5,69 @@ import main.java.application.usecase.LoginUseCase;
 import main.java.application.usecase.ProductManagementUseCase;
 import main.java.application.usecase.CategoryManagementUseCase;
 import main.java.application.usecase.BatchManagementUseCase;
+import main.java.application.services.BillArchiveService;
+import main.java.application.services.ExportService;
+import main.java.application.reports.DailySalesReport;
 import main.java.application.services.BillNumberService;
 import main.java.application.services.AvailabilityService;
 import main.java.application.services.MainStoreService;
 import main.java.application.services.ShortageEventService;
+import main.java.application.services.StockHistoryService;
+import main.java.application.services.ImportService;
 import main.java.application.usecase.QuoteUseCase;
 import main.java.application.usecase.ReceiveFromSupplierUseCase;
 import main.java.application.usecase.TransferStockUseCase;
 import main.java.cli.*;
 import main.java.cli.cashier.CashierMenu;
 import main.java.cli.cashier.checkout.CliCheckout;
+import main.java.cli.manager.ImportCLI;
+import main.java.cli.manager.ExportCLI;
 import main.java.cli.manager.ManagerMenu;
+import main.java.cli.manager.PickingStrategyCLI;
 import main.java.cli.manager.ReceiveToMainCLI;
+import main.java.cli.manager.StockHistoryCLI;
 import main.java.cli.manager.TransferFromMainCLI;
 import main.java.cli.manager.product.ProductManagementCLI;
 import main.java.cli.manager.batch.BatchManagementCLI;
 import main.java.cli.manager.category.CategoryManagementCLI;
 import main.java.cli.signin.LoginScreen;
-import main.java.config.Db;
+import main.java.config.Bootstrap;
 import main.java.domain.policies.FefoStrategy;
+import main.java.domain.policies.FifoStrategy;
+import main.java.domain.policies.RoutingBatchStrategy;
+import main.java.domain.product.Product;
+import main.java.infrastructure.archive.BillArchive;
 import main.java.infrastructure.concurrency.Tx;
+import main.java.infrastructure.journal.BillJournal;
 import main.java.infrastructure.persistence.*;
 import main.java.infrastructure.security.PasswordEncoder;
 import main.java.infrastructure.events.SimpleBus;
 import main.java.infrastructure.events.LowStockPrinter;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
 /**®
  * Main application entry point
  */
 public class App {
     public static void main(String[] args) {
 
-        try (var db = new Db()) {
-            var ds = db.getDataSource();
+        // Database init runs in the background; the first query waits for it.
+        try (var boot = new Bootstrap()) {
+            var timer = boot.timer();
+            var ds = boot.dataSource();
             var tx = new Tx(ds);
 
             // Repos
-            var products   = new JdbcProductRepository(ds);
-            var categories = new JdbcCategoryRepository(ds);
+            var products   = new IndexedProductRepository(new JdbcProductRepository(ds));
+            var categories = new CachingCategoryRepository(new JdbcCategoryRepository(ds));
             var bills      = new JdbcBillRepository();
-            var inventory  = new JdbcInventoryRepository(ds);
-            var users      = new JdbcUserRepository(ds);
+            var batchIndex = new InMemoryBatchIndex();
+            var movements  = new JdbcMovementRepository(ds);
+            var inventory  = new JdbcInventoryRepository(ds, batchIndex, movements);
+            var users      = new CachingUserRepository(new JdbcUserRepository(ds));
             var shortageRepo = new JdbcShortageEventRepository(ds);
             var bus = new SimpleBus();
             bus.subscribe(new LowStockPrinter());
@@ -53,15 +75,28 @@ public class App {
             // Strategy / use cases
             var availabilitySvc = new AvailabilityService(tx, inventory);
             var mainStoreSvc = new MainStoreService(tx, inventory);
-            var strategy   = new FefoStrategy(inventory);
+            var fefo       = new FefoStrategy(inventory);
+            var fifo       = new FifoStrategy(inventory);
+            var strategy   = new RoutingBatchStrategy(fefo, code -> products.findByCode(code).map(Product::categoryCode));
             var billNums   = new BillNumberService(tx);
             var shortageSvc = new ShortageEventService(tx, shortageRepo);
             var checkoutUC = new main.java.application.usecase.CheckoutCashUseCase(
-                    tx, products, bills, strategy, billNums, inventory, bus);
+                    tx, products, bills, strategy, billNums, inventory, bus, movements);
+            // Offline till: -Dsyos.offline.journal=<file> keeps selling through database outages (rejected bills go to <file>.failed)
+            String journalFile = System.getProperty("syos.offline.journal");
+            if (journalFile != null) {
+                checkoutUC.enableOfflineJournal(new BillJournal(Path.of(journalFile)),
+                        new BillJournal(Path.of(journalFile + ".failed")), shortageRepo);
+            }
+            // Peak-hour mode: -Dsyos.checkout.groupCommit=true [-Dsyos.checkout.groupMaxBills=50 -Dsyos.checkout.groupMaxWaitMs=5]
+            if (Boolean.getBoolean("syos.checkout.groupCommit")) {
+                checkoutUC.enableGroupCommit(Integer.getInteger("syos.checkout.groupMaxBills", 50),
+                        Long.getLong("syos.checkout.groupMaxWaitMs", 5));
+            }
             var quoteUC    = new QuoteUseCase(products);
-            var invAdmin = new JdbcInventoryAdminRepository();
-            var receiveUC = new ReceiveFromSupplierUseCase(tx, invAdmin);
-            var transferUC = new TransferStockUseCase(tx, inventory, invAdmin, strategy);
+            var invAdmin = new JdbcInventoryAdminRepository(batchIndex);
+            var receiveUC = new ReceiveFromSupplierUseCase(tx, invAdmin, movements);
+            var transferUC = new TransferStockUseCase(tx, inventory, invAdmin, strategy, movements);
             var categoryManagementUC = new CategoryManagementUseCase(categories);
             var productManagementUC = new ProductManagementUseCase(products, categoryManagementUC);
             var batchManagementUC = new BatchManagementUseCase(ds, inventory, products);
@@ -74,19 +109,50 @@ public class App {
             var productManagementCLI = new ProductManagementCLI(productManagementUC, categoryManagementUC);
             var batchManagementCLI = new BatchManagementCLI(batchManagementUC);
             var cashierMenu = new CashierMenu(checkoutCLI::run, ds);
-            var managerMenu = new ManagerMenu(ds, checkoutCLI::run, shortageSvc, receiveCLI::run, transferCLI::run, productManagementCLI, batchManagementCLI, categoryManagementCLI);
+            var pickingCLI = new PickingStrategyCLI(strategy, Map.of("FEFO", fefo, "FIFO", fifo));
+            var stockHistory = new StockHistoryService(tx);
+            var stockHistoryCLI = new StockHistoryCLI(tx, movements, stockHistory);
+            var importCLI = new ImportCLI(new ImportService(tx, products, inventory, categoryManagementUC));
+            // Closed days move to per-day archive files: -Dsyos.archive.dir=<dir> [-Dsyos.archive.keepDays=30]
+            String archiveDir = System.getProperty("syos.archive.dir");
+            var billArchive = archiveDir == null ? null : new BillArchive(Path.of(archiveDir));
+            var exportCLI = new ExportCLI(new ExportService(ds, billArchive));
+            var managerMenu = new ManagerMenu(ds, new DailySalesReport(ds, billArchive)::run, checkoutCLI::run, shortageSvc, receiveCLI::run, transferCLI::run, productManagementCLI, batchManagementCLI, categoryManagementCLI, pickingCLI::run, stockHistoryCLI::run, importCLI::run, exportCLI::run);
 
             // Auth
-            var encoder = new PasswordEncoder();
+            // Password hashing cost for new hashes: -Dsyos.password.iterations=<PBKDF2 iterations> (0 = single SHA-256)
+            var encoder = new PasswordEncoder(Integer.getInteger("syos.password.iterations", 0));
             var loginUC = new LoginUseCase(users, encoder);
             var login   = new LoginScreen(loginUC);
 
-            // Ensure demo accounts exist (one-time)
-            SeedUsers.ensure(users, encoder);
+            timer.mark("wiring");
+
+            // Ensure demo accounts exist (one-time) and warm up reference data in parallel
+            boot.afterMigration("seed-users", () -> {
+                users.preload();
+                SeedUsers.ensure(users, encoder);
+            });
+            boot.afterMigration("warm-products", products::findAll);
+            boot.afterMigration("warm-categories", categories::preload);
+            boot.afterMigration("warm-batches", inventory::preload);
+            boot.afterMigration("movement-partitions", () -> movements.ensureMonthlyPartitions(3));
+            // Stock snapshots for point-in-time queries: -Dsyos.stock.snapshotHours=6
+            boot.afterMigration("stock-snapshots", () -> stockHistory.startSnapshots(
+                    Duration.ofHours(Integer.getInteger("syos.stock.snapshotHours", 6))));
+            if (billArchive != null) {
+                var archiveSvc = new BillArchiveService(tx, billArchive);
+                boot.afterMigration("archive-bills", () -> archiveSvc.archiveClosedDays(Integer.getInteger("syos.archive.keepDays", 30)));
+            }
+            boot.reportWhenIdle();
 
             // Loop: login -> route to menu; when logout, ask for next login
+            timer.mark("login-ready");
             while (true) {
                 var session = login.prompt();
+                if (session == null && boot.failed()) {
+                    System.out.println("Database is unavailable. Exiting.");
+                    return;
+                }
                 LoginScreen.route(session, cashierMenu::run, managerMenu::run);
             }
         }
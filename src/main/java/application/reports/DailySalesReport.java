@@ -0,0 +1,117 @@
+package main.java.application.reports;
+
+import main.java.infrastructure.archive.BillArchive;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Sales per product over a date range, summed from the {@code sales_daily} totals, so its cost
+ * depends on the number of days and products in the range, not on the number of bills.
+ */
+public final class DailySalesReport {
+    private final DataSource ds;
+    private final BillArchive archive;
+
+    /** {@code archive} may be null when bills are not archived. */
+    public DailySalesReport(DataSource ds, BillArchive archive) { this.ds = ds; this.archive = archive; }
+
+    public void run() {
+        var sc = new Scanner(System.in);
+        System.out.print("From date (YYYY-MM-DD, blank = today, R = rebuild totals): ");
+        String first = sc.nextLine().trim();
+        if ("R".equalsIgnoreCase(first)) {
+            int days = rebuild();
+            System.out.println("Rebuilt sales totals for " + days + " day(s) still held in the bill tables.");
+            return;
+        }
+        try {
+            LocalDate from = first.isEmpty() ? LocalDate.now() : LocalDate.parse(first);
+            System.out.print("To date (YYYY-MM-DD, blank = same day): ");
+            String second = sc.nextLine().trim();
+            LocalDate to = second.isEmpty() ? from : LocalDate.parse(second);
+            if (to.isBefore(from)) { LocalDate t = from; from = to; to = t; }
+            print(from, to);
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date: " + e.getParsedString());
+        }
+    }
+
+    public void print(LocalDate from, LocalDate to) {
+        String sql = """
+      SELECT s.product_code, COALESCE(p.name, '') AS name, SUM(s.qty) AS qty, SUM(s.revenue_cents) AS revenue
+      FROM sales_daily s LEFT JOIN product p ON p.code = s.product_code
+      WHERE s.day BETWEEN ? AND ?
+      GROUP BY s.product_code, p.name
+      ORDER BY revenue DESC, s.product_code
+    """;
+        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
+            ps.setDate(1, Date.valueOf(from));
+            ps.setDate(2, Date.valueOf(to));
+            try (ResultSet rs = ps.executeQuery()) {
+                System.out.println("\n-- Sales " + from + (to.equals(from) ? "" : " to " + to) + " --");
+                long qty = 0, revenue = 0;
+                while (rs.next()) {
+                    long q = rs.getLong("qty"), r = rs.getLong("revenue");
+                    System.out.printf("%-12s %-30s qty=%-8d %12.2f%n", rs.getString("product_code"), rs.getString("name"), q, r / 100.0);
+                    qty += q;
+                    revenue += r;
+                }
+                if (qty == 0) System.out.println("No sales in this period.");
+                else System.out.printf("TOTAL %-37s qty=%-8d %12.2f%n", "", qty, revenue / 100.0);
+            }
+        } catch (Exception e) { throw new RuntimeException(e); }
+    }
+
+    /**
+     * Recompute the totals of every day that still has bills in the hot tables. Days the bill archive
+     * holds are skipped: their hot rows, if any, are only late arrivals, and recounting from them alone
+     * would drop the archived part of the day. Returns the number of days rebuilt.
+     */
+    public int rebuild() {
+        try (Connection con = ds.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                List<LocalDate> days = new ArrayList<>();
+                try (var ps = con.prepareStatement("SELECT DISTINCT DATE(date_time) FROM bill ORDER BY 1");
+                     ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        LocalDate day = rs.getDate(1).toLocalDate();
+                        if (archive == null || !archive.hasDay(day)) days.add(day);
+                    }
+                }
+                try (var del = con.prepareStatement("DELETE FROM sales_daily WHERE day = ?");
+                     var ins = con.prepareStatement("""
+              INSERT INTO sales_daily(day, product_code, qty, revenue_cents)
+              SELECT DATE(b.date_time), l.product_code, SUM(l.qty), SUM(l.line_total_cents)
+              FROM bill b JOIN bill_line l ON l.bill_id = b.id
+              WHERE b.date_time >= ? AND b.date_time < ?
+              GROUP BY DATE(b.date_time), l.product_code
+            """)) {
+                    for (LocalDate day : days) {
+                        del.setDate(1, Date.valueOf(day));
+                        del.executeUpdate();
+                        ins.setTimestamp(1, Timestamp.valueOf(day.atStartOfDay()));
+                        ins.setTimestamp(2, Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+                        ins.executeUpdate();
+                    }
+                }
+                con.commit();
+                return days.size();
+            } catch (Exception e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(true);
+            }
+        } catch (Exception e) { throw new RuntimeException(e); }
+    }
+}
@@ -0,0 +1,26 @@
+package main.java.application.reports;
+
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * A report the {@link ReportExecutor} can split by date. Each partition is queried on its own
+ * connection and the partial results are merged with {@link #combine}, which must be associative
+ * ({@code left} always covers the earlier dates).
+ */
+public interface PartitionedReport<R> {
+
+    String title();
+
+    /** False for snapshot reports (current stock and the like), which run as a single partition. */
+    default boolean byDate() { return true; }
+
+    /** Result for {@code from <= day < toExclusive}; snapshot reports ignore the dates. */
+    R query(Connection con, LocalDate from, LocalDate toExclusive) throws SQLException;
+
+    R combine(R left, R right);
+
+    void print(R result, PrintStream out);
+}
@@ -13,7 +13,7 @@ public final class ReorderReport {
         String sql = """
       SELECT product_code, COALESCE(SUM(quantity),0) AS qty
       FROM batch
-      WHERE UPPER(location) = 'SHELF'
+      WHERE location = 'SHELF'
       GROUP BY product_code
       HAVING qty < ?
       ORDER BY qty ASC
@@ -0,0 +1,144 @@
+package main.java.application.reports;
+
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/** The end-of-day reports the manager can run through the {@link ReportExecutor}. */
+public final class ReportCatalog {
+
+    private ReportCatalog() {}
+
+    /** Reports by menu key, in menu order. */
+    public static Map<String, PartitionedReport<?>> standard(int reorderThreshold) {
+        Map<String, PartitionedReport<?>> reports = new LinkedHashMap<>();
+        reports.put("1", new Totals("Sales by product", true, """
+          SELECT product_code, SUM(qty), SUM(revenue_cents)
+          FROM sales_daily WHERE day >= ? AND day < ?
+          GROUP BY product_code
+        """, 1, new String[]{"qty", "revenue"}, new boolean[]{false, true}));
+        reports.put("2", new Totals("Reorder (SHELF < " + reorderThreshold + ")", false, """
+          SELECT product_code, COALESCE(SUM(quantity),0) AS qty
+          FROM batch WHERE location = 'SHELF'
+          GROUP BY product_code HAVING qty <
+        """ + reorderThreshold, 1, new String[]{"qty"}, new boolean[]{false}));
+        reports.put("3", new Totals("Stock by location", false, """
+          SELECT product_code, location, SUM(quantity)
+          FROM batch GROUP BY product_code, location
+        """, 2, new String[]{"qty"}, new boolean[]{false}));
+        reports.put("4", new Shortages());
+        reports.put("5", new Totals("Inventory movements", true, """
+          SELECT product_code, CONCAT(COALESCE(from_location,'-'), '->', COALESCE(to_location,'-')), SUM(quantity), COUNT(*)
+          FROM inventory_movement WHERE happened_at >= ? AND happened_at < ?
+          GROUP BY 1, 2
+        """, 2, new String[]{"qty", "moves"}, new boolean[]{false, false}));
+        return reports;
+    }
+
+    /** Rows keyed by the first {@code keyColumns} columns with summed numeric columns; merging adds them up. */
+    private static final class Totals implements PartitionedReport<Map<String, long[]>> {
+        private final String title;
+        private final boolean byDate;
+        private final String sql;
+        private final int keyColumns;
+        private final String[] valueNames;
+        private final boolean[] money;
+
+        Totals(String title, boolean byDate, String sql, int keyColumns, String[] valueNames, boolean[] money) {
+            this.title = title; this.byDate = byDate; this.sql = sql;
+            this.keyColumns = keyColumns; this.valueNames = valueNames; this.money = money;
+        }
+
+        @Override public String title() { return title; }
+        @Override public boolean byDate() { return byDate; }
+
+        @Override
+        public Map<String, long[]> query(Connection con, LocalDate from, LocalDate toExclusive) throws SQLException {
+            Map<String, long[]> rows = new TreeMap<>();
+            try (var ps = con.prepareStatement(sql)) {
+                if (byDate) bindRange(ps, from, toExclusive);
+                try (var rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        var key = new StringBuilder(rs.getString(1));
+                        for (int c = 2; c <= keyColumns; c++) key.append("  ").append(rs.getString(c));
+                        long[] values = new long[valueNames.length];
+                        for (int v = 0; v < values.length; v++) values[v] = rs.getLong(keyColumns + 1 + v);
+                        rows.put(key.toString(), values);
+                    }
+                }
+            }
+            return rows;
+        }
+
+        @Override
+        public Map<String, long[]> combine(Map<String, long[]> left, Map<String, long[]> right) {
+            right.forEach((k, v) -> left.merge(k, v, (a, b) -> {
+                for (int i = 0; i < a.length; i++) a[i] += b[i];
+                return a;
+            }));
+            return left;
+        }
+
+        @Override
+        public void print(Map<String, long[]> rows, PrintStream out) {
+            if (rows.isEmpty()) { out.println("(none)"); return; }
+            long[] total = new long[valueNames.length];
+            rows.forEach((k, v) -> {
+                out.printf("%-36s", k);
+                for (int i = 0; i < v.length; i++) { out.print("  " + format(valueNames[i], v[i], money[i])); total[i] += v[i]; }
+                out.println();
+            });
+            out.printf("%-36s", "TOTAL");
+            for (int i = 0; i < total.length; i++) out.print("  " + format(valueNames[i], total[i], money[i]));
+            out.println();
+        }
+
+        private static String format(String name, long value, boolean money) {
+            return money ? String.format("%s=%.2f", name, value / 100.0) : name + "=" + value;
+        }
+    }
+
+    /** Shortage notifications raised in the period, oldest first. */
+    private static final class Shortages implements PartitionedReport<List<String>> {
+        @Override public String title() { return "Shortage notifications"; }
+
+        @Override
+        public List<String> query(Connection con, LocalDate from, LocalDate toExclusive) throws SQLException {
+            var sql = "SELECT created_at, message FROM notify_shortage WHERE created_at >= ? AND created_at < ? ORDER BY created_at, id";
+            List<String> out = new ArrayList<>();
+            try (var ps = con.prepareStatement(sql)) {
+                bindRange(ps, from, toExclusive);
+                try (var rs = ps.executeQuery()) {
+                    while (rs.next()) out.add(rs.getTimestamp(1) + " | " + rs.getString(2));
+                }
+            }
+            return out;
+        }
+
+        @Override
+        public List<String> combine(List<String> left, List<String> right) {
+            left.addAll(right);
+            return left;
+        }
+
+        @Override
+        public void print(List<String> rows, PrintStream out) {
+            if (rows.isEmpty()) out.println("(none)");
+            rows.forEach(out::println);
+        }
+    }
+
+    /** Midnight bounds work for DATE and TIMESTAMP columns alike. */
+    private static void bindRange(PreparedStatement ps, LocalDate from, LocalDate toExclusive) throws SQLException {
+        ps.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+        ps.setTimestamp(2, Timestamp.valueOf(toExclusive.atStartOfDay()));
+    }
+}
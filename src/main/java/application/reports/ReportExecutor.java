@@ -0,0 +1,98 @@
+package main.java.application.reports;
+
+import javax.sql.DataSource;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs reports by splitting their date range into partitions of at most {@code partitionDays}
+ * days. Partitions are forked on a {@link ForkJoinPool}, each one querying on its own connection;
+ * a semaphore caps the connections open at once at {@code parallelism}, even when the pool adds
+ * threads to make up for blocked joins.
+ */
+public final class ReportExecutor implements AutoCloseable {
+
+    private final DataSource ds;
+    private final ForkJoinPool pool;
+    private final Semaphore connections;
+    private final int partitionDays;
+
+    public ReportExecutor(DataSource ds, int parallelism, int partitionDays) {
+        if (parallelism < 1 || partitionDays < 1) throw new IllegalArgumentException("parallelism and partitionDays must be >= 1");
+        this.ds = ds;
+        this.pool = new ForkJoinPool(parallelism);
+        this.connections = new Semaphore(parallelism);
+        this.partitionDays = partitionDays;
+    }
+
+    /** Result of one report for {@code from..to} inclusive. */
+    public <R> R run(PartitionedReport<R> report, LocalDate from, LocalDate to) {
+        return pool.invoke(new Partition<>(report, from, to.plusDays(1)));
+    }
+
+    /**
+     * Run all reports concurrently and print each one, in the given order, as soon as it and the
+     * ones before it are done.
+     */
+    public void runAll(List<PartitionedReport<?>> reports, LocalDate from, LocalDate to, PrintStream out) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (PartitionedReport<?> r : reports) tasks.add(pool.submit(new Partition<>(r, from, to.plusDays(1))));
+        for (int i = 0; i < reports.size(); i++) {
+            print(reports.get(i), tasks.get(i).join(), from, to, out);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> void print(PartitionedReport<R> report, Object result, LocalDate from, LocalDate to, PrintStream out) {
+        out.println("\n== " + report.title() + (report.byDate() ? " (" + from + " to " + to + ")" : "") + " ==");
+        report.print((R) result, out);
+        out.flush();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private final class Partition<R> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+
+        private final PartitionedReport<R> report;
+        private final LocalDate from, toExclusive;
+
+        Partition(PartitionedReport<R> report, LocalDate from, LocalDate toExclusive) {
+            this.report = report; this.from = from; this.toExclusive = toExclusive;
+        }
+
+        @Override
+        protected R compute() {
+            long days = ChronoUnit.DAYS.between(from, toExclusive);
+            if (!report.byDate() || days <= partitionDays) return query();
+            LocalDate mid = from.plusDays(days / 2);
+            var left = new Partition<>(report, from, mid);
+            left.fork();
+            R right = new Partition<>(report, mid, toExclusive).compute();
+            return report.combine(left.join(), right);
+        }
+
+        private R query() {
+            connections.acquireUninterruptibly();
+            try (Connection con = ds.getConnection()) {
+                con.setReadOnly(true);
+                return report.query(con, from, toExclusive);
+            } catch (Exception e) {
+                throw new RuntimeException(report.title() + " failed for " + from + ".." + toExclusive, e);
+            } finally {
+                connections.release();
+            }
+        }
+    }
+}
@@ -18,7 +18,7 @@ public final class AvailabilityService {
 
     /** Available quantity for a single product at a location. */
     public int available(String productCode, StockLocation loc) {
-        return tx.inTx(con -> inv.totalAvailable(con, productCode, loc.name()));
+        return tx.inTx(con -> inv.committedAvailable(con, productCode, loc));
     }
 
     /** Transfer stock between any two locations. */
@@ -32,9 +32,9 @@ public final class AvailabilityService {
     /** Get availability across all stock locations for a product. */
     public Map<StockLocation, Integer> getAvailabilityAcrossAllLocations(String productCode) {
         return tx.inTx(con -> {
-            Map<StockLocation, Integer> availability = new HashMap<>();
+            Map<StockLocation, Integer> availability = new EnumMap<>(StockLocation.class);
             for (StockLocation location : StockLocation.values()) {
-                int qty = inv.totalAvailable(con, productCode, location.name());
+                int qty = inv.committedAvailable(con, productCode, location);
                 availability.put(location, qty);
             }
             return availability;
@@ -0,0 +1,135 @@
+package main.java.application.services;
+
+import main.java.domain.billing.Bill;
+import main.java.domain.billing.BillLine;
+import main.java.domain.shared.Code;
+import main.java.domain.shared.Money;
+import main.java.domain.shared.Quantity;
+import main.java.infrastructure.archive.BillArchive;
+import main.java.infrastructure.concurrency.Tx;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Moves closed days of bills from the {@code bill}/{@code bill_line} tables into the
+ * {@link BillArchive}, keeping the hot tables down to the last few days.
+ * <p>
+ * A day is archived in one transaction: its rows are locked and streamed into a new day file,
+ * the file is committed, and only then are the rows deleted. If the delete never commits, the
+ * next run rewrites the same day; bills already in the file are kept and not duplicated, which
+ * also covers offline bills replayed into a day that was already archived.
+ */
+public final class BillArchiveService {
+
+    private static final Logger LOGGER = Logger.getLogger(BillArchiveService.class.getName());
+
+    private final Tx tx;
+    private final BillArchive archive;
+
+    public BillArchiveService(Tx tx, BillArchive archive) {
+        this.tx = tx; this.archive = archive;
+    }
+
+    /** Archive every day older than {@code keepDays} days; returns the number of bills moved. */
+    public int archiveClosedDays(int keepDays) {
+        LocalDate cutoff = LocalDate.now().minusDays(keepDays);
+        int moved = 0;
+        for (LocalDate day = oldestDayBefore(cutoff); day != null; day = oldestDayBefore(cutoff)) {
+            int n = archiveDay(day);
+            LOGGER.info("Archived " + n + " bill(s) of " + day);
+            moved += n;
+        }
+        return moved;
+    }
+
+    public int archiveDay(LocalDate day) {
+        LocalDateTime from = day.atStartOfDay(), to = day.plusDays(1).atStartOfDay();
+        return tx.inTx(con -> {
+            int[] moved = {0};
+            try (var writer = archive.openDay(day)) {
+                Set<String> kept = new HashSet<>();
+                if (archive.hasDay(day)) {
+                    archive.scan(from, to, b -> { kept.add(b.serial()); writer.add(b); });
+                }
+                streamDay(con, from, to, b -> {
+                    if (kept.add(b.serial())) writer.add(b);
+                    moved[0]++;
+                });
+                writer.commit();
+            }
+            delete(con, "DELETE l FROM bill_line l JOIN bill b ON b.id = l.bill_id WHERE b.date_time >= ? AND b.date_time < ?", from, to);
+            delete(con, "DELETE FROM bill WHERE date_time >= ? AND date_time < ?", from, to);
+            return moved[0];
+        });
+    }
+
+    private LocalDate oldestDayBefore(LocalDate cutoff) {
+        return tx.inTx(con -> {
+            try (var ps = con.prepareStatement("SELECT MIN(date_time) FROM bill WHERE date_time < ?")) {
+                ps.setTimestamp(1, Timestamp.valueOf(cutoff.atStartOfDay()));
+                try (ResultSet rs = ps.executeQuery()) {
+                    Timestamp t = rs.next() ? rs.getTimestamp(1) : null;
+                    return t == null ? null : t.toLocalDateTime().toLocalDate();
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /** Bills with their lines, one bill at a time, locked for the delete that follows. */
+    private static void streamDay(Connection con, LocalDateTime from, LocalDateTime to, Consumer<Bill> sink) {
+        var sql = """
+      SELECT b.id, b.serial, b.date_time, b.discount_cents, b.cash_cents,
+             l.product_code, l.name, l.qty, l.unit_price_cents
+      FROM bill b LEFT JOIN bill_line l ON l.bill_id = b.id
+      WHERE b.date_time >= ? AND b.date_time < ?
+      ORDER BY b.date_time, b.id, l.id
+      FOR UPDATE
+    """;
+        try (var ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE); // stream; a day can be large
+            ps.setTimestamp(1, Timestamp.valueOf(from));
+            ps.setTimestamp(2, Timestamp.valueOf(to));
+            try (ResultSet rs = ps.executeQuery()) {
+                long current = -1;
+                Bill.Builder builder = null;
+                while (rs.next()) {
+                    long id = rs.getLong(1);
+                    if (id != current) {
+                        if (builder != null) sink.accept(builder.build());
+                        current = id;
+                        builder = new Bill.Builder().id(id).serial(rs.getString(2))
+                                .dateTime(rs.getTimestamp(3).toLocalDateTime())
+                                .discount(Money.of(rs.getLong(4))).cash(Money.of(rs.getLong(5)));
+                    }
+                    String code = rs.getString(6);
+                    if (code != null) {
+                        builder.addLine(new BillLine(Code.of(code), rs.getString(7), new Quantity(rs.getInt(8)), Money.of(rs.getLong(9))));
+                    }
+                }
+                if (builder != null) sink.accept(builder.build());
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read bills from " + from + " to " + to, e);
+        }
+    }
+
+    private static void delete(Connection con, String sql, LocalDateTime from, LocalDateTime to) {
+        try (var ps = con.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.valueOf(from));
+            ps.setTimestamp(2, Timestamp.valueOf(to));
+            ps.executeUpdate();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -2,7 +2,10 @@ package main.java.application.services;
 
 import main.java.infrastructure.concurrency.Tx;
 
+import java.sql.Connection;
 import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
 
 public final class BillNumberService {
     private final Tx tx;
@@ -11,28 +14,36 @@ public final class BillNumberService {
 
     /** Returns next serial like C-000001 for the given scope (COUNTER -> 'C'). */
     public String next(String scope) {
-        return tx.inTx(con -> {
-            try (var ps = con.prepareStatement(
-                    "SELECT next_val FROM bill_number WHERE scope=? FOR UPDATE")) {
-                ps.setString(1, scope);
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (!rs.next()) throw new IllegalStateException("Unknown scope: " + scope);
-                    long current = rs.getLong(1);
-                    long next = current + 1;
-
-                    try (var up = con.prepareStatement(
-                            "UPDATE bill_number SET next_val=? WHERE scope=?")) {
-                        up.setLong(1, next);
-                        up.setString(2, scope);
-                        up.executeUpdate();
-                    }
-
-                    String prefix = scope.isBlank() ? "X" : scope.substring(0,1).toUpperCase();
-                    return String.format("%s-%06d", prefix, current);
+        return tx.inTx(con -> next(con, scope, 1).get(0));
+    }
+
+    /** Reserves {@code count} consecutive serials on the caller's transaction (one row lock, one update). */
+    public List<String> next(Connection con, String scope, int count) {
+        try (var ps = con.prepareStatement(
+                "SELECT next_val FROM bill_number WHERE scope=? FOR UPDATE")) {
+            ps.setString(1, scope);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) throw new IllegalStateException("Unknown scope: " + scope);
+                long current = rs.getLong(1);
+
+                try (var up = con.prepareStatement(
+                        "UPDATE bill_number SET next_val=? WHERE scope=?")) {
+                    up.setLong(1, current + count);
+                    up.setString(2, scope);
+                    up.executeUpdate();
+                }
+
+                String prefix = scope.isBlank() ? "X" : scope.substring(0,1).toUpperCase();
+                List<String> serials = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    serials.add(String.format("%s-%06d", prefix, current + i));
                 }
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+                return serials;
             }
-        });
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package main.java.application.services;
+
+import main.java.domain.product.Category;
+import main.java.domain.repository.CategoryRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out product codes per category from blocks of sequence numbers reserved in one atomic
+ * UPDATE, so most codes cost no database work and concurrent callers never receive the same code.
+ * Numbers left in a block when the application stops are never used, leaving gaps in the codes.
+ */
+public final class CategorySequenceAllocator {
+
+    private static final class Block {
+        String prefix;
+        int next;
+        int end; // exclusive
+    }
+
+    private final CategoryRepository categories;
+    private final int blockSize;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public CategorySequenceAllocator(CategoryRepository categories, int blockSize) {
+        if (blockSize <= 0) throw new IllegalArgumentException("blockSize must be positive");
+        this.categories = categories;
+        this.blockSize = blockSize;
+    }
+
+    /** Next product code for the category, e.g. CLN042. */
+    public String next(String categoryCode) {
+        return next(categoryCode, 1).get(0);
+    }
+
+    /** The code {@link #next(String)} would return now, without taking it. */
+    public String peek(Category category) {
+        Block block = blocks.get(category.code());
+        if (block != null) {
+            synchronized (block) {
+                if (block.next < block.end) return String.format("%s%03d", block.prefix, block.next);
+            }
+        }
+        return category.generateNextProductCode();
+    }
+
+    /**
+     * {@code count} new product codes for the category. What the current block cannot cover is
+     * reserved in one go, so a bulk import of n products costs one UPDATE.
+     */
+    public List<String> next(String categoryCode, int count) {
+        Block block = blocks.computeIfAbsent(categoryCode, c -> new Block());
+        synchronized (block) {
+            if (block.prefix == null) {
+                block.prefix = categories.findByCode(categoryCode)
+                        .map(Category::prefix)
+                        .orElseThrow(() -> new IllegalArgumentException("Category not found: " + categoryCode));
+            }
+            List<String> codes = new ArrayList<>(count);
+            while (codes.size() < count) {
+                if (block.next == block.end) {
+                    int reserve = Math.max(blockSize, count - codes.size());
+                    block.next = categories.reserveSequence(categoryCode, reserve);
+                    block.end = block.next + reserve;
+                }
+                codes.add(String.format("%s%03d", block.prefix, block.next++));
+            }
+            return codes;
+        }
+    }
+}
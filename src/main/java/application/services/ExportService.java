@@ -0,0 +1,191 @@
+package main.java.application.services;
+
+import main.java.domain.billing.Bill;
+import main.java.domain.billing.BillLine;
+import main.java.infrastructure.archive.BillArchive;
+import main.java.infrastructure.export.CsvFileWriter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Streams bills, bill lines, batches or inventory movements to a CSV file (optionally gzipped).
+ * <p>
+ * Rows are read in id order through a forward-only streaming cursor and written through a fixed
+ * buffer, so memory does not grow with the export. Every {@value #CHECKPOINT_ROWS} rows the file
+ * is forced and a {@code <file>.ckpt} records the last id and the file size; running the same
+ * export again resumes from there. The checkpoint is removed when the export completes.
+ * <p>
+ * Bills and bill lines of days moved to the {@link BillArchive} are no longer in the tables; they
+ * are read from the archive first, a day at a time with a checkpoint after each, then the tables
+ * follow. Archived lines have no id of their own, so that column is left empty for them.
+ */
+public final class ExportService {
+
+    private static final int CHECKPOINT_ROWS = 50_000;
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public enum Dataset {
+        BILLS("SELECT b.id, b.serial, b.date_time, b.subtotal_cents, b.discount_cents, b.total_cents, b.cash_cents, b.change_cents FROM bill b",
+                "b.id", "b.date_time", "EXISTS (SELECT 1 FROM bill_line l WHERE l.bill_id = b.id AND l.product_code = ?)",
+                "id,serial,date_time,subtotal_cents,discount_cents,total_cents,cash_cents,change_cents"),
+        BILL_LINES("SELECT l.id, l.bill_id, b.serial, b.date_time, l.product_code, l.name, l.qty, l.unit_price_cents, l.line_total_cents FROM bill_line l JOIN bill b ON b.id = l.bill_id",
+                "l.id", "b.date_time", "l.product_code = ?",
+                "id,bill_id,serial,date_time,product_code,name,qty,unit_price_cents,line_total_cents"),
+        BATCHES("SELECT id, product_code, location, received_at, expiry, quantity FROM batch",
+                "id", "received_at", "product_code = ?",
+                "id,product_code,location,received_at,expiry,quantity"),
+        MOVEMENTS("SELECT id, happened_at, product_code, from_location, to_location, quantity, note FROM inventory_movement",
+                "id", "happened_at", "product_code = ?",
+                "id,happened_at,product_code,from_location,to_location,quantity,note");
+
+        final String select, idColumn, timeColumn, productFilter, header;
+
+        Dataset(String select, String idColumn, String timeColumn, String productFilter, String header) {
+            this.select = select; this.idColumn = idColumn; this.timeColumn = timeColumn;
+            this.productFilter = productFilter; this.header = header;
+        }
+    }
+
+    /** What to export; {@code from}/{@code to} (inclusive) and {@code productCode} may be null. */
+    public record Spec(Dataset dataset, LocalDate from, LocalDate to, String productCode, Path file, boolean gzip) {
+        String fingerprint() {
+            return dataset + "|" + from + "|" + to + "|" + productCode + "|" + gzip;
+        }
+    }
+
+    public record Result(long rows, long bytes, boolean resumed) {}
+
+    private final DataSource ds;
+    private final BillArchive archive;
+
+    public ExportService(DataSource ds) { this(ds, null); }
+
+    /** {@code archive} may be null when bills are not archived. */
+    public ExportService(DataSource ds, BillArchive archive) { this.ds = ds; this.archive = archive; }
+
+    public Result export(Spec spec) {
+        Path ckpt = spec.file().resolveSibling(spec.file().getFileName() + ".ckpt");
+        Properties resume = readCheckpoint(ckpt, spec);
+        long afterId = resume == null ? 0 : Long.parseLong(resume.getProperty("lastId"));
+        long rows = resume == null ? 0 : Long.parseLong(resume.getProperty("rows"));
+        long size = resume == null ? 0 : Long.parseLong(resume.getProperty("bytes"));
+        // Archived days go first; the property holds the last one written, or "done" once the tables are reached
+        String archived = resume == null ? null : resume.getProperty("archived");
+        boolean fromArchive = archive != null && (spec.dataset() == Dataset.BILLS || spec.dataset() == Dataset.BILL_LINES);
+
+        List<Object> params = new ArrayList<>();
+        var sql = new StringBuilder(spec.dataset().select).append(" WHERE ").append(spec.dataset().idColumn).append(" > ?");
+        params.add(afterId);
+        if (spec.from() != null) { sql.append(" AND ").append(spec.dataset().timeColumn).append(" >= ?"); params.add(Timestamp.valueOf(spec.from().atStartOfDay())); }
+        if (spec.to() != null) { sql.append(" AND ").append(spec.dataset().timeColumn).append(" < ?"); params.add(Timestamp.valueOf(spec.to().plusDays(1).atStartOfDay())); }
+        if (spec.productCode() != null) { sql.append(" AND ").append(spec.dataset().productFilter); params.add(spec.productCode()); }
+        sql.append(" ORDER BY ").append(spec.dataset().idColumn);
+
+        try (Connection con = ds.getConnection();
+             var ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             var out = new CsvFileWriter(spec.file(), spec.gzip(), size)) {
+            ps.setFetchSize(Integer.MIN_VALUE); // MySQL streams rows instead of buffering the result
+            for (int i = 0; i < params.size(); i++) ps.setObject(i + 1, params.get(i));
+            if (resume == null) {
+                for (String h : spec.dataset().header.split(",")) out.field(h);
+                out.endRow();
+            }
+            if (fromArchive && !"done".equals(archived)) {
+                LocalDate after = archived == null ? null : LocalDate.parse(archived);
+                for (LocalDate day : archive.days()) {
+                    if ((after != null && !day.isAfter(after)) || (spec.from() != null && day.isBefore(spec.from()))
+                            || (spec.to() != null && day.isAfter(spec.to()))) continue;
+                    long[] written = {0};
+                    archive.scan(day.atStartOfDay(), day.plusDays(1).atStartOfDay(), bill -> written[0] += writeArchived(out, spec, bill));
+                    rows += written[0];
+                    writeCheckpoint(ckpt, spec, 0, rows, out.checkpoint(), day.toString());
+                }
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                int columns = rs.getMetaData().getColumnCount();
+                long sinceCheckpoint = 0;
+                while (rs.next()) {
+                    for (int c = 1; c <= columns; c++) out.field(rs.getString(c));
+                    out.endRow();
+                    rows++;
+                    if (++sinceCheckpoint == CHECKPOINT_ROWS) {
+                        writeCheckpoint(ckpt, spec, rs.getLong(1), rows, out.checkpoint(), fromArchive ? "done" : null);
+                        sinceCheckpoint = 0;
+                    }
+                }
+            }
+            size = out.checkpoint();
+        } catch (Exception e) {
+            throw new RuntimeException("Export to " + spec.file() + " stopped after " + rows + " rows; run it again to resume", e);
+        }
+        try {
+            Files.deleteIfExists(ckpt);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Result(rows, size, resume != null);
+    }
+
+    /** Rows for one archived bill, in the same columns as the table query; returns how many were written. */
+    private static int writeArchived(CsvFileWriter out, Spec spec, Bill bill) {
+        String product = spec.productCode();
+        String time = DATE_TIME.format(bill.dateTime());
+        if (spec.dataset() == Dataset.BILLS) {
+            if (product != null && bill.lines().stream().noneMatch(l -> l.productCode().value().equalsIgnoreCase(product))) return 0;
+            out.field(bill.id()).field(bill.serial()).field(time).field(bill.subtotal().cents()).field(bill.discount().cents())
+                    .field(bill.total().cents()).field(bill.cash().cents()).field(bill.change().cents());
+            out.endRow();
+            return 1;
+        }
+        int n = 0;
+        for (BillLine l : bill.lines()) {
+            if (product != null && !l.productCode().value().equalsIgnoreCase(product)) continue;
+            out.field(null).field(bill.id()).field(bill.serial()).field(time).field(l.productCode().value()).field(l.name())
+                    .field(l.qty().value()).field(l.unitPrice().cents()).field(l.lineTotal().cents());
+            out.endRow();
+            n++;
+        }
+        return n;
+    }
+
+    private static Properties readCheckpoint(Path ckpt, Spec spec) {
+        if (!Files.exists(ckpt) || !Files.exists(spec.file())) return null;
+        var p = new Properties();
+        try (InputStream in = Files.newInputStream(ckpt)) {
+            p.load(in);
+        } catch (IOException e) {
+            return null;
+        }
+        return Objects.equals(p.getProperty("spec"), spec.fingerprint()) ? p : null;
+    }
+
+    private static void writeCheckpoint(Path ckpt, Spec spec, long lastId, long rows, long bytes, String archived) throws IOException {
+        var p = new Properties();
+        p.setProperty("spec", spec.fingerprint());
+        if (archived != null) p.setProperty("archived", archived);
+        p.setProperty("lastId", Long.toString(lastId));
+        p.setProperty("rows", Long.toString(rows));
+        p.setProperty("bytes", Long.toString(bytes));
+        Path tmp = ckpt.resolveSibling(ckpt.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            p.store(out, "export checkpoint");
+        }
+        Files.move(tmp, ckpt, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
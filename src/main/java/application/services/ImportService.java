@@ -0,0 +1,359 @@
+package main.java.application.services;
+
+import main.java.application.usecase.CategoryManagementUseCase;
+import main.java.domain.inventory.Batch;
+import main.java.domain.inventory.StockLocation;
+import main.java.domain.product.Category;
+import main.java.domain.product.Product;
+import main.java.domain.repository.InventoryRepository;
+import main.java.domain.repository.ProductRepository;
+import main.java.domain.shared.Code;
+import main.java.domain.shared.Money;
+import main.java.domain.shared.Quantity;
+import main.java.infrastructure.concurrency.Tx;
+import main.java.infrastructure.export.CsvFileWriter;
+import main.java.infrastructure.imports.CsvRowReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads categories, products or opening stock from a CSV file.
+ * <p>
+ * A reader thread parses the file and validates each chunk of {@value #CHUNK_ROWS} rows in parallel
+ * while the previous chunk is written, so parsing overlaps the database work. Each chunk is written
+ * in one transaction with multi-row upserts; if a chunk fails, its rows are retried one by one so
+ * that only the bad rows are rejected. Rejected rows go to {@code <file>.errors.csv} with their line
+ * number and reason. The position in the file is committed in {@code import_progress} with every
+ * chunk, so an interrupted import run again continues after the last committed chunk.
+ */
+public final class ImportService {
+
+    private static final int CHUNK_ROWS = 5_000;
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd[ HH:mm[:ss]]");
+
+    public enum Dataset {
+        CATEGORIES("code,name,description,prefix,display_order"),
+        PRODUCTS("code,name,price,category_code"),
+        BATCHES("product_code,location,received_at,expiry,quantity");
+
+        final String header;
+
+        Dataset(String header) { this.header = header; }
+
+        public String header() { return header; }
+    }
+
+    public record Result(long records, long imported, long failed, boolean resumed, boolean alreadyDone, Path errorReport) {}
+
+    /** One CSV record after validation: the parsed value, or why it was rejected. */
+    private record Row(long line, String[] raw, Object value, String error) {}
+
+    private record Chunk(List<Row> rows, long records, RuntimeException failure) {
+        static final Chunk END = new Chunk(List.of(), -1, null);
+    }
+
+    /** A product row; a blank code is generated from the category when the chunk is written. */
+    private record ProductRow(String code, String name, Money price, String categoryCode) {}
+
+    private record Progress(long records, long imported, long failed, long errorBytes, boolean finished) {
+        static final Progress NONE = new Progress(0, 0, 0, 0, false);
+    }
+
+    private final Tx tx;
+    private final ProductRepository products;
+    private final InventoryRepository inventory;
+    private final CategoryManagementUseCase categories;
+
+    public ImportService(Tx tx, ProductRepository products, InventoryRepository inventory, CategoryManagementUseCase categories) {
+        this.tx = tx; this.products = products; this.inventory = inventory; this.categories = categories;
+    }
+
+    public Result importFile(Dataset dataset, Path file) {
+        String key = dataset + ":" + file.toAbsolutePath().normalize();
+        String fingerprint = fingerprint(dataset, file);
+        Progress progress = tx.inTx(con -> loadProgress(con, key, fingerprint));
+        Path report = file.resolveSibling(file.getFileName() + ".errors.csv");
+        if (progress.finished()) {
+            return new Result(progress.records(), progress.imported(), progress.failed(), false, true, report);
+        }
+        boolean resumed = progress.records() > 0;
+
+        // Category codes are resolved in memory; categories added by this import join the map as they are written
+        Map<String, Category> byCode = new ConcurrentHashMap<>();
+        categories.getAllCategories().forEach(c -> byCode.put(c.code().toUpperCase(Locale.ROOT), c));
+
+        BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(2);
+        Thread reader = new Thread(() -> read(dataset, file, progress.records(), byCode, chunks), "import-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        long records = progress.records(), imported = progress.imported(), failed = progress.failed();
+        try (var errors = new CsvFileWriter(report, false, progress.errorBytes())) {
+            if (progress.errorBytes() == 0) {
+                errors.field("line").field("error").field("row");
+                errors.endRow();
+            }
+            while (true) {
+                Chunk chunk = chunks.take();
+                if (chunk == Chunk.END) break;
+                if (chunk.failure() != null) throw chunk.failure();
+
+                List<Row> rejected = new ArrayList<>();
+                long[] written = new long[1];
+                long total = chunk.records();
+                long ok = imported, bad = failed;
+                tx.inTx(con -> {
+                    written[0] = write(con, dataset, chunk.rows(), byCode, rejected);
+                    for (Row r : rejected) {
+                        errors.field(r.line()).field(r.error()).field(String.join(",", r.raw()));
+                        errors.endRow();
+                    }
+                    long errorBytes = errors.checkpoint();
+                    saveProgress(con, key, fingerprint, new Progress(total, ok + written[0], bad + rejected.size(), errorBytes, false));
+                    return null;
+                });
+                records = total;
+                imported += written[0];
+                failed += rejected.size();
+            }
+            long done = records, ok = imported, bad = failed, errorBytes = errors.checkpoint();
+            tx.inTx(con -> {
+                saveProgress(con, key, fingerprint, new Progress(done, ok, bad, errorBytes, true));
+                return null;
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Import interrupted after " + records + " rows; run it again to resume", e);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Import of " + file + " stopped after " + records + " rows; run it again to resume", e);
+        } finally {
+            reader.interrupt();
+        }
+        return new Result(records, imported, failed, resumed, false, report);
+    }
+
+    /** Reader thread: parse, skip what is already imported, validate chunks in parallel and hand them over. */
+    private void read(Dataset dataset, Path file, long skip, Map<String, Category> byCode, BlockingQueue<Chunk> out) {
+        try (var csv = new CsvRowReader(file)) {
+            String[] header = csv.next();
+            if (header == null || !String.join(",", header).toLowerCase(Locale.ROOT).equals(dataset.header)) {
+                throw new IllegalArgumentException("Expected header: " + dataset.header);
+            }
+            long records = 0;
+            while (records < skip && csv.next() != null) records++;
+            List<Row> raw = new ArrayList<>(CHUNK_ROWS);
+            String[] fields;
+            while (true) {
+                fields = csv.next();
+                if (fields != null) {
+                    raw.add(new Row(csv.line(), fields, null, null));
+                    records++;
+                }
+                if (raw.size() == CHUNK_ROWS || (fields == null && !raw.isEmpty())) {
+                    List<Row> validated = raw.parallelStream().map(r -> validate(dataset, r, byCode)).toList();
+                    out.put(new Chunk(validated, records, null));
+                    raw = new ArrayList<>(CHUNK_ROWS);
+                }
+                if (fields == null) break;
+            }
+            out.put(Chunk.END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            try {
+                out.put(new Chunk(List.of(), -1, e));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static Row validate(Dataset dataset, Row row, Map<String, Category> byCode) {
+        String[] f = row.raw();
+        int expected = dataset.header.split(",").length;
+        if (f.length != expected) return reject(row, "expected " + expected + " fields, found " + f.length);
+        try {
+            Object value = switch (dataset) {
+                case CATEGORIES -> new Category(f[0].toUpperCase(Locale.ROOT), f[1], f[2].isEmpty() ? null : f[2], f[3],
+                        1, f[4].isEmpty() ? 0 : Integer.parseInt(f[4]), true);
+                case PRODUCTS -> product(f, byCode);
+                case BATCHES -> batch(f);
+            };
+            return new Row(row.line(), f, value, null);
+        } catch (NumberFormatException e) {
+            return reject(row, "not a number: " + e.getMessage());
+        } catch (DateTimeParseException e) {
+            return reject(row, "not a date: " + e.getParsedString());
+        } catch (IllegalArgumentException e) {
+            return reject(row, e.getMessage());
+        }
+    }
+
+    private static ProductRow product(String[] f, Map<String, Category> byCode) {
+        String code = f[0].toUpperCase(Locale.ROOT);
+        if (code.length() > 64) throw new IllegalArgumentException("code longer than 64 characters");
+        if (f[1].isBlank()) throw new IllegalArgumentException("name is blank");
+        if (f[1].length() > 255) throw new IllegalArgumentException("name longer than 255 characters");
+        BigDecimal price = new BigDecimal(f[2]);
+        if (price.signum() < 0 || price.scale() > 2) throw new IllegalArgumentException("price must be positive with at most 2 decimals");
+        String category = f[3].isEmpty() ? null : f[3].toUpperCase(Locale.ROOT);
+        if (category != null && !byCode.containsKey(category)) throw new IllegalArgumentException("unknown category " + f[3]);
+        if (code.isEmpty() && category == null) throw new IllegalArgumentException("code or category_code is required");
+        return new ProductRow(code.isEmpty() ? null : code, f[1], Money.of(price), category);
+    }
+
+    private static Batch batch(String[] f) {
+        if (f[0].isEmpty()) throw new IllegalArgumentException("product_code is blank");
+        StockLocation location;
+        try {
+            location = StockLocation.valueOf(f[1].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown location " + f[1]);
+        }
+        var parsed = DATE_TIME.parseBest(f[2], LocalDateTime::from, LocalDate::from);
+        LocalDateTime receivedAt = parsed instanceof LocalDate d ? d.atTime(LocalTime.MIDNIGHT) : (LocalDateTime) parsed;
+        LocalDate expiry = f[3].isEmpty() ? null : LocalDate.parse(f[3]);
+        int quantity = Integer.parseInt(f[4]);
+        if (quantity <= 0) throw new IllegalArgumentException("quantity must be positive");
+        return new Batch(0, new Code(f[0].toUpperCase(Locale.ROOT)), location, receivedAt, expiry, new Quantity(quantity));
+    }
+
+    private static Row reject(Row row, String error) {
+        return new Row(row.line(), row.raw(), null, error);
+    }
+
+    /** Write the valid rows of a chunk; rejected rows (invalid or refused by the database) are added to {@code rejected}. */
+    private long write(Connection con, Dataset dataset, List<Row> rows, Map<String, Category> byCode, List<Row> rejected) {
+        List<Row> valid = new ArrayList<>(rows.size());
+        for (Row r : rows) {
+            if (r.error() != null) rejected.add(r); else valid.add(r);
+        }
+        if (valid.isEmpty()) return 0;
+        if (dataset == Dataset.CATEGORIES) {
+            long created = 0;
+            for (Row r : valid) {
+                Category c = (Category) r.value();
+                try {
+                    categories.createCategory(new CategoryManagementUseCase.CreateCategoryRequest(
+                            c.code(), c.name(), c.description(), c.prefix(), c.displayOrder()));
+                    byCode.put(c.code(), c);
+                    created++;
+                } catch (RuntimeException e) {
+                    rejected.add(reject(r, rootMessage(e)));
+                }
+            }
+            return created;
+        }
+
+        List<Object> values = dataset == Dataset.PRODUCTS ? products(valid) : new ArrayList<>(valid.stream().map(Row::value).toList());
+        try {
+            Tx.inSavepoint(con, () -> { upsert(con, dataset, values); return null; });
+            return values.size();
+        } catch (RuntimeException chunkFailed) {
+            // Find the rows the database refuses, one savepoint each
+            long written = 0;
+            for (int i = 0; i < valid.size(); i++) {
+                List<Object> one = List.of(values.get(i));
+                try {
+                    Tx.inSavepoint(con, () -> { upsert(con, dataset, one); return null; });
+                    written++;
+                } catch (RuntimeException e) {
+                    rejected.add(reject(valid.get(i), rootMessage(e)));
+                }
+            }
+            return written;
+        }
+    }
+
+    /** Products of the valid rows in row order, generating codes per category for rows without one. */
+    private List<Object> products(List<Row> valid) {
+        Map<String, Integer> missing = new LinkedHashMap<>();
+        for (Row r : valid) {
+            ProductRow p = (ProductRow) r.value();
+            if (p.code() == null) missing.merge(p.categoryCode(), 1, Integer::sum);
+        }
+        Map<String, java.util.Iterator<String>> generated = new HashMap<>();
+        missing.forEach((category, n) -> generated.put(category, categories.generateProductCodes(category, n).iterator()));
+        List<Object> out = new ArrayList<>(valid.size());
+        for (Row r : valid) {
+            ProductRow p = (ProductRow) r.value();
+            String code = p.code() != null ? p.code() : generated.get(p.categoryCode()).next();
+            out.add(new Product(new Code(code), p.name(), p.price(), p.categoryCode()));
+        }
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void upsert(Connection con, Dataset dataset, List<Object> values) {
+        if (dataset == Dataset.PRODUCTS) products.upsertAll(con, (List<Product>) (List<?>) values);
+        else inventory.receiveBatches(con, (List<Batch>) (List<?>) values, "Opening stock import");
+    }
+
+    private static String rootMessage(Throwable e) {
+        while (e.getCause() != null) e = e.getCause();
+        return e.getMessage();
+    }
+
+    private static String fingerprint(Dataset dataset, Path file) {
+        try {
+            return dataset + "|" + Files.size(file) + "|" + Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + file, e);
+        }
+    }
+
+    /** Progress recorded for this import, or none if there is none or the file has changed since. */
+    private static Progress loadProgress(Connection con, String key, String fingerprint) {
+        String sql = "SELECT fingerprint, records, imported, failed, error_bytes, finished FROM import_progress WHERE import_key = ?";
+        try (var ps = con.prepareStatement(sql)) {
+            ps.setString(1, key);
+            try (var rs = ps.executeQuery()) {
+                if (!rs.next() || !fingerprint.equals(rs.getString(1))) return Progress.NONE;
+                return new Progress(rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getBoolean(6));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read import progress", e);
+        }
+    }
+
+    private static void saveProgress(Connection con, String key, String fingerprint, Progress p) {
+        String sql = """
+            INSERT INTO import_progress(import_key, fingerprint, records, imported, failed, error_bytes, finished)
+            VALUES (?,?,?,?,?,?,?)
+            ON DUPLICATE KEY UPDATE fingerprint = VALUES(fingerprint), records = VALUES(records), imported = VALUES(imported),
+                failed = VALUES(failed), error_bytes = VALUES(error_bytes), finished = VALUES(finished)
+            """;
+        try (var ps = con.prepareStatement(sql)) {
+            ps.setString(1, key);
+            ps.setString(2, fingerprint);
+            ps.setLong(3, p.records());
+            ps.setLong(4, p.imported());
+            ps.setLong(5, p.failed());
+            ps.setLong(6, p.errorBytes());
+            ps.setBoolean(7, p.finished());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save import progress", e);
+        }
+    }
+}
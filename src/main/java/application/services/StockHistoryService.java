@@ -0,0 +1,253 @@
+package main.java.application.services;
+
+import main.java.domain.inventory.StockLocation;
+import main.java.infrastructure.concurrency.Tx;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Stock held at a point in time, rebuilt from {@code stock_snapshot} and the movement ledger.
+ * <p>
+ * A question about time {@code t} starts from the latest snapshot at or before {@code t} and adds
+ * the ledger deltas between the two. Before the first snapshot it works back from the current
+ * batch quantities instead. Snapshots are rolled forward from the previous one using the ledger
+ * alone, and lag {@value #SNAPSHOT_LAG_MINUTES} minutes behind the clock so that transactions
+ * still in flight have committed their movements; the very first one is the opening balance read
+ * from {@code batch}.
+ */
+public final class StockHistoryService implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(StockHistoryService.class.getName());
+
+    private static final int SNAPSHOT_LAG_MINUTES = 5;
+    private static final int LOCATIONS = StockLocation.values().length;
+    private static final String LOCATION_LIST = Arrays.stream(StockLocation.values())
+            .map(l -> "'" + l.name() + "'").collect(Collectors.joining(",", "(", ")"));
+
+    /** Stock per product at {@code points} instants spaced {@code step} apart from {@code from}. */
+    public record Series(LocalDateTime from, Duration step, int points, Map<String, int[][]> quantities) {
+        public LocalDateTime time(int point) { return from.plus(step.multipliedBy(point)); }
+
+        public int at(String productCode, StockLocation location, int point) {
+            int[][] q = quantities.get(productCode);
+            return q == null ? 0 : q[location.ordinal()][point];
+        }
+    }
+
+    private final Tx tx;
+    private ScheduledExecutorService scheduler;
+
+    public StockHistoryService(Tx tx) { this.tx = tx; }
+
+    /** Quantity of a product at a location as it stood at {@code at}. */
+    public int quantityAt(String productCode, StockLocation location, LocalDateTime at) {
+        return stockAt(productCode, at).get(location);
+    }
+
+    /** Quantity of a product at every location as it stood at {@code at}. */
+    public Map<StockLocation, Integer> stockAt(String productCode, LocalDateTime at) {
+        String code = productCode.toUpperCase();
+        int[] q = tx.inTx(con -> quantitiesAt(con, List.of(code), at).getOrDefault(code, new int[LOCATIONS]));
+        Map<StockLocation, Integer> out = new EnumMap<>(StockLocation.class);
+        for (StockLocation loc : StockLocation.values()) out.put(loc, q[loc.ordinal()]);
+        return out;
+    }
+
+    /**
+     * Stock of each product every {@code step} from {@code from} up to {@code to}. The starting
+     * level comes from the nearest snapshot, then the ledger is read once, summed per step in SQL.
+     */
+    public Series series(Collection<String> productCodes, LocalDateTime from, LocalDateTime to, Duration step) {
+        if (step.isZero() || step.isNegative()) throw new IllegalArgumentException("Step must be positive");
+        if (to.isBefore(from)) throw new IllegalArgumentException("Series ends before it starts");
+        long stepSeconds = step.toSeconds();
+        int steps = (int) (Duration.between(from, to).toSeconds() / stepSeconds);
+        LocalDateTime end = from.plusSeconds(stepSeconds * steps);
+        List<String> codes = productCodes.stream().map(String::toUpperCase).distinct().toList();
+
+        return tx.inTx(con -> {
+            Map<String, int[][]> out = new HashMap<>();
+            quantitiesAt(con, codes, from).forEach((code, q) -> {
+                int[][] levels = new int[LOCATIONS][steps + 1];
+                for (int l = 0; l < LOCATIONS; l++) levels[l][0] = q[l];
+                out.put(code, levels);
+            });
+            // A movement at (from + (b-1)*step, from + b*step] first shows at point b
+            String sql = "SELECT product_code, location, (TIMESTAMPDIFF(SECOND, ?, happened_at) + ? - 1) DIV ? AS point, SUM(delta) "
+                    + "FROM (" + deltas(codes.size(), true) + ") d GROUP BY product_code, location, point";
+            try (var ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(Integer.MIN_VALUE);
+                ps.setTimestamp(1, Timestamp.valueOf(from));
+                ps.setLong(2, stepSeconds);
+                ps.setLong(3, stepSeconds);
+                bindDeltas(ps, 4, codes, from, end);
+                try (var rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        int[][] levels = out.computeIfAbsent(rs.getString(1), c -> new int[LOCATIONS][steps + 1]);
+                        levels[StockLocation.valueOf(rs.getString(2)).ordinal()][rs.getInt(3)] += rs.getInt(4);
+                    }
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to read stock series", e);
+            }
+            for (int[][] levels : out.values()) {
+                for (int[] l : levels) for (int p = 1; p <= steps; p++) l[p] += l[p - 1];
+            }
+            return new Series(from, step, steps + 1, out);
+        });
+    }
+
+    /**
+     * Write a snapshot of every product's stock; returns its time, or null when the previous one
+     * is still too recent.
+     */
+    public LocalDateTime snapshot() {
+        return tx.inTx(con -> {
+            try {
+                LocalDateTime previous = latestSnapshot(con, null);
+                if (previous == null) {
+                    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+                    try (var ps = con.prepareStatement("""
+                            INSERT INTO stock_snapshot(taken_at, product_code, location, quantity)
+                            SELECT ?, product_code, location, SUM(quantity) FROM batch
+                            GROUP BY product_code, location HAVING SUM(quantity) <> 0
+                            """)) {
+                        ps.setTimestamp(1, Timestamp.valueOf(now));
+                        ps.executeUpdate();
+                    }
+                    return now;
+                }
+                LocalDateTime at = LocalDateTime.now().minusMinutes(SNAPSHOT_LAG_MINUTES).truncatedTo(ChronoUnit.SECONDS);
+                if (!at.isAfter(previous)) return null;
+                String sql = "INSERT INTO stock_snapshot(taken_at, product_code, location, quantity) "
+                        + "SELECT ?, product_code, location, SUM(delta) FROM ("
+                        + "SELECT product_code, location, quantity AS delta, NULL FROM stock_snapshot WHERE taken_at = ? UNION ALL "
+                        + deltas(0, true) + ") d GROUP BY product_code, location HAVING SUM(delta) <> 0";
+                try (var ps = con.prepareStatement(sql)) {
+                    ps.setTimestamp(1, Timestamp.valueOf(at));
+                    ps.setTimestamp(2, Timestamp.valueOf(previous));
+                    bindDeltas(ps, 3, List.of(), previous, at);
+                    ps.executeUpdate();
+                }
+                return at;
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to write stock snapshot", e);
+            }
+        });
+    }
+
+    /** Take a snapshot now and then every {@code every}, on a background thread. */
+    public synchronized void startSnapshots(Duration every) {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stock-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Stock snapshot failed", e);
+            }
+        }, 0, every.toSeconds(), TimeUnit.SECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    /** Stock per product (indexed by location ordinal) at {@code at}; an empty list means every product. */
+    private Map<String, int[]> quantitiesAt(Connection con, List<String> codes, LocalDateTime at) {
+        Map<String, int[]> out = new HashMap<>();
+        try {
+            LocalDateTime snapshot = latestSnapshot(con, at);
+            String base = snapshot != null
+                    ? "SELECT product_code, location, quantity AS delta, NULL FROM stock_snapshot WHERE taken_at = ?" + inCodes(codes.size())
+                    : "SELECT product_code, location, quantity AS delta, NULL FROM batch WHERE 1=1" + inCodes(codes.size());
+            // Forward from the snapshot, or back from the current batches by undoing everything after `at`
+            String sql = "SELECT product_code, location, SUM(delta) FROM (" + base + " UNION ALL "
+                    + deltas(codes.size(), snapshot != null) + ") d GROUP BY product_code, location";
+            try (var ps = con.prepareStatement(sql)) {
+                int i = 1;
+                if (snapshot != null) ps.setTimestamp(i++, Timestamp.valueOf(snapshot));
+                for (String c : codes) ps.setString(i++, c);
+                if (snapshot != null) bindDeltas(ps, i, codes, snapshot, at);
+                else bindDeltas(ps, i, codes, at, null);
+                try (var rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        out.computeIfAbsent(rs.getString(1), c -> new int[LOCATIONS])
+                                [StockLocation.valueOf(rs.getString(2)).ordinal()] = rs.getInt(3);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read stock at " + at, e);
+        }
+        return out;
+    }
+
+    /** Latest snapshot at or before {@code at} (null = any time). */
+    private static LocalDateTime latestSnapshot(Connection con, LocalDateTime at) throws SQLException {
+        String sql = "SELECT MAX(taken_at) FROM stock_snapshot" + (at == null ? "" : " WHERE taken_at <= ?");
+        try (var ps = con.prepareStatement(sql)) {
+            if (at != null) ps.setTimestamp(1, Timestamp.valueOf(at));
+            try (var rs = ps.executeQuery()) {
+                rs.next();
+                Timestamp t = rs.getTimestamp(1);
+                return t == null ? null : t.toLocalDateTime();
+            }
+        }
+    }
+
+    /**
+     * Ledger rows as signed changes per (product, location) for after < happened_at <= until, filtered
+     * on {@code codes} product codes (0 = every product). {@code forward} false negates them, for
+     * working back from a later level.
+     */
+    private static String deltas(int codes, boolean forward) {
+        String in = forward ? "quantity" : "-quantity", out = forward ? "-quantity" : "quantity";
+        String filter = inCodes(codes);
+        return "SELECT product_code, to_location AS location, " + in + " AS delta, happened_at FROM inventory_movement "
+                + "WHERE to_location IN " + LOCATION_LIST + " AND happened_at > ? AND happened_at <= ?" + filter
+                + " UNION ALL SELECT product_code, from_location, " + out + ", happened_at FROM inventory_movement "
+                + "WHERE from_location IN " + LOCATION_LIST + " AND happened_at > ? AND happened_at <= ?" + filter;
+    }
+
+    private static void bindDeltas(PreparedStatement ps, int first, Collection<String> codes, LocalDateTime after, LocalDateTime until)
+            throws SQLException {
+        int i = first;
+        for (int half = 0; half < 2; half++) {
+            ps.setTimestamp(i++, Timestamp.valueOf(after));
+            ps.setTimestamp(i++, Timestamp.valueOf(until == null ? LocalDateTime.of(9999, 12, 31, 0, 0) : until));
+            for (String c : codes) ps.setString(i++, c);
+        }
+    }
+
+    private static String inCodes(int n) {
+        if (n == 0) return "";
+        return " AND product_code IN (" + String.join(",", Collections.nCopies(n, "?")) + ")";
+    }
+}
@@ -12,6 +12,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public final class BatchManagementUseCase {
 
@@ -116,14 +117,14 @@ public final class BatchManagementUseCase {
 
             return tx.inTx(con -> {
                 // Validate product exists
-                var product = productRepository.findByCode(new Code(request.productCode()));
+                var product = productRepository.findByCode(Code.of(request.productCode()));
                 if (product.isEmpty()) {
                     return CreateResult.PRODUCT_NOT_EXISTS;
                 }
 
                 inventoryRepository.createBatch(
                     con,
-                    new Code(request.productCode()),
+                    Code.of(request.productCode()),
                     request.location(),
                     LocalDateTime.now(),
                     request.expiry(),
@@ -209,7 +210,7 @@ public final class BatchManagementUseCase {
     }
 
     /**
-     * List all batches
+     * List all batches. Loads the whole table; prefer listBatchPage or forEachBatch for large stores.
      */
     public List<BatchInfo> listAllBatches() {
         try {
@@ -226,6 +227,44 @@ public final class BatchManagementUseCase {
         }
     }
 
+    /**
+     * One page of batches after the given id (0 for the first page); location null lists every location
+     */
+    public List<BatchInfo> listBatchPage(StockLocation location, long afterId, int pageSize) {
+        try {
+            if (pageSize <= 0) {
+                return List.of();
+            }
+
+            return tx.inTx(con ->
+                inventoryRepository.findBatchPage(con, location, Math.max(0, afterId), pageSize)
+                    .stream()
+                    .map(BatchInfo::new)
+                    .toList()
+            );
+        } catch (Exception e) {
+            System.err.println("Error listing batch page after " + afterId + ": " + e.getMessage());
+            e.printStackTrace();
+            return List.of();
+        }
+    }
+
+    /**
+     * Visit every batch in id order without loading the table into memory; returns the number visited
+     */
+    public long forEachBatch(Consumer<BatchInfo> action) {
+        return tx.inTx(con -> {
+            try (var batches = inventoryRepository.streamAllBatches(con)) {
+                long[] count = {0};
+                batches.map(BatchInfo::new).forEach(b -> {
+                    action.accept(b);
+                    count[0]++;
+                });
+                return count[0];
+            }
+        });
+    }
+
     /**
      * List batches by product code
      */
@@ -236,7 +275,7 @@ public final class BatchManagementUseCase {
             }
 
             return tx.inTx(con ->
-                inventoryRepository.findBatchesByProduct(con, new Code(productCode.trim().toUpperCase()))
+                inventoryRepository.findBatchesByProduct(con, Code.of(productCode.trim().toUpperCase()))
                     .stream()
                     .map(BatchInfo::new)
                     .toList()
@@ -278,7 +317,7 @@ public final class BatchManagementUseCase {
             if (productCode == null || productCode.isBlank()) {
                 return false;
             }
-            return productRepository.findByCode(new Code(productCode.trim().toUpperCase())).isPresent();
+            return productRepository.findByCode(Code.of(productCode.trim().toUpperCase())).isPresent();
         } catch (Exception e) {
             System.err.println("Error checking product existence: " + e.getMessage());
             return false;
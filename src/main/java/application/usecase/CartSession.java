@@ -0,0 +1,102 @@
+package main.java.application.usecase;
+
+import main.java.domain.billing.BillLine;
+import main.java.domain.pricing.DiscountPolicy;
+import main.java.domain.pricing.NoDiscount;
+import main.java.domain.product.Product;
+import main.java.domain.repository.ProductRepository;
+import main.java.domain.shared.Code;
+import main.java.domain.shared.Money;
+import main.java.domain.shared.Quantity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * A cart being scanned at the till. Each product is resolved from the repository once per
+ * session; lines and the running subtotal are updated in place on every scan, so the preview,
+ * the cart view and the final commit all reuse the same priced lines.
+ * Each cart carries a request id for idempotent checkout; it changes whenever the contents do,
+ * so retrying an unchanged cart can never produce a second bill.
+ * Not thread-safe: one session belongs to one till.
+ */
+public final class CartSession {
+
+    private final ProductRepository products;
+    private final Map<Code, Product> resolved = new HashMap<>();
+    private final LinkedHashMap<Code, BillLine> lines = new LinkedHashMap<>();
+    private long subtotalCents;
+    private DiscountPolicy discountPolicy = new NoDiscount();
+    private String requestId = UUID.randomUUID().toString();
+
+    CartSession(ProductRepository products) {
+        this.products = products;
+    }
+
+    /** Product for a scanned code, looked up at most once per session. */
+    public Optional<Product> resolve(String code) {
+        if (code == null || code.isBlank()) return Optional.empty();
+        Code key = Code.of(code);
+        Product p = resolved.get(key);
+        if (p == null) {
+            p = products.findByCode(key).orElse(null);
+            if (p == null) return Optional.empty();
+            resolved.put(key, p);
+        }
+        return Optional.of(p);
+    }
+
+    /** Add qty of a resolved product, merging with an existing line. Returns the line's new quantity. */
+    public int add(Product product, int qty) {
+        if (qty <= 0) throw new IllegalArgumentException("Qty must be > 0");
+        resolved.putIfAbsent(product.code(), product);
+        BillLine existing = lines.get(product.code());
+        int newQty = existing == null ? qty : existing.qty().value() + qty;
+        lines.put(product.code(), new BillLine(product.code(), product.name(), new Quantity(newQty), product.price()));
+        subtotalCents += product.price().cents() * qty;
+        requestId = UUID.randomUUID().toString();
+        return newQty;
+    }
+
+    /** Remove the line at the given 0-based position (in scan order) and return it. */
+    public BillLine removeAt(int index) {
+        if (index < 0 || index >= lines.size()) throw new IndexOutOfBoundsException("No cart line " + (index + 1));
+        Code key = null;
+        int i = 0;
+        for (Code c : lines.keySet()) {
+            if (i++ == index) { key = c; break; }
+        }
+        BillLine removed = lines.remove(key);
+        subtotalCents -= removed.lineTotal().cents();
+        requestId = UUID.randomUUID().toString();
+        return removed;
+    }
+
+    public void discountPolicy(DiscountPolicy policy) {
+        this.discountPolicy = policy == null ? new NoDiscount() : policy;
+    }
+
+    /** Idempotency key for committing the cart as it is now. */
+    public String requestId() { return requestId; }
+
+    public boolean isEmpty() { return lines.isEmpty(); }
+    public int size() { return lines.size(); }
+
+    /** Lines in scan order. */
+    public List<BillLine> lines() { return new ArrayList<>(lines.values()); }
+
+    public Money subtotal() { return Money.of(subtotalCents); }
+
+    /** Priced summary of the cart; no repository access. */
+    public QuoteUseCase.Quote quote() {
+        long discountCents = discountPolicy.discountCents(subtotalCents, () -> lines());
+        long totalCents = subtotalCents - discountCents;
+        if (totalCents < 0) throw new IllegalArgumentException("Discount > subtotal");
+        return new QuoteUseCase.Quote(lines(), Money.of(subtotalCents), Money.of(discountCents), Money.of(totalCents));
+    }
+}
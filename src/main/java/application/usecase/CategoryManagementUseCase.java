@@ -1,5 +1,6 @@
 package main.java.application.usecase;
 
+import main.java.application.services.CategorySequenceAllocator;
 import main.java.domain.product.Category;
 import main.java.domain.repository.CategoryRepository;
 
@@ -7,10 +8,18 @@ import java.util.List;
 import java.util.Optional;
 
 public final class CategoryManagementUseCase {
+    private static final int CODE_BLOCK_SIZE = 10;
+
     private final CategoryRepository categoryRepository;
+    private final CategorySequenceAllocator codes;
 
     public CategoryManagementUseCase(CategoryRepository categoryRepository) {
+        this(categoryRepository, new CategorySequenceAllocator(categoryRepository, CODE_BLOCK_SIZE));
+    }
+
+    public CategoryManagementUseCase(CategoryRepository categoryRepository, CategorySequenceAllocator codes) {
         this.categoryRepository = categoryRepository;
+        this.codes = codes;
     }
 
     public List<Category> getAllActiveCategories() {
@@ -28,6 +37,14 @@ public final class CategoryManagementUseCase {
     public CreateCategoryResult createCategory(CreateCategoryRequest request) {
         // Check if category already exists
         Optional<Category> existing = categoryRepository.findByCode(request.code);
+        // Prefixes are unique: two categories sharing one would hand out the same product codes
+        if (request.prefix != null && !request.prefix.isBlank()) {
+            categoryRepository.findByPrefix(request.prefix.trim())
+                .filter(other -> !other.code().equalsIgnoreCase(request.code.trim()))
+                .ifPresent(other -> {
+                    throw new IllegalArgumentException("Prefix " + other.prefix() + " is already used by category " + other.code());
+                });
+        }
 
         Category category = new Category(
             request.code,
@@ -66,13 +83,17 @@ public final class CategoryManagementUseCase {
     }
 
     public String generateProductCode(String categoryCode) {
-        Category category = categoryRepository.findByCode(categoryCode)
-            .orElseThrow(() -> new IllegalArgumentException("Category not found: " + categoryCode));
+        return codes.next(categoryCode);
+    }
 
-        String productCode = category.generateNextProductCode();
-        categoryRepository.incrementSequenceAndSave(categoryCode);
+    /** The code the next product in this category will get. */
+    public String previewProductCode(Category category) {
+        return codes.peek(category);
+    }
 
-        return productCode;
+    /** {@code count} product codes for one category, reserved together (bulk imports). */
+    public List<String> generateProductCodes(String categoryCode, int count) {
+        return codes.next(categoryCode, count);
     }
 
     public record CreateCategoryRequest(
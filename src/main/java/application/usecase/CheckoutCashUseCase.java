@@ -2,22 +2,36 @@ package main.java.application.usecase;
 
 import main.java.domain.billing.Bill;
 import main.java.domain.billing.BillLine;
+import main.java.domain.billing.DuplicateCheckoutException;
 import main.java.application.services.BillNumberService;
 import main.java.domain.pricing.DiscountPolicy;
+import main.java.domain.inventory.Movement;
 import main.java.domain.inventory.StockLocation;
 import main.java.domain.policies.BatchSelectionStrategy;
 import main.java.domain.repository.BillRepository;
 import main.java.domain.repository.ProductRepository;
+import main.java.domain.repository.ShortageEventRepository;
 import main.java.domain.shared.Code;
 import main.java.domain.shared.Money;
 import main.java.domain.shared.Quantity;
 import main.java.infrastructure.concurrency.Tx;
+import main.java.infrastructure.journal.BillJournal;
 import main.java.domain.events.EventPublisher;
 import main.java.domain.events.LowStockEvent;
 import main.java.domain.repository.InventoryRepository;
+import main.java.domain.repository.MovementRepository;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.SQLTransientException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 public final class CheckoutCashUseCase {
     private final Tx tx;
@@ -27,64 +41,318 @@ public final class CheckoutCashUseCase {
     private final BillNumberService billNumbers;
     private final InventoryRepository inventory;
     private final EventPublisher events;
+    private final MovementRepository movements;
     private final int lowStockThreshold = 50;
+    private volatile GroupCommitQueue groupCommit;
+    private volatile OfflineTill offlineTill;
 
-    public CheckoutCashUseCase(Tx tx, ProductRepository products, BillRepository bills, BatchSelectionStrategy strategy, BillNumberService billNumbers, InventoryRepository inventory, EventPublisher events) {
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int RECENT_REQUESTS = 1024;
+
+    // Bills of recently committed request ids, most recently used last
+    private final Map<String, Bill> recent = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bill> eldest) {
+            return size() > RECENT_REQUESTS;
+        }
+    });
+
+    public CheckoutCashUseCase(Tx tx, ProductRepository products, BillRepository bills, BatchSelectionStrategy strategy, BillNumberService billNumbers, InventoryRepository inventory, EventPublisher events, MovementRepository movements) {
         this.tx = tx; this.products = products; this.bills = bills; this.strategy = strategy;
-        this.billNumbers = billNumbers; this.inventory = inventory; this.events = events;
+        this.billNumbers = billNumbers; this.inventory = inventory; this.events = events; this.movements = movements;
     }
 
     /** cart: list of (productCode, qty). Cash in cents. Hybrid fulfillment: when location==SHELF and insufficient stock, picks remainder from WEB. */
     public Bill handle(List<Item> cart, long cashCents, StockLocation location,  DiscountPolicy discountPolicy, String scope) {
         return tx.inTx(con -> {
             // 1) Build bill lines from product master
-            String serial = billNumbers.next("COUNTER");
-            var builder = new Bill.Builder().serial(serial);
             List<BillLine> lines = new ArrayList<>();
-
             for (Item it : cart) {
-                var prod = products.findByCode(new Code(it.code())).orElseThrow(() -> new IllegalArgumentException("Unknown product: " + it.code()));
-                var line = new BillLine(prod.code(), prod.name(), new Quantity(it.qty()), prod.price());
-                builder.addLine(line);
-                lines.add(line);
+                var prod = products.findByCode(Code.of(it.code())).orElseThrow(() -> new IllegalArgumentException("Unknown product: " + it.code()));
+                lines.add(new BillLine(prod.code(), prod.name(), new Quantity(it.qty()), prod.price()));
             }
 
             // 2) Apply discount from the chosen policy
-            var discount = discountPolicy.discountFor(lines);
-
-            // 3) Set discount & cash; build validates Cash >= Total
-            builder.discount(discount).cash(Money.of(cashCents));
-            Bill bill = builder.build();
-
-            // 4) Persist bill
-            bills.save(con, bill);
-
-            // 5) Deduct inventory per line.
-            for (var l : bill.lines()) {
-                Code code = l.productCode();
-                int qty = l.qty().value();
-                if (location == StockLocation.SHELF) {
-                    int remain = inventory.remainingQuantity(con, l.productCode().value(), location.name());
-                    if (remain < lowStockThreshold) {
-                        events.publish(new LowStockEvent(l.productCode(), remain));
+            return commit(con, lines, discountPolicy.discountFor(lines), cashCents, location);
+        });
+    }
+
+    /**
+     * Commit a cart whose lines and discount were priced while scanning; no product lookups here.
+     * Idempotent on the cart's request id: a replay returns the original bill without touching inventory,
+     * which also makes the retry on transient database errors safe.
+     */
+    public Bill handle(CartSession cart, long cashCents, StockLocation location, String scope) {
+        if (cart.isEmpty()) throw new IllegalArgumentException("Cart is empty");
+        var quote = cart.quote();
+        String requestId = cart.requestId();
+        Bill done = recent.get(requestId);
+        if (done != null) return done;
+        OfflineTill till = offlineTill;
+        if (till != null && till.active()) return recordOffline(till, requestId, quote, cashCents, location);
+        try {
+            GroupCommitQueue group = groupCommit;
+            if (group != null) return group.submit(requestId, quote.lines(), quote.discount(), cashCents, location);
+            return once(requestId, con -> commit(con, quote.lines(), quote.discount(), cashCents, location, requestId));
+        } catch (RuntimeException e) {
+            if (till == null || !isTransient(e)) throw e;
+            till.goOffline();
+            return recordOffline(till, requestId, quote, cashCents, location);
+        }
+    }
+
+    /**
+     * Keep selling when the database is unreachable: cart checkouts are journalled to {@code journal}
+     * and replayed in the background, with stock shortfalls reported as shortage events. Bills the
+     * database rejects on replay are moved to {@code deadLetters}.
+     */
+    public synchronized void enableOfflineJournal(BillJournal journal, BillJournal deadLetters, ShortageEventRepository shortages) {
+        if (offlineTill != null) offlineTill.close();
+        offlineTill = new OfflineTill(journal, deadLetters, tx, bills, shortages, this::deductAvailable, CheckoutCashUseCase::isTransient);
+    }
+
+    /** True while checkouts are being journalled locally instead of committed. */
+    public boolean isOffline() {
+        OfflineTill till = offlineTill;
+        return till != null && till.active();
+    }
+
+    /**
+     * Switch to the offline journal if {@code failure} shows the database cannot be reached.
+     * Returns false when no journal is enabled or the failure is of another kind.
+     */
+    public boolean goOfflineOn(RuntimeException failure) {
+        OfflineTill till = offlineTill;
+        if (till == null || !connectionLost(failure)) return false;
+        till.goOffline();
+        return true;
+    }
+
+    private Bill recordOffline(OfflineTill till, String requestId, QuoteUseCase.Quote quote, long cashCents, StockLocation location) {
+        Bill bill = till.record(requestId, quote.lines(), quote.discount(), cashCents, location);
+        recent.put(requestId, bill);
+        return bill;
+    }
+
+    /**
+     * Route cart checkouts through a committer thread that persists up to {@code maxBills} bills,
+     * gathered for at most {@code maxWaitMs}, in one transaction. Meant for peak hours; off by default.
+     */
+    public synchronized void enableGroupCommit(int maxBills, long maxWaitMs) {
+        if (groupCommit != null) groupCommit.close();
+        groupCommit = new GroupCommitQueue(maxBills, maxWaitMs, this::commitGroup);
+    }
+
+    /** Back to one transaction per checkout once queued bills are committed. */
+    public synchronized void disableGroupCommit() {
+        if (groupCommit == null) return;
+        GroupCommitQueue q = groupCommit;
+        groupCommit = null;
+        q.close();
+    }
+
+    /**
+     * Commit a group in one transaction. Each bill is priced and deducted inside its own savepoint,
+     * so a bill that fails (cash short, out of stock) is rolled back alone and the rest still commit.
+     * Serials are reserved for the surviving bills only, then all of them are inserted together.
+     * If the group as a whole fails, each bill is retried on its own.
+     */
+    private void commitGroup(List<GroupCommitQueue.Pending> group) {
+        // Same request id submitted twice within the group: commit once, answer both
+        Map<String, List<GroupCommitQueue.Pending>> byRequest = new LinkedHashMap<>();
+        for (var p : group) {
+            Bill done = recent.get(p.requestId());
+            if (done != null) p.result().complete(done);
+            else byRequest.computeIfAbsent(p.requestId(), k -> new ArrayList<>()).add(p);
+        }
+        if (byRequest.isEmpty()) return;
+
+        Map<String, RuntimeException> failed = new LinkedHashMap<>();
+        Map<String, Bill> committed;
+        try {
+            committed = tx.inTx(con -> {
+                failed.clear();
+                List<String> ids = new ArrayList<>();
+                List<GroupCommitQueue.Pending> ok = new ArrayList<>();
+                for (var e : byRequest.entrySet()) {
+                    var p = e.getValue().get(0);
+                    try {
+                        Tx.inSavepoint(con, () -> {
+                            deductStock(con, build(p.lines(), p.discount(), p.cashCents(), null), p.location());
+                            return null;
+                        });
+                        ids.add(e.getKey());
+                        ok.add(p);
+                    } catch (RuntimeException ex) {
+                        failed.put(e.getKey(), ex);
                     }
                 }
-                if (location == StockLocation.SHELF) {
-                    // Try to deduct as much as possible from SHELF
-                    int takenShelf = strategy.deductUpTo(con, code, qty, StockLocation.SHELF);
-                    int remaining = qty - takenShelf;
-                    if (remaining > 0) {
-                        // Deduct remainder from WEB (throws if not enough there)
-                        strategy.deduct(con, code, remaining, StockLocation.WEB);
-                    }
-                } else {
-                    // Pure single-location deduction (WEB or others in future)
-                    strategy.deduct(con, code, qty, location);
+                Map<String, Bill> out = new LinkedHashMap<>();
+                if (ok.isEmpty()) return out;
+                List<String> serials = billNumbers.next(con, "COUNTER", ok.size());
+                List<Bill> toSave = new ArrayList<>(ok.size());
+                for (int i = 0; i < ok.size(); i++) {
+                    var p = ok.get(i);
+                    toSave.add(build(p.lines(), p.discount(), p.cashCents(), serials.get(i)));
+                }
+                bills.saveAll(con, toSave, ids);
+                for (int i = 0; i < ids.size(); i++) out.put(ids.get(i), toSave.get(i));
+                return out;
+            });
+        } catch (RuntimeException groupFailure) {
+            // e.g. a request id already committed elsewhere, or a deadlock: fall back to one bill at a time
+            for (var e : byRequest.entrySet()) {
+                var p = e.getValue().get(0);
+                try {
+                    Bill bill = once(e.getKey(), con -> commit(con, p.lines(), p.discount(), p.cashCents(), p.location(), e.getKey()));
+                    e.getValue().forEach(w -> w.result().complete(bill));
+                } catch (RuntimeException ex) {
+                    e.getValue().forEach(w -> w.result().completeExceptionally(ex));
                 }
             }
+            return;
+        }
+        for (var e : byRequest.entrySet()) {
+            Bill bill = committed.get(e.getKey());
+            if (bill != null) {
+                recent.put(e.getKey(), bill);
+                e.getValue().forEach(w -> w.result().complete(bill));
+            } else {
+                RuntimeException ex = failed.get(e.getKey());
+                e.getValue().forEach(w -> w.result().completeExceptionally(ex));
+            }
+        }
+    }
 
-            return bill; // Return the complete bill with all line items
-        });
+    private Bill once(String requestId, Function<Connection, Bill> work) {
+        Bill done = recent.get(requestId);
+        if (done != null) return done; // common replay: no query
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Bill bill = tx.inTx(work);
+                recent.put(requestId, bill);
+                return bill;
+            } catch (RuntimeException e) {
+                if (duplicate(e)) {
+                    // Committed earlier (by another till, a previous attempt, or before a restart)
+                    Bill original = tx.inTx(con -> bills.findByRequestId(con, requestId)).orElseThrow(() -> e);
+                    recent.put(requestId, original);
+                    return original;
+                }
+                // With a journal to fall back on, one failed connection is enough: don't wait out more timeouts
+                if (attempt >= MAX_ATTEMPTS || !isTransient(e) || (offlineTill != null && connectionLost(e))) throw e;
+            }
+        }
+    }
+
+    /** Tx.inTx wraps what the work throws, so look through the causes. */
+    private static boolean duplicate(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof DuplicateCheckoutException) return true;
+        }
+        return false;
+    }
+
+    /** Deadlocks, lock wait timeouts and dropped connections are worth another attempt. */
+    private static boolean isTransient(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLTransientException) return true;
+            if (t instanceof SQLException sql) {
+                String state = sql.getSQLState();
+                if (sql.getErrorCode() == 1205 || sql.getErrorCode() == 1213) return true;
+                if (state != null && (state.startsWith("40") || state.startsWith("08"))) return true;
+            }
+        }
+        return false;
+    }
+
+    /** The database could not be reached at all, as opposed to a conflict inside it. */
+    private static boolean connectionLost(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLTransientConnectionException || t instanceof SQLNonTransientConnectionException) return true;
+            if (t instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) return true;
+        }
+        return false;
+    }
+
+    private Bill commit(Connection con, List<BillLine> lines, Money discount, long cashCents, StockLocation location) {
+        return commit(con, lines, discount, cashCents, location, null);
+    }
+
+    private Bill commit(Connection con, List<BillLine> lines, Money discount, long cashCents, StockLocation location, String requestId) {
+        Bill bill = build(lines, discount, cashCents, billNumbers.next("COUNTER"));
+
+        // 4) Persist bill (a reused request id fails here, before any stock is touched)
+        bills.save(con, bill, requestId);
+
+        deductStock(con, bill, location);
+        return bill; // Return the complete bill with all line items
+    }
+
+    /**
+     * Deduct what stock is left for a bill sold offline. The sale has already happened, so a
+     * shortfall is returned as a message instead of failing the bill.
+     */
+    private List<String> deductAvailable(Connection con, Bill bill, StockLocation location) {
+        List<String> conflicts = new ArrayList<>();
+        for (var l : bill.lines()) {
+            Code code = l.productCode();
+            int qty = l.qty().value();
+            int taken = strategy.deductUpTo(con, code, qty, location);
+            sold(con, code, location, taken);
+            if (taken < qty && location == StockLocation.SHELF) {
+                int takenWeb = strategy.deductUpTo(con, code, qty - taken, StockLocation.WEB);
+                sold(con, code, StockLocation.WEB, takenWeb);
+                taken += takenWeb;
+            }
+            if (taken < qty) {
+                conflicts.add(String.format("Offline bill %s: sold %d x %s but only %d were in stock at %s",
+                        bill.serial(), qty, code.value(), taken, location));
+            }
+        }
+        return conflicts;
+    }
+
+    private static Bill build(List<BillLine> lines, Money discount, long cashCents, String serial) {
+        var builder = new Bill.Builder().serial(serial);
+        lines.forEach(builder::addLine);
+
+        // 3) Set discount & cash; build validates Cash >= Total
+        builder.discount(discount).cash(Money.of(cashCents));
+        return builder.build();
+    }
+
+    // 5) Deduct inventory per line.
+    private void deductStock(Connection con, Bill bill, StockLocation location) {
+        for (var l : bill.lines()) {
+            Code code = l.productCode();
+            int qty = l.qty().value();
+            if (location == StockLocation.SHELF) {
+                int remain = inventory.committedAvailable(con, code.value(), location);
+                if (remain < inventory.lowStockThreshold(con, code.value(), location, lowStockThreshold)) {
+                    events.publish(new LowStockEvent(l.productCode(), remain));
+                }
+            }
+            if (location == StockLocation.SHELF) {
+                // Try to deduct as much as possible from SHELF
+                int takenShelf = strategy.deductUpTo(con, code, qty, StockLocation.SHELF);
+                sold(con, code, StockLocation.SHELF, takenShelf);
+                int remaining = qty - takenShelf;
+                if (remaining > 0) {
+                    // Deduct remainder from WEB (throws if not enough there)
+                    strategy.deduct(con, code, remaining, StockLocation.WEB);
+                    sold(con, code, StockLocation.WEB, remaining);
+                }
+            } else {
+                // Pure single-location deduction (WEB or others in future)
+                strategy.deduct(con, code, qty, location);
+                sold(con, code, location, qty);
+            }
+        }
+    }
+
+    private void sold(Connection con, Code code, StockLocation location, int qty) {
+        movements.record(con, code.value(), location.name(), Movement.CUSTOMER, qty, "Sale");
     }
 
     public record Item(String code, int qty) {}
@@ -0,0 +1,100 @@
+package main.java.application.usecase;
+
+import main.java.domain.billing.Bill;
+import main.java.domain.billing.BillLine;
+import main.java.domain.inventory.StockLocation;
+import main.java.domain.shared.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Collects checkouts from many tills and hands them to a single committer thread in groups of
+ * at most {@code maxBills}, waiting no longer than {@code maxWaitMs} after the first one arrives.
+ * Under light load a group is one bill and adds at most {@code maxWaitMs} of latency; under load
+ * the groups fill up and many bills share one commit.
+ */
+final class GroupCommitQueue implements AutoCloseable {
+
+    /** One checkout waiting for its group; {@code result} completes once the group commits. */
+    record Pending(String requestId, List<BillLine> lines, Money discount, long cashCents,
+                   StockLocation location, CompletableFuture<Bill> result) {}
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final int maxBills;
+    private final long maxWaitNanos;
+    private final Consumer<List<Pending>> flush;
+    private final Thread committer;
+    private volatile boolean closed;
+
+    GroupCommitQueue(int maxBills, long maxWaitMs, Consumer<List<Pending>> flush) {
+        if (maxBills < 1) throw new IllegalArgumentException("maxBills must be >= 1");
+        this.maxBills = maxBills;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMs));
+        this.flush = flush;
+        this.committer = new Thread(this::loop, "checkout-group-commit");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    /** Queue a checkout and wait for the group that carries it to commit. */
+    Bill submit(String requestId, List<BillLine> lines, Money discount, long cashCents, StockLocation location) {
+        if (closed) throw new IllegalStateException("Group commit is closed");
+        var pending = new Pending(requestId, lines, discount, cashCents, location, new CompletableFuture<>());
+        queue.add(pending);
+        try {
+            return pending.result().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for checkout " + requestId, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private void loop() {
+        List<Pending> group = new ArrayList<>(maxBills);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                group.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (group.size() < maxBills) {
+                    long left = deadline - System.nanoTime();
+                    // Take whatever is already queued even when the wait is over
+                    Pending next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    group.add(next);
+                }
+                flush.accept(group);
+            } catch (InterruptedException e) {
+                closed = true;
+                if (!group.isEmpty()) flush.accept(group);
+            } catch (RuntimeException e) {
+                // flush completes each future itself; this only guards against a bug in it
+                for (Pending p : group) p.result().completeExceptionally(e);
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    /** Stop accepting checkouts and commit whatever is already queued. */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
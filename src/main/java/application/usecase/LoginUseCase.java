@@ -2,6 +2,7 @@ package main.java.application.usecase;
 
 import main.java.domain.repository.UserRepository;
 import main.java.domain.user.Role;
+import main.java.domain.user.User;
 import main.java.infrastructure.security.PasswordEncoder;
 
 public final class LoginUseCase {
@@ -19,6 +20,14 @@ public final class LoginUseCase {
         if (!encoder.matches(password, user.passwordHash()))
             throw new IllegalArgumentException("Invalid credentials");
 
+        // The password is known here, so upgrade a weaker stored hash to the encoder's current cost
+        if (encoder.needsRehash(user.passwordHash())) {
+            try {
+                users.upsert(new User(user.id(), user.username(), encoder.hash(password), user.email(), user.role()));
+            } catch (RuntimeException e) {
+                System.err.println("Warning: could not upgrade password hash for " + user.username() + ": " + e.getMessage());
+            }
+        }
         return new Session(user.username(), user.role());
     }
 }
\ No newline at end of file
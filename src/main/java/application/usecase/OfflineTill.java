@@ -0,0 +1,183 @@
+package main.java.application.usecase;
+
+import main.java.domain.billing.Bill;
+import main.java.domain.billing.BillLine;
+import main.java.domain.inventory.StockLocation;
+import main.java.domain.repository.BillRepository;
+import main.java.domain.repository.ShortageEventRepository;
+import main.java.domain.shared.Code;
+import main.java.domain.shared.Money;
+import main.java.domain.shared.Quantity;
+import main.java.infrastructure.concurrency.Tx;
+import main.java.infrastructure.journal.BillJournal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the till selling while the database is unreachable. Bills are written to a local
+ * {@link BillJournal} under a provisional {@code OFF-<request id>} serial, and a background
+ * replayer pushes them to the database, oldest first, once it answers again.
+ * <p>
+ * Replay is idempotent on the request id: a bill already in the database (committed before the
+ * connection dropped, or replayed before a crash) is skipped. Stock that is no longer there is
+ * not an error, since the goods have already left the store; each shortfall is recorded as a
+ * shortage event for the manager. A bill the database rejects for any other reason is moved to a
+ * separate dead-letter journal, kept for the manager to re-enter, and reported the same way.
+ */
+final class OfflineTill implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(OfflineTill.class.getName());
+    private static final byte FORMAT = 1;
+    private static final long REPLAY_EVERY_SECONDS = 5;
+
+    /** Deducts what is available for a replayed bill and describes any shortfall. */
+    interface Deduction {
+        List<String> apply(Connection con, Bill bill, StockLocation location);
+    }
+
+    private record Offline(String requestId, StockLocation location, Bill bill) {}
+
+    private final BillJournal journal;
+    private final BillJournal deadLetters;
+    private final Tx tx;
+    private final BillRepository bills;
+    private final ShortageEventRepository shortages;
+    private final Deduction deduction;
+    private final Predicate<Throwable> transientFailure;
+    private final ScheduledExecutorService replayer;
+    private volatile boolean offline;
+
+    OfflineTill(BillJournal journal, BillJournal deadLetters, Tx tx, BillRepository bills, ShortageEventRepository shortages,
+                Deduction deduction, Predicate<Throwable> transientFailure) {
+        this.journal = journal; this.deadLetters = deadLetters; this.tx = tx; this.bills = bills; this.shortages = shortages;
+        this.deduction = deduction; this.transientFailure = transientFailure;
+        this.replayer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "offline-bill-replay");
+            t.setDaemon(true);
+            return t;
+        });
+        replayer.scheduleWithFixedDelay(this::replaySafely, 0, REPLAY_EVERY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /** True while checkouts must go to the journal: the database failed, or earlier offline bills are not replayed yet. */
+    boolean active() {
+        return offline || journal.hasPending();
+    }
+
+    void goOffline() {
+        offline = true;
+    }
+
+    /** Write the bill to the local journal; returns once it is on disk. */
+    Bill record(String requestId, List<BillLine> lines, Money discount, long cashCents, StockLocation location) {
+        var builder = new Bill.Builder().serial("OFF-" + requestId);
+        lines.forEach(builder::addLine);
+        Bill bill = builder.discount(discount).cash(Money.of(cashCents)).build();
+        journal.append(encode(new Offline(requestId, location, bill)));
+        return bill;
+    }
+
+    /** Replays every journalled bill; returns how many were replayed. Stops at the first transient failure. */
+    int replay() {
+        int replayed = 0;
+        for (BillJournal.Entry entry : journal.pending()) {
+            Offline o = decode(entry.payload());
+            try {
+                tx.inTx(con -> {
+                    if (bills.findByRequestId(con, o.requestId()).isPresent()) return null;
+                    bills.save(con, o.bill(), o.requestId());
+                    for (String conflict : deduction.apply(con, o.bill(), o.location())) {
+                        shortages.save(con, conflict);
+                    }
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                if (transientFailure.test(e)) throw e;
+                // The bill itself is unusable (e.g. a product deleted meanwhile): keep it aside, report it and move on
+                String msg = "Offline bill " + o.bill().serial() + " could not be replayed and was kept in the failed bills journal: "
+                        + e.getMessage();
+                tx.inTx(con -> { shortages.save(con, msg); return null; });
+                deadLetters.append(entry.payload());
+                LOGGER.log(Level.WARNING, msg, e);
+            }
+            journal.markReplayed(entry.end());
+            replayed++;
+        }
+        return replayed;
+    }
+
+    private void replaySafely() {
+        if (!active()) return;
+        try {
+            tx.inTx(con -> null); // reachable again?
+            int n = replay();
+            offline = false;
+            if (n > 0) LOGGER.info("Replayed " + n + " offline bill(s)");
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.FINE, "Database still unavailable; offline bills kept", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        replayer.shutdownNow();
+        journal.close();
+        deadLetters.close();
+    }
+
+    private static byte[] encode(Offline o) {
+        var bytes = new ByteArrayOutputStream(256);
+        try (var out = new DataOutputStream(bytes)) {
+            Bill b = o.bill();
+            out.writeByte(FORMAT);
+            out.writeUTF(o.requestId());
+            out.writeUTF(o.location().name());
+            out.writeUTF(b.dateTime().toString());
+            out.writeLong(b.discount().cents());
+            out.writeLong(b.cash().cents());
+            out.writeInt(b.lines().size());
+            for (BillLine l : b.lines()) {
+                out.writeUTF(l.productCode().value());
+                out.writeUTF(l.name());
+                out.writeInt(l.qty().value());
+                out.writeLong(l.unitPrice().cents());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Offline decode(byte[] payload) {
+        try (var in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            if (in.readByte() != FORMAT) throw new IllegalStateException("Unknown offline bill format");
+            String requestId = in.readUTF();
+            StockLocation location = StockLocation.valueOf(in.readUTF());
+            var builder = new Bill.Builder()
+                    .serial("OFF-" + requestId)
+                    .dateTime(LocalDateTime.parse(in.readUTF()))
+                    .discount(Money.of(in.readLong()))
+                    .cash(Money.of(in.readLong()));
+            for (int i = in.readInt(); i > 0; i--) {
+                builder.addLine(new BillLine(Code.of(in.readUTF()), in.readUTF(), new Quantity(in.readInt()), Money.of(in.readLong())));
+            }
+            return new Offline(requestId, location, builder.build());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -79,7 +79,7 @@ public final class ProductManagementUseCase {
     public CreateResult createProduct(CreateProductRequest request) {
         validateCreateRequest(request);
 
-        Code code = new Code(request.code());
+        Code code = Code.of(request.code());
         Optional<Product> existingProduct = productRepository.findByCode(code);
 
         Product product = new Product(
@@ -99,7 +99,7 @@ public final class ProductManagementUseCase {
         // Generate product code automatically based on category
         String generatedCode = categoryUseCase.generateProductCode(request.categoryCode());
 
-        Code code = new Code(generatedCode);
+        Code code = Code.of(generatedCode);
         Product product = new Product(
             code,
             request.name(),
@@ -117,7 +117,7 @@ public final class ProductManagementUseCase {
             throw new IllegalArgumentException("Product code cannot be null or blank");
         }
 
-        return productRepository.findByCode(new Code(code))
+        return productRepository.findByCode(Code.of(code))
             .map(ProductInfo::new);
     }
 
@@ -128,12 +128,23 @@ public final class ProductManagementUseCase {
             .toList();
     }
 
+    public List<ProductInfo> searchProducts(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search text cannot be null or blank");
+        }
+
+        return productRepository.search(query, limit)
+            .stream()
+            .map(ProductInfo::new)
+            .toList();
+    }
+
     public DeleteResult deleteProduct(String code) {
         if (code == null || code.isBlank()) {
             throw new IllegalArgumentException("Product code cannot be null or blank");
         }
 
-        boolean deleted = productRepository.deleteByCode(new Code(code));
+        boolean deleted = productRepository.deleteByCode(Code.of(code));
         return deleted ? DeleteResult.SUCCESS : DeleteResult.NOT_FOUND;
     }
 
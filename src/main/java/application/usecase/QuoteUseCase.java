@@ -19,16 +19,27 @@ public class QuoteUseCase {
 
     public QuoteUseCase(ProductRepository products) { this.products = products; }
 
+    /** New cart session for a till; products are resolved once per scan. */
+    public CartSession startCart() {
+        return new CartSession(products);
+    }
+
     // Added for early validation in CLI
     public boolean productExists(String code) {
         if (code == null || code.isBlank()) return false;
-        return products.findByCode(new Code(code)).isPresent();
+        return products.exists(Code.of(code));
+    }
+
+    /** Products matching a code, name or part of either, best first. */
+    public List<Product> search(String query, int limit) {
+        if (query == null || query.isBlank()) return List.of();
+        return products.search(query, limit);
     }
 
     public Quote preview(List<CheckoutCashUseCase.Item> cart, DiscountPolicy discountPolicy) {
         List<BillLine> lines = new ArrayList<>();
         for (var it : cart) {
-            Product p = products.findByCode(new Code(it.code()))
+            Product p = products.findByCode(Code.of(it.code()))
                     .orElseThrow(() -> new IllegalArgumentException("Unknown product: " + it.code()));
             lines.add(new BillLine(p.code(), p.name(), new Quantity(it.qty()), p.price()));
         }
@@ -1,7 +1,9 @@
 package main.java.application.usecase;
 
+import main.java.domain.inventory.Movement;
 import main.java.domain.inventory.StockLocation;
 import main.java.domain.repository.InventoryAdminRepository;
+import main.java.domain.repository.MovementRepository;
 import main.java.infrastructure.concurrency.Tx;
 
 import java.time.LocalDate;
@@ -10,16 +12,21 @@ import java.time.LocalDateTime;
 public final class ReceiveFromSupplierUseCase {
     private final Tx tx;
     private final InventoryAdminRepository repo;
+    private final MovementRepository movements;
 
-    public ReceiveFromSupplierUseCase(Tx tx, InventoryAdminRepository repo) {
-        this.tx = tx; this.repo = repo;
+    public ReceiveFromSupplierUseCase(Tx tx, InventoryAdminRepository repo, MovementRepository movements) {
+        this.tx = tx; this.repo = repo; this.movements = movements;
     }
 
     /** Receive a fresh batch into MAIN store. */
     public long receive(String productCode, int qty, LocalDate expiry) {
         if (qty <= 0) throw new IllegalArgumentException("qty must be > 0");
-        return tx.inTx(con ->
-                repo.insertBatch(con, productCode, StockLocation.MAIN_STORE.name(),
-                        LocalDateTime.now(), expiry, qty));
+        return tx.inTx(con -> {
+            long id = repo.insertBatch(con, productCode, StockLocation.MAIN_STORE.name(),
+                    LocalDateTime.now(), expiry, qty);
+            movements.record(con, productCode, Movement.SUPPLIER, StockLocation.MAIN_STORE.name(), qty,
+                    "Received from supplier - batch " + id);
+            return id;
+        });
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import main.java.domain.inventory.StockLocation;
 import main.java.domain.policies.BatchSelectionStrategy;
 import main.java.domain.repository.InventoryAdminRepository;
 import main.java.domain.repository.InventoryRepository;
+import main.java.domain.repository.MovementRepository;
 import main.java.domain.shared.Code;
 import main.java.infrastructure.concurrency.Tx;
 
@@ -14,12 +15,14 @@ public final class TransferStockUseCase {
     private final InventoryRepository inv;
     private final InventoryAdminRepository admin;
     private final BatchSelectionStrategy pickStrategy; // FEFO or FIFO
+    private final MovementRepository movements;
 
     public TransferStockUseCase(Tx tx,
                                 InventoryRepository inv,
                                 InventoryAdminRepository admin,
-                                BatchSelectionStrategy pickStrategy) {
-        this.tx = tx; this.inv = inv; this.admin = admin; this.pickStrategy = pickStrategy;
+                                BatchSelectionStrategy pickStrategy,
+                                MovementRepository movements) {
+        this.tx = tx; this.inv = inv; this.admin = admin; this.pickStrategy = pickStrategy; this.movements = movements;
     }
 
     /**
@@ -58,13 +61,13 @@ public final class TransferStockUseCase {
 
             try {
                 // 1) Deduct from source location using FEFO/FIFO
-                pickStrategy.deduct(con, new Code(productCode), qty, from);
+                pickStrategy.deduct(con, Code.of(productCode), qty, from);
 
                 // 2) Insert a single batch at destination
                 admin.insertBatch(con, productCode, to.name(), LocalDateTime.now(), null, qty);
 
                 // 3) Log the movement for audit trail
-                logInventoryMovement(con, productCode, from, to, qty);
+                movements.record(con, productCode, from.name(), to.name(), qty, "manual_transfer");
 
             } catch (Exception e) {
                 throw new RuntimeException("Transfer operation failed: " + e.getMessage(), e);
@@ -73,23 +76,4 @@ public final class TransferStockUseCase {
             return null;
         });
     }
-
-    /**
-     * Logs inventory movement for audit purposes.
-     */
-    private void logInventoryMovement(java.sql.Connection con, String productCode,
-                                    StockLocation from, StockLocation to, int qty) {
-        try (var ps = con.prepareStatement(
-                "INSERT INTO inventory_movement(product_code, from_location, to_location, quantity, note, movement_time) VALUES(?,?,?,?,?,NOW())")) {
-            ps.setString(1, productCode);
-            ps.setString(2, from.name());
-            ps.setString(3, to.name());
-            ps.setInt(4, qty);
-            ps.setString(5, "manual_transfer");
-            ps.executeUpdate();
-        } catch (Exception e) {
-            // Log the error but don't fail the transfer
-            System.err.println("Warning: Failed to log inventory movement: " + e.getMessage());
-        }
-    }
-}
\ No newline at end of file
+}
@@ -4,21 +4,25 @@ import main.java.application.services.AvailabilityService;
 import main.java.application.services.MainStoreService;
 import main.java.application.services.ShortageEventService;
 import main.java.application.usecase.CheckoutCashUseCase;
-import main.java.application.usecase.CheckoutCashUseCase.Item;
+import main.java.application.usecase.CartSession;
 import main.java.application.usecase.QuoteUseCase;
 import main.java.cli.bill.BillPrinter;
+import main.java.domain.billing.BillLine;
 import main.java.domain.inventory.StockLocation;
 import main.java.domain.policies.BatchSelectionStrategy;
 import main.java.domain.pricing.DiscountPolicy;
 import main.java.domain.pricing.NoDiscount;
 import main.java.domain.pricing.PercentDiscount;
+import main.java.domain.product.Product;
 import main.java.domain.shared.Currency;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Scanner;
 
 public final class CliCheckout {
+    private static final int SEARCH_RESULTS = 10;
+
     private final CheckoutCashUseCase checkout;
     private final BatchSelectionStrategy strategyDefault;
     private final QuoteUseCase quote;
@@ -45,11 +49,12 @@ public final class CliCheckout {
         System.out.println("=== SYOS Checkout (CLI) ===");
         System.out.println("Commands:");
         System.out.println("  - Enter product code to add items");
+        System.out.println("  - 'search <name or code>' to find a product");
         System.out.println("  - 'view' to see cart contents");
         System.out.println("  - 'remove' to remove items from cart");
         System.out.println("  - 'done' to proceed to checkout");
 
-        List<Item> cart = new ArrayList<>();
+        CartSession cart = quote.startCart();
 
         while (true) {
             System.out.print("\nCart (" + cart.size() + " items) > Enter command or product code: ");
@@ -63,11 +68,21 @@ public final class CliCheckout {
             } else if (input.equalsIgnoreCase("remove")) {
                 removeFromCart(sc, cart);
                 continue;
+            } else if (input.equalsIgnoreCase("search")) {
+                input = searchProduct(sc);
+                if (input == null) continue;
             }
 
-            // Handle product code input
+            // Handle product code input (resolved once; reused for pricing and commit)
             String code = input;
-            if (!quote.productExists(code)) {
+            Optional<Product> product;
+            try {
+                product = cart.resolve(code);
+            } catch (RuntimeException e) {
+                System.out.println("Product lookup failed: " + e.getMessage());
+                continue;
+            }
+            if (product.isEmpty()) {
                 System.out.println("Invalid code: " + code);
                 continue;
             }
@@ -79,10 +94,18 @@ public final class CliCheckout {
                 continue;
             }
 
-            // Check availability and handle restocking for this item
-            int finalQuantity = handleItemRestocking(sc, code, qty);
+            // Check availability and handle restocking for this item; offline there is no stock to check
+            int finalQuantity = checkout.isOffline() ? offlineQuantity(qty) : -1;
+            if (finalQuantity < 0) {
+                try {
+                    finalQuantity = handleItemRestocking(sc, code, qty);
+                } catch (RuntimeException e) {
+                    if (!checkout.goOfflineOn(e)) throw e;
+                    finalQuantity = offlineQuantity(qty);
+                }
+            }
             if (finalQuantity > 0) {
-                addToCart(cart, code, finalQuantity);
+                addToCart(cart, product.get(), finalQuantity);
                 System.out.println("Added " + finalQuantity + " x " + code + " to cart");
             } else {
                 System.out.println("Item not added to cart");
@@ -101,7 +124,7 @@ public final class CliCheckout {
     /**
      * Display cart contents with item details
      */
-    private void viewCart(List<Item> cart) {
+    private void viewCart(CartSession cart) {
         if (cart.isEmpty()) {
             System.out.println("Cart is empty");
             return;
@@ -111,27 +134,59 @@ public final class CliCheckout {
         System.out.printf("%-5s %-15s %-10s%n", "No.", "Product Code", "Quantity");
         System.out.println("------------------------------");
 
-        for (int i = 0; i < cart.size(); i++) {
-            Item item = cart.get(i);
-            System.out.printf("%-5d %-15s %-10d%n", (i + 1), item.code(), item.qty());
+        List<BillLine> lines = cart.lines();
+        for (int i = 0; i < lines.size(); i++) {
+            BillLine line = lines.get(i);
+            System.out.printf("%-5d %-15s %-10d%n", (i + 1), line.productCode().value(), line.qty().value());
         }
 
         System.out.println("------------------------------");
         System.out.println("Total items: " + cart.size());
+        System.out.println("Estimated total: " + Currency.formatSimple(cart.subtotal()));
+    }
 
-        // Show preview if items exist
+    /**
+     * Find a product by name or partial code; returns the chosen code, or null if none was picked
+     */
+    private String searchProduct(Scanner sc) {
+        String query = sc.nextLine().trim();
+        if (query.isEmpty()) {
+            System.out.print("Search: ");
+            query = sc.nextLine().trim();
+            if (query.isEmpty()) return null;
+        }
+
+        List<Product> found;
         try {
-            var preview = quote.preview(cart, new NoDiscount());
-            System.out.println("Estimated total: " + Currency.formatSimple(preview.total()));
-        } catch (Exception e) {
-            System.out.println("Could not calculate preview total");
+            found = quote.search(query, SEARCH_RESULTS);
+        } catch (RuntimeException e) {
+            System.out.println("Search failed: " + e.getMessage());
+            return null;
+        }
+        if (found.isEmpty()) {
+            System.out.println("No products match: " + query);
+            return null;
+        }
+        for (int i = 0; i < found.size(); i++) {
+            Product p = found.get(i);
+            System.out.printf("%2d) %-12s %-30s %s%n", i + 1, p.code().value(), p.name(), Currency.formatSimple(p.price()));
         }
+        System.out.print("Item number to add (blank = none): ");
+        String pick = sc.nextLine().trim();
+        if (pick.isEmpty()) return null;
+        try {
+            int n = Integer.parseInt(pick);
+            if (n >= 1 && n <= found.size()) return found.get(n - 1).code().value();
+        } catch (NumberFormatException ignored) {
+        }
+        System.out.println("Invalid item number");
+        return null;
     }
 
     /**
      * Remove items from cart
      */
-    private void removeFromCart(Scanner sc, List<Item> cart) {
+    private void removeFromCart(Scanner sc, CartSession cart) {
         if (cart.isEmpty()) {
             System.out.println("Cart is empty - nothing to remove");
             return;
@@ -153,8 +208,8 @@ public final class CliCheckout {
                 return;
             }
 
-            Item removedItem = cart.remove(itemNumber - 1);
-            System.out.println("Removed " + removedItem.qty() + " x " + removedItem.code() + " from cart");
+            BillLine removed = cart.removeAt(itemNumber - 1);
+            System.out.println("Removed " + removed.qty().value() + " x " + removed.productCode().value() + " from cart");
 
         } catch (NumberFormatException e) {
             System.out.println("Please enter a valid number");
@@ -164,21 +219,20 @@ public final class CliCheckout {
     /**
      * Add item to cart, consolidating quantities if the same product already exists
      */
-    private void addToCart(List<Item> cart, String code, int quantity) {
-        // Check if product already exists in cart
-        for (int i = 0; i < cart.size(); i++) {
-            Item existingItem = cart.get(i);
-            if (existingItem.code().equals(code)) {
-                // Replace with combined quantity
-                int newQuantity = existingItem.qty() + quantity;
-                cart.set(i, new Item(code, newQuantity));
-                System.out.println("Updated existing item. New quantity: " + newQuantity);
-                return;
-            }
+    private void addToCart(CartSession cart, Product product, int quantity) {
+        int newQuantity = cart.add(product, quantity);
+        if (newQuantity != quantity) {
+            System.out.println("Updated existing item. New quantity: " + newQuantity);
         }
+    }
 
-        // Product not in cart, add new item
-        cart.add(new Item(code, quantity));
+    /**
+     * Quantity to add while the database is unreachable: stock can't be checked or transferred, so the
+     * item is sold as scanned and any shortfall is reported when the bill syncs
+     */
+    private int offlineQuantity(int requestedQty) {
+        System.out.println("Database unavailable: stock not checked, selling as scanned");
+        return requestedQty;
     }
 
     /**
@@ -322,7 +376,7 @@ public final class CliCheckout {
         availability.transferStock(productCode, StockLocation.WEB, StockLocation.MAIN_STORE, quantity);
     }
 
-    private void continueNormalCheckout(Scanner sc, List<Item> cart) {
+    private void continueNormalCheckout(Scanner sc, CartSession cart) {
         // Default sell from SHELF (since we've handled restocking above)
         StockLocation loc = StockLocation.SHELF;
 
@@ -335,8 +389,9 @@ public final class CliCheckout {
             policy = new PercentDiscount(pct);
         }
 
-        // PREVIEW (pre-bill)
-        var q = quote.preview(cart, policy);
+        // PREVIEW (pre-bill) from the lines priced while scanning
+        cart.discountPolicy(policy);
+        var q = cart.quote();
         BillPrinter.printPreview(q);
 
         // CASH LOOP (in cents)
@@ -359,11 +414,20 @@ public final class CliCheckout {
             return;
         }
 
-        try {
-            var bill = checkout.handle(cart, cash, loc, policy, "COUNTER");
-            BillPrinter.print(bill);
-        } catch (Exception e) {
-            System.out.println("Checkout failed: " + e.getMessage());
+        // Retrying the same cart reuses its request id, so a checkout that did commit is never billed twice
+        while (true) {
+            try {
+                var bill = checkout.handle(cart, cash, loc, "COUNTER");
+                BillPrinter.print(bill);
+                if (checkout.isOffline()) {
+                    System.out.println("Database unavailable: bill saved on this till and will sync automatically.");
+                }
+                return;
+            } catch (Exception e) {
+                System.out.println("Checkout failed: " + e.getMessage());
+                System.out.print("Retry? [y/N]: ");
+                if (!"y".equalsIgnoreCase(sc.next())) return;
+            }
         }
     }
 }
@@ -0,0 +1,79 @@
+package main.java.cli.demo;
+
+import main.java.config.Db;
+import main.java.config.StartupTimer;
+import main.java.domain.billing.Bill;
+import main.java.domain.billing.BillLine;
+import main.java.domain.shared.Code;
+import main.java.domain.shared.Money;
+import main.java.domain.shared.Quantity;
+import main.java.infrastructure.persistence.JdbcBillRepository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bills/sec for {@link JdbcBillRepository#saveAll} with 1, 10 and 100 bills per call, each call
+ * committed on its own like a checkout or a group commit would be. Runs against a scratch schema
+ * that is dropped afterwards.
+ * Usage: BillInsertBenchmark [bills per run] [lines per bill]   (default: 2,000 bills, 5 lines)
+ */
+public final class BillInsertBenchmark {
+
+    private static final String SCHEMA = "syos_billbench";
+    private static final int[] GROUP_SIZES = {1, 10, 100};
+
+    public static void main(String[] args) {
+        int bills = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int lines = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        try (var db = new Db(new StartupTimer(), SCHEMA)) {
+            run(db, bills, lines);
+        }
+    }
+
+    public static void run(Db db, int bills, int lines) {
+        System.out.println("\n=== BILL INSERT BENCHMARK (" + SCHEMA + ") ===");
+        var repo = new JdbcBillRepository();
+        try (Connection con = db.getConnection()) {
+            try {
+                con.setAutoCommit(false);
+                insert(con, repo, "W", 10, Math.min(bills, 200), lines); // warm-up
+                for (int group : GROUP_SIZES) {
+                    long nanos = insert(con, repo, "G" + group, group, bills, lines);
+                    System.out.printf("%3d bills/call: %,8.0f bills/sec  (%.2f ms per call)%n",
+                            group, bills / (nanos / 1e9), nanos / 1e6 / Math.ceil((double) bills / group));
+                }
+            } finally {
+                con.setAutoCommit(true);
+                try (var st = con.createStatement()) {
+                    st.execute("DROP DATABASE IF EXISTS " + SCHEMA);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Bill insert benchmark failed", e);
+        }
+        System.out.println("=== DONE ===\n");
+    }
+
+    private static long insert(Connection con, JdbcBillRepository repo, String prefix, int group, int total, int lines) throws SQLException {
+        long start = System.nanoTime();
+        for (int from = 0; from < total; from += group) {
+            int n = Math.min(group, total - from);
+            List<Bill> batch = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) batch.add(bill(prefix + "-" + (from + i), lines));
+            repo.saveAll(con, batch);
+            con.commit();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static Bill bill(String serial, int lines) {
+        var b = new Bill.Builder().serial(serial);
+        for (int i = 0; i < lines; i++) {
+            b.addLine(new BillLine(Code.of(String.format("P%03d", i)), "Bench item " + i, new Quantity(1 + i % 3), Money.of(150 + i * 25L)));
+        }
+        return b.cash(Money.of(100_000)).build();
+    }
+}
@@ -0,0 +1,141 @@
+package main.java.cli.demo;
+
+import main.java.config.Db;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Compares the cost of the FEFO and FIFO candidate queries on a large batch table.
+ * Works on a scratch copy (batch_bench, same columns and indexes as batch) that is dropped afterwards.
+ * Usage: CandidateQueryBenchmark [rows] [queries]   (defaults: 1,000,000 rows, 5,000 queries)
+ */
+public final class CandidateQueryBenchmark {
+
+    private static final String FEFO_SQL = """
+            SELECT id, product_code, location, received_at, expiry, quantity, version
+            FROM batch_bench
+            WHERE product_code=? AND location=? AND quantity>0
+            ORDER BY (CASE WHEN expiry IS NULL THEN 1 ELSE 0 END), expiry ASC, received_at ASC, id ASC
+            """;
+
+    private static final String FIFO_SQL = """
+            SELECT id, product_code, location, received_at, expiry, quantity, version
+            FROM batch_bench
+            WHERE product_code=? AND location=? AND quantity>0
+            ORDER BY received_at ASC, id ASC
+            """;
+
+    private static final String[] LOCATIONS = {"MAIN_STORE", "SHELF", "WEB"};
+    private static final int PRODUCTS = 20_000;
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        try (var db = new Db()) {
+            run(db.getDataSource(), rows, queries);
+        }
+    }
+
+    public static void run(DataSource ds, int rows, int queries) {
+        System.out.println("\n=== CANDIDATE QUERY BENCHMARK (FEFO vs FIFO) ===");
+        try (Connection con = ds.getConnection()) {
+            try {
+                seed(con, rows);
+                explain(con, "FEFO", FEFO_SQL);
+                explain(con, "FIFO", FIFO_SQL);
+                // Warm the buffer pool and statement cache before measuring
+                measure(con, FEFO_SQL, queries / 5);
+                measure(con, FIFO_SQL, queries / 5);
+                report("FEFO", measure(con, FEFO_SQL, queries), queries);
+                report("FIFO", measure(con, FIFO_SQL, queries), queries);
+            } finally {
+                try (var st = con.createStatement()) {
+                    st.execute("DROP TABLE IF EXISTS batch_bench");
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Benchmark failed", e);
+        }
+        System.out.println("=== BENCHMARK COMPLETE ===\n");
+    }
+
+    private static void seed(Connection con, int rows) throws SQLException {
+        try (var st = con.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS batch_bench");
+            st.execute("CREATE TABLE batch_bench LIKE batch");
+        }
+        long start = System.nanoTime();
+        Random rnd = new Random(42);
+        LocalDateTime base = LocalDateTime.now().withNano(0).minusYears(1);
+        int chunk = 1000;
+        boolean old = con.getAutoCommit();
+        con.setAutoCommit(false);
+        StringBuilder sql = new StringBuilder();
+        for (int done = 0; done < rows; done += chunk) {
+            int n = Math.min(chunk, rows - done);
+            sql.setLength(0);
+            sql.append("INSERT INTO batch_bench(product_code, location, received_at, expiry, quantity, version) VALUES ");
+            for (int i = 0; i < n; i++) {
+                int row = done + i;
+                LocalDateTime received = base.plusSeconds(row * 31L);
+                String expiry = rnd.nextInt(10) == 0 ? "NULL"
+                        : "'" + LocalDate.from(received).plusDays(30 + rnd.nextInt(400)) + "'";
+                if (i > 0) sql.append(',');
+                sql.append("('BNC").append(row % PRODUCTS).append("','")
+                        .append(LOCATIONS[(row / PRODUCTS) % LOCATIONS.length]).append("','")
+                        .append(Timestamp.valueOf(received)).append("',").append(expiry).append(',')
+                        .append(rnd.nextInt(5) == 0 ? 0 : 1 + rnd.nextInt(200)).append(",0)");
+            }
+            try (var st = con.createStatement()) {
+                st.executeUpdate(sql.toString());
+            }
+            con.commit();
+        }
+        con.setAutoCommit(old);
+        try (var st = con.createStatement()) {
+            st.execute("ANALYZE TABLE batch_bench");
+        }
+        System.out.printf("Seeded %,d rows in %.1f s%n", rows, (System.nanoTime() - start) / 1e9);
+    }
+
+    private static void explain(Connection con, String label, String sql) throws SQLException {
+        try (var ps = con.prepareStatement("EXPLAIN " + sql)) {
+            ps.setString(1, "BNC1");
+            ps.setString(2, "SHELF");
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    System.out.printf("%s plan: type=%s key=%s rows=%s extra=%s%n", label,
+                            rs.getString("type"), rs.getString("key"), rs.getString("rows"), rs.getString("Extra"));
+                }
+            }
+        }
+    }
+
+    private static long measure(Connection con, String sql, int queries) throws SQLException {
+        Random rnd = new Random(7);
+        long start = System.nanoTime();
+        try (var ps = con.prepareStatement(sql)) {
+            for (int i = 0; i < queries; i++) {
+                ps.setString(1, "BNC" + rnd.nextInt(PRODUCTS));
+                ps.setString(2, LOCATIONS[rnd.nextInt(LOCATIONS.length)]);
+                try (var rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rs.getLong(1);
+                    }
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String label, long nanos, int queries) {
+        System.out.printf("%s: %,d queries in %.1f ms  (%.1f us/query)%n",
+                label, queries, nanos / 1e6, nanos / 1e3 / queries);
+    }
+}
@@ -0,0 +1,104 @@
+package main.java.cli.demo;
+
+import main.java.application.services.ImportService;
+import main.java.application.usecase.CategoryManagementUseCase;
+import main.java.config.Db;
+import main.java.config.StartupTimer;
+import main.java.infrastructure.concurrency.Tx;
+import main.java.infrastructure.persistence.InMemoryBatchIndex;
+import main.java.infrastructure.persistence.JdbcCategoryRepository;
+import main.java.infrastructure.persistence.JdbcInventoryRepository;
+import main.java.infrastructure.persistence.JdbcMovementRepository;
+import main.java.infrastructure.persistence.JdbcProductRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Times {@link ImportService} on generated files for a scratch schema: a few categories, then N
+ * products (every tenth without a code, so it is generated from its category, and one in a thousand
+ * with a bad price), then one opening-stock batch per product. Running an import a second time
+ * shows it is recognised as already done. Target: 1M products plus batches in minutes.
+ * Usage: CatalogImportBenchmark [products]   (default: 100,000)
+ */
+public final class CatalogImportBenchmark {
+
+    private static final String SCHEMA = "syos_importbench";
+    private static final String[] CATEGORIES = {"FRT", "VEG", "DRY", "BEV", "HOU"};
+
+    public static void main(String[] args) throws IOException {
+        int products = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        try (var db = new Db(new StartupTimer(), SCHEMA)) {
+            run(db, products);
+        }
+    }
+
+    public static void run(Db db, int products) throws IOException {
+        System.out.printf("%n=== CATALOG IMPORT BENCHMARK (%s, %,d products) ===%n", SCHEMA, products);
+        Path dir = Files.createTempDirectory("syos-import");
+        try {
+            Path categoryFile = write(dir.resolve("categories.csv"), ImportService.Dataset.CATEGORIES, CATEGORIES.length,
+                    i -> CATEGORIES[i] + ",Category " + CATEGORIES[i] + ",," + CATEGORIES[i] + "," + i);
+            Path productFile = write(dir.resolve("products.csv"), ImportService.Dataset.PRODUCTS, products,
+                    i -> (i % 10 == 9 ? "" : String.format("IB%07d", i)) + ",\"Product " + i + ", bench\","
+                            + (i % 1000 == 999 ? "n/a" : (100 + i % 900) + ".50") + "," + CATEGORIES[i % CATEGORIES.length]);
+            String expiry = LocalDate.now().plusMonths(6).toString();
+            Path batchFile = write(dir.resolve("batches.csv"), ImportService.Dataset.BATCHES, products,
+                    i -> String.format("IB%07d", i - i % 10) + ",MAIN_STORE," + LocalDate.now() + "," + expiry + "," + (10 + i % 90));
+
+            var ds = db.getDataSource();
+            var categories = new CategoryManagementUseCase(new JdbcCategoryRepository(ds));
+            var inventory = new JdbcInventoryRepository(ds, new InMemoryBatchIndex(), new JdbcMovementRepository(ds));
+            var service = new ImportService(new Tx(ds), new JdbcProductRepository(ds), inventory, categories);
+
+            time(service, ImportService.Dataset.CATEGORIES, categoryFile);
+            long productMs = time(service, ImportService.Dataset.PRODUCTS, productFile);
+            long batchMs = time(service, ImportService.Dataset.BATCHES, batchFile);
+            time(service, ImportService.Dataset.PRODUCTS, productFile);
+            System.out.printf("Products + batches: %,d ms, %,.0f rows/sec%n", productMs + batchMs,
+                    2L * products / ((productMs + batchMs) / 1000.0));
+        } finally {
+            try (var files = Files.list(dir)) {
+                files.forEach(f -> f.toFile().delete());
+            }
+            Files.deleteIfExists(dir);
+            try (var con = db.getConnection(); var st = con.createStatement()) {
+                st.execute("DROP DATABASE IF EXISTS " + SCHEMA);
+            } catch (SQLException e) {
+                System.out.println("Could not drop " + SCHEMA + ": " + e.getMessage());
+            }
+        }
+        System.out.println("=== DONE ===\n");
+    }
+
+    private interface Line { String of(int i); }
+
+    private static Path write(Path file, ImportService.Dataset dataset, int rows, Line line) {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(dataset.header());
+            out.newLine();
+            for (int i = 0; i < rows; i++) {
+                out.write(line.of(i));
+                out.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write " + file, e);
+        }
+        return file;
+    }
+
+    private static long time(ImportService service, ImportService.Dataset dataset, Path file) {
+        long start = System.nanoTime();
+        var result = service.importFile(dataset, file);
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("%-10s %s%,d rows, %,d imported, %,d rejected in %,d ms%n", dataset,
+                result.alreadyDone() ? "(already done) " : "", result.records(), result.imported(), result.failed(), ms);
+        return ms;
+    }
+}
@@ -0,0 +1,145 @@
+package main.java.cli.demo;
+
+import main.java.domain.product.Category;
+import main.java.domain.repository.CategoryRepository;
+import main.java.infrastructure.persistence.CachingCategoryRepository;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Category reads as the product screens make them (list the active categories, then look one up
+ * by code), with and without {@link CachingCategoryRepository}. The table is in memory with a
+ * simulated round trip per query, so no database is needed. Then tills reserve product codes while
+ * others read, and the cached next sequence is checked against the table.
+ * Usage: CategoryCacheBenchmark [categories] [round trip micros]   (defaults: 40 categories, 500 us)
+ */
+public final class CategoryCacheBenchmark {
+
+    private static final int LOOKUPS = 2_000;
+    private static final int WRITERS = 4;
+    private static final int RESERVATIONS = 500;
+
+    /** category table with a fixed delay per query. */
+    private static final class SlowCategories implements CategoryRepository {
+        final Map<String, Category> rows = new ConcurrentHashMap<>();
+        final long roundTripNanos;
+
+        SlowCategories(long roundTripNanos) { this.roundTripNanos = roundTripNanos; }
+
+        @Override public List<Category> findAllActive() {
+            return findAll().stream().filter(Category::active).toList();
+        }
+
+        @Override public List<Category> findAll() {
+            roundTrip();
+            return rows.values().stream().sorted(Comparator.comparingInt(Category::displayOrder)).toList();
+        }
+
+        @Override public Optional<Category> findByCode(String code) {
+            roundTrip();
+            return Optional.ofNullable(rows.get(code));
+        }
+
+        @Override public Optional<Category> findByPrefix(String prefix) {
+            roundTrip();
+            return rows.values().stream().filter(c -> c.prefix().equals(prefix)).findFirst();
+        }
+
+        @Override public void save(Category category) {
+            roundTrip();
+            rows.merge(category.code(), category, (old, c) -> c.nextSequence() >= old.nextSequence() ? c
+                    : new Category(c.code(), c.name(), c.description(), c.prefix(), old.nextSequence(), c.displayOrder(), c.active()));
+        }
+
+        @Override public void delete(String code) {
+            roundTrip();
+            rows.computeIfPresent(code, (k, c) -> new Category(c.code(), c.name(), c.description(), c.prefix(),
+                    c.nextSequence(), c.displayOrder(), false));
+        }
+
+        @Override public int reserveSequence(String categoryCode, int count) {
+            roundTrip();
+            Category c = rows.computeIfPresent(categoryCode, (k, old) -> new Category(old.code(), old.name(), old.description(),
+                    old.prefix(), old.nextSequence() + count, old.displayOrder(), old.active()));
+            return c.nextSequence() - count;
+        }
+
+        private void roundTrip() {
+            long end = System.nanoTime() + roundTripNanos;
+            while (System.nanoTime() < end) Thread.onSpinWait();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int categories = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        long roundTripMicros = args.length > 1 ? Long.parseLong(args[1]) : 500;
+        run(categories, roundTripMicros);
+    }
+
+    public static void run(int categories, long roundTripMicros) throws Exception {
+        System.out.printf("%n=== CATEGORY CACHE BENCHMARK (%d categories, %d us per query) ===%n", categories, roundTripMicros);
+        var table = seed(new SlowCategories(roundTripMicros * 1_000), categories);
+        report("database per call", table);
+        var cached = new CachingCategoryRepository(table);
+        cached.preload();
+        report("cached snapshot", cached);
+
+        // Tills reserving codes while others list categories
+        var writes = new CachingCategoryRepository(seed(new SlowCategories(0), categories));
+        writes.preload();
+        var done = new CountDownLatch(WRITERS);
+        var reads = new AtomicInteger();
+        for (int w = 0; w < WRITERS; w++) {
+            new Thread(() -> {
+                for (int i = 0; i < RESERVATIONS; i++) writes.reserveSequence("C" + (i % categories), 1 + i % 3);
+                done.countDown();
+            }).start();
+        }
+        while (done.getCount() > 0) {
+            writes.findAllActive().forEach(c -> reads.incrementAndGet());
+        }
+        System.out.printf("%d tills x %d reservations alongside %,d category reads: cached sequences %s%n",
+                WRITERS, RESERVATIONS, reads.get(), sequencesMatch(writes, categories) ? "match" : "DIFFER");
+        System.out.println("=== DONE ===\n");
+    }
+
+    private static SlowCategories seed(SlowCategories table, int categories) {
+        for (int c = 0; c < categories; c++) {
+            table.rows.put("C" + c, new Category("C" + c, "Category " + c, null, "P" + c, 1, categories - c, c % 10 != 9));
+        }
+        return table;
+    }
+
+    /** Every till reserved the same amounts, so each category's next sequence is known. */
+    private static boolean sequencesMatch(CachingCategoryRepository cached, int categories) {
+        int[] expected = new int[categories];
+        Arrays.fill(expected, 1);
+        for (int w = 0; w < WRITERS; w++) {
+            for (int i = 0; i < RESERVATIONS; i++) expected[i % categories] += 1 + i % 3;
+        }
+        for (int c = 0; c < categories; c++) {
+            if (cached.findByCode("C" + c).orElseThrow().nextSequence() != expected[c]) return false;
+            if (cached.findByPrefix("P" + c).orElseThrow().nextSequence() != expected[c]) return false;
+        }
+        return true;
+    }
+
+    /** Product screen pattern: list active categories, then fetch the chosen one, {@value #LOOKUPS} times. */
+    private static void report(String label, CategoryRepository repo) {
+        long start = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            List<Category> active = repo.findAllActive();
+            if (repo.findByCode(active.get(i % active.size()).code()).isPresent()) found++;
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%-20s %,10.1f us per list + lookup  (%d/%d found)%n", label, nanos / 1e3 / LOOKUPS, found, LOOKUPS);
+    }
+}
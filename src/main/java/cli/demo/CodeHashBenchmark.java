@@ -0,0 +1,72 @@
+package main.java.cli.demo;
+
+import main.java.domain.shared.Code;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Hash-map lookup throughput keyed by product code: the previous Code (hash recomputed with
+ * toLowerCase + Objects.hash on every call, equalsIgnoreCase), a fresh Code per lookup, and
+ * interned Code.of instances. No database needed.
+ * Usage: CodeHashBenchmark [codes] [lookups]   (defaults: 50,000 codes, 20,000,000 lookups)
+ */
+public final class CodeHashBenchmark {
+
+    /** Code as it was before interning, kept here only for comparison. */
+    private static final class LegacyCode {
+        private final String value;
+        LegacyCode(String value) { this.value = value.trim(); }
+        @Override public boolean equals(Object o) { return (o instanceof LegacyCode c) && value.equalsIgnoreCase(c.value); }
+        @Override public int hashCode() { return Objects.hash(value.toLowerCase()); }
+    }
+
+    public static void main(String[] args) {
+        int codes = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 20_000_000;
+        run(codes, lookups);
+    }
+
+    public static void run(int codes, int lookups) {
+        System.out.println("\n=== CODE HASH-MAP BENCHMARK ===");
+        String[] raw = new String[codes];
+        Map<LegacyCode, Integer> legacy = new HashMap<>();
+        Map<Code, Integer> current = new HashMap<>();
+        for (int i = 0; i < codes; i++) {
+            raw[i] = String.format("PRD%06d", i);
+            legacy.put(new LegacyCode(raw[i]), i);
+            current.put(Code.of(raw[i]), i);
+        }
+        int[] order = new int[lookups];
+        Random rnd = new Random(42);
+        for (int i = 0; i < lookups; i++) order[i] = rnd.nextInt(codes);
+
+        for (int round = 0; round < 2; round++) {
+            boolean warmup = round == 0;
+            long sink = 0;
+
+            long start = System.nanoTime();
+            for (int i : order) sink += legacy.get(new LegacyCode(raw[i]));
+            report(warmup, "legacy Code, new per lookup", System.nanoTime() - start, lookups);
+
+            start = System.nanoTime();
+            for (int i : order) sink += current.get(new Code(raw[i]));
+            report(warmup, "Code, new per lookup       ", System.nanoTime() - start, lookups);
+
+            start = System.nanoTime();
+            for (int i : order) sink += current.get(Code.of(raw[i]));
+            report(warmup, "Code.of (interned)         ", System.nanoTime() - start, lookups);
+
+            if (sink == 42) System.out.println(); // keep the loops alive
+        }
+        System.out.println("=== BENCHMARK COMPLETE ===\n");
+    }
+
+    private static void report(boolean warmup, String label, long nanos, int lookups) {
+        if (warmup) return;
+        System.out.printf("%s: %.1f ns/lookup  (%.1f M lookups/s)%n",
+                label, (double) nanos / lookups, lookups * 1e3 / nanos);
+    }
+}
@@ -0,0 +1,161 @@
+package main.java.cli.demo;
+
+import main.java.application.usecase.LoginUseCase;
+import main.java.domain.repository.UserRepository;
+import main.java.domain.user.Role;
+import main.java.domain.user.User;
+import main.java.infrastructure.persistence.CachingUserRepository;
+import main.java.infrastructure.security.PasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiPredicate;
+
+/**
+ * Logins/sec for a shift change: many cashiers logging in at once from several tills. Compares
+ * the previous path (a user lookup per login, MessageDigest.getInstance per check) with the user
+ * cache and per-thread digests, and shows what each PBKDF2 cost does to throughput. User lookups
+ * go to an in-memory table with a simulated round trip, so no database is needed.
+ * Usage: LoginBenchmark [cashiers] [tills] [round trip micros]   (defaults: 200 cashiers, 8 tills, 500 us)
+ */
+public final class LoginBenchmark {
+
+    private static final int[] KDF_ITERATIONS = {10_000, 100_000};
+
+    /** The encoder as it was before: digest looked up and salt source seeded on every call. */
+    private static final class LegacyEncoder {
+        String hash(String raw) throws Exception {
+            byte[] salt = new byte[16];
+            new SecureRandom().nextBytes(salt);
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(salt);
+            return Base64.getEncoder().encodeToString(salt) + "$"
+                    + Base64.getEncoder().encodeToString(md.digest(raw.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        boolean matches(String raw, String hash) {
+            try {
+                String[] parts = hash.split("\\$");
+                MessageDigest md = MessageDigest.getInstance("SHA-256");
+                md.update(Base64.getDecoder().decode(parts[0]));
+                return parts[1].equals(Base64.getEncoder().encodeToString(md.digest(raw.getBytes(StandardCharsets.UTF_8))));
+            } catch (Exception e) {
+                return false;
+            }
+        }
+    }
+
+    /** users table with a fixed delay per query, standing in for a fresh connection and round trip. */
+    private static final class SlowUsers implements UserRepository {
+        final Map<String, User> rows = new ConcurrentHashMap<>();
+        final long roundTripNanos;
+
+        SlowUsers(long roundTripNanos) { this.roundTripNanos = roundTripNanos; }
+
+        @Override public Optional<User> findByUsername(String username) {
+            roundTrip();
+            return Optional.ofNullable(rows.get(username));
+        }
+
+        @Override public List<User> findAll() {
+            roundTrip();
+            return new ArrayList<>(rows.values());
+        }
+
+        @Override public void upsert(User user) {
+            roundTrip();
+            rows.put(user.username(), user);
+        }
+
+        private void roundTrip() {
+            long end = System.nanoTime() + roundTripNanos;
+            while (System.nanoTime() < end) Thread.onSpinWait();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int cashiers = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int tills = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        long roundTripMicros = args.length > 2 ? Long.parseLong(args[2]) : 500;
+        run(cashiers, tills, roundTripMicros);
+    }
+
+    public static void run(int cashiers, int tills, long roundTripMicros) throws Exception {
+        System.out.printf("%n=== LOGIN BENCHMARK (%d cashiers, %d tills, %d us per user query) ===%n", cashiers, tills, roundTripMicros);
+
+        var legacy = new LegacyEncoder();
+        var legacyUsers = seed(new SlowUsers(roundTripMicros * 1_000), cashiers, legacy::hash);
+        report("previous (query + getInstance)", cashiers, tills, (name, pw) -> {
+            var user = legacyUsers.findByUsername(name).orElseThrow();
+            return legacy.matches(pw, user.passwordHash());
+        });
+
+        var encoder = new PasswordEncoder();
+        var cached = new CachingUserRepository(seed(new SlowUsers(roundTripMicros * 1_000), cashiers, encoder::hash));
+        cached.preload();
+        var login = new LoginUseCase(cached, encoder);
+        report("cached user + per-thread digest", cashiers, tills, (name, pw) -> login.login(name, pw) != null);
+
+        for (int iterations : KDF_ITERATIONS) {
+            var kdf = new PasswordEncoder(iterations);
+            var kdfUsers = new CachingUserRepository(seed(new SlowUsers(roundTripMicros * 1_000), cashiers, kdf::hash));
+            kdfUsers.preload();
+            var kdfLogin = new LoginUseCase(kdfUsers, kdf);
+            report(String.format("cached user + PBKDF2 x%,d", iterations), cashiers, tills, (name, pw) -> kdfLogin.login(name, pw) != null);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 20_000; i++) legacy.hash("pw" + i);
+        long legacyHash = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < 20_000; i++) encoder.hash("pw" + i);
+        long sharedHash = System.nanoTime() - start;
+        System.out.printf("hash(): new SecureRandom each %,.0f/sec, shared %,.0f/sec%n",
+                20_000 / (legacyHash / 1e9), 20_000 / (sharedHash / 1e9));
+        System.out.println("=== DONE ===\n");
+    }
+
+    private interface Hasher { String hash(String raw) throws Exception; }
+
+    private static SlowUsers seed(SlowUsers users, int cashiers, Hasher hasher) throws Exception {
+        for (int i = 0; i < cashiers; i++) {
+            users.rows.put("cashier" + i, new User(i, "cashier" + i, hasher.hash("secret" + i), null, Role.CASHIER));
+        }
+        return users;
+    }
+
+    /** Every cashier logs in three times (warm-up, then two timed rounds) spread over the tills. */
+    private static void report(String label, int cashiers, int tills, BiPredicate<String, String> login) throws Exception {
+        round(cashiers, tills, login);
+        long start = System.nanoTime();
+        int ok = round(cashiers, tills, login) + round(cashiers, tills, login);
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%-36s %,10.0f logins/sec  (%d/%d accepted)%n", label, 2 * cashiers / (nanos / 1e9), ok, 2 * cashiers);
+    }
+
+    private static int round(int cashiers, int tills, BiPredicate<String, String> login) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(tills);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < cashiers; i++) {
+                int n = i;
+                results.add(pool.submit(() -> login.test("cashier" + n, "secret" + n)));
+            }
+            int ok = 0;
+            for (var f : results) if (f.get()) ok++;
+            return ok;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
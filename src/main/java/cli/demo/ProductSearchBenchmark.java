@@ -0,0 +1,90 @@
+package main.java.cli.demo;
+
+import main.java.domain.product.Product;
+import main.java.domain.shared.Code;
+import main.java.domain.shared.Money;
+import main.java.infrastructure.persistence.ProductSearchIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Search latency on a generated catalogue, in memory only: exact and partial codes, name words,
+ * prefixes, typos and multi-word queries against {@link ProductSearchIndex}, next to the scan of
+ * the whole product list that searching needed before. Prints the top hit of each query so the
+ * ranking can be eyeballed.
+ * Usage: ProductSearchBenchmark [products]   (default: 100,000)
+ */
+public final class ProductSearchBenchmark {
+
+    private static final String[] BRANDS = {"Anchor", "Maliban", "Munchee", "Elephant House", "Kist", "Highland",
+            "Prima", "Keells", "Coca-Cola", "Nestle", "Sunlight", "Signal", "Harischandra", "Ritzbury", "Lipton"};
+    private static final String[] ITEMS = {"Milk Powder", "Cream Crackers", "Ginger Biscuits", "Ice Cream", "Jam",
+            "Yoghurt", "Noodles", "Sausages", "Soft Drink", "Milo", "Soap", "Toothpaste", "Coffee", "Chocolate", "Tea"};
+    private static final String[] SIZES = {"100g", "200g", "400g", "1kg", "500ml", "1l", "1.5l", "Family Pack"};
+    private static final String[] QUERIES = {"MB00042", "mb0004", "toothpaste", "choc", "chocolte", "biscits",
+            "anchor milk", "lipton tea 100g", "coca-cola", "mlk pwder"};
+    private static final int LIMIT = 10;
+    private static final int RUNS = 2_000;
+
+    public static void main(String[] args) {
+        int products = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        run(products);
+    }
+
+    public static void run(int count) {
+        System.out.printf("%n=== PRODUCT SEARCH BENCHMARK (%,d products) ===%n", count);
+        var rnd = new Random(7);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = BRANDS[rnd.nextInt(BRANDS.length)] + " " + ITEMS[rnd.nextInt(ITEMS.length)] + " "
+                    + SIZES[rnd.nextInt(SIZES.length)] + (i % 7 == 0 ? " Promo " + i : "");
+            products.add(new Product(new Code(String.format("MB%05d", i)), name, Money.of(100 + rnd.nextInt(2_000))));
+        }
+
+        var index = new ProductSearchIndex();
+        long t0 = System.nanoTime();
+        index.replaceAll(products);
+        System.out.printf("Index built in %,d ms%n", (System.nanoTime() - t0) / 1_000_000);
+
+        System.out.printf("%-18s %12s %12s  %s%n", "query", "index (us)", "scan (us)", "top hit");
+        for (String q : QUERIES) {
+            for (int i = 0; i < RUNS / 10; i++) index.search(q, LIMIT);
+            long start = System.nanoTime();
+            List<Product> hits = List.of();
+            for (int i = 0; i < RUNS; i++) hits = index.search(q, LIMIT);
+            double indexUs = (System.nanoTime() - start) / 1e3 / RUNS;
+
+            int scanRuns = 20;
+            start = System.nanoTime();
+            for (int i = 0; i < scanRuns; i++) scan(products, q);
+            double scanUs = (System.nanoTime() - start) / 1e3 / scanRuns;
+
+            String top = hits.isEmpty() ? "-" : hits.get(0).code() + " " + hits.get(0).name();
+            System.out.printf("%-18s %12.1f %12.1f  %s (%d hits)%n", q, indexUs, scanUs, top, hits.size());
+        }
+
+        Product changed = new Product(new Code("MB00042"), "Renamed Saffron Rice", Money.of(999));
+        index.put(changed);
+        System.out.println("After rename, 'saffron' -> " + index.search("saffron", LIMIT).get(0).code()
+                + ", 'MB00042' still found: " + !index.search("MB00042", 1).isEmpty());
+        index.remove("MB00042");
+        System.out.println("After delete, 'saffron' hits: " + index.search("saffron", LIMIT).size());
+        System.out.println("=== DONE ===\n");
+    }
+
+    /** The previous way: every product from the list, matched by substring. */
+    private static List<Product> scan(List<Product> products, String query) {
+        String[] words = query.toLowerCase(Locale.ROOT).split("\\s+");
+        return products.stream()
+                .filter(p -> {
+                    String text = (p.code().value() + " " + p.name()).toLowerCase(Locale.ROOT);
+                    return Arrays.stream(words).allMatch(text::contains);
+                })
+                .limit(LIMIT)
+                .toList();
+    }
+}
@@ -0,0 +1,283 @@
+package main.java.cli.demo;
+
+import main.java.config.Db;
+import main.java.config.StartupTimer;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Query-plan regression check for the repository SQL.
+ * <p>
+ * Creates a scratch schema, applies all migrations, seeds a large synthetic
+ * product/batch/bill/bill_line/inventory_movement/sales_daily/stock_snapshot dataset and runs
+ * EXPLAIN on every SQL shape the repositories and services issue. The shapes are copies of
+ * their SQL, so a query changed there must be changed here too. Hot-path queries fail the check if MySQL plans a
+ * full table scan or a filesort; report/listing queries are printed for information.
+ * Exits with status 1 on failure so it can gate a release.
+ * Usage: QueryPlanCheck [scale] [--keep]   (scale 1 = 200k batches, 100k bills, 200k movements)
+ */
+public final class QueryPlanCheck {
+
+    private static final String SCHEMA = "syos_plancheck";
+    private static final String[] LOCATIONS = {"MAIN_STORE", "SHELF", "WEB"};
+    private static final int SNAPSHOTS = 8;
+
+    private record Shape(String name, boolean hot, String sql, Object... params) {}
+
+    private record Plan(String table, String type, String key, String rows, String extra) {
+        boolean fullScan() { return "ALL".equals(type); }
+        boolean filesort() { return extra != null && extra.contains("Using filesort"); }
+    }
+
+    public static void main(String[] args) {
+        double scale = 1.0;
+        boolean keep = false;
+        for (String a : args) {
+            if ("--keep".equals(a)) keep = true; else scale = Double.parseDouble(a);
+        }
+        boolean ok;
+        try (var db = new Db(new StartupTimer(), SCHEMA)) {
+            ok = run(db, scale, keep);
+        }
+        if (!ok) System.exit(1);
+    }
+
+    /** Returns true when every hot query uses an index without a filesort. */
+    public static boolean run(Db db, double scale, boolean keep) {
+        System.out.println("\n=== QUERY PLAN CHECK (" + SCHEMA + ") ===");
+        try (Connection con = db.getConnection()) {
+            try {
+                int products = (int) (5_000 * scale);
+                seed(con, products, (int) (200_000 * scale), (int) (100_000 * scale), (int) (200_000 * scale));
+                return check(con, shapes(products));
+            } finally {
+                if (!keep) {
+                    try (var st = con.createStatement()) {
+                        st.execute("DROP DATABASE IF EXISTS " + SCHEMA);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Query plan check failed to run", e);
+        }
+    }
+
+    private static List<Shape> shapes(int products) {
+        String code = code(products / 2);
+        Timestamp dayStart = Timestamp.valueOf(LocalDate.now().minusDays(100).atStartOfDay());
+        Timestamp dayEnd = Timestamp.valueOf(LocalDate.now().minusDays(99).atStartOfDay());
+        Timestamp monthStart = Timestamp.valueOf(LocalDate.now().minusDays(130).atStartOfDay());
+        java.sql.Date expiry = java.sql.Date.valueOf(LocalDate.now().plusDays(60));
+        List<Shape> shapes = new ArrayList<>();
+
+        // InMemoryBatchIndex
+        shapes.add(new Shape("batch index reload", true,
+                "SELECT id, product_code, location, received_at, expiry, quantity, version FROM batch WHERE product_code=? AND location=? AND quantity>0",
+                code, "SHELF"));
+        shapes.add(new Shape("batch index reloadBatch", true,
+                "SELECT id, product_code, location, received_at, expiry, quantity, version FROM batch WHERE id=?", 1000L));
+
+        // JdbcInventoryRepository
+        shapes.add(new Shape("inventory.deductFromBatch", true,
+                "UPDATE batch SET quantity = quantity - ?, version = version + 1 WHERE id=? AND version=? AND quantity >= ?",
+                1, 1000L, 0, 1));
+        shapes.add(new Shape("inventory.totalAvailable", true,
+                "SELECT COALESCE(SUM(quantity),0) AS q FROM batch WHERE product_code=? AND location=?", code, "SHELF"));
+        shapes.add(new Shape("inventory.remainingQuantity", true,
+                "SELECT COALESCE(SUM(quantity),0) q FROM batch WHERE product_code=? AND location=?", code, "SHELF"));
+        shapes.add(new Shape("inventory.findExistingBatch(expiry)", true,
+                "SELECT id FROM batch WHERE product_code = ? AND location = ? AND expiry = ? LIMIT 1", code, "SHELF", expiry));
+        shapes.add(new Shape("inventory.findExistingBatch(no expiry)", true,
+                "SELECT id FROM batch WHERE product_code = ? AND location = ? AND expiry IS NULL LIMIT 1", code, "SHELF"));
+        shapes.add(new Shape("inventory.transfer merge", true,
+                "UPDATE batch SET quantity = quantity + ?, version = version + 1 WHERE id = ?", 1, 1000L));
+        shapes.add(new Shape("inventory.findBatchById", true,
+                "SELECT id, product_code, location, received_at, expiry, quantity FROM batch WHERE id = ?", 1000L));
+        shapes.add(new Shape("inventory.findBatchesByProduct", false,
+                "SELECT id, product_code, location, received_at, expiry, quantity FROM batch WHERE product_code = ? "
+                        + "ORDER BY location, CASE WHEN expiry IS NULL THEN 1 ELSE 0 END, expiry, received_at", code));
+        shapes.add(new Shape("inventory.findBatchesByLocation", false,
+                "SELECT id, product_code, location, received_at, expiry, quantity FROM batch WHERE location = ? "
+                        + "ORDER BY product_code, CASE WHEN expiry IS NULL THEN 1 ELSE 0 END, expiry, received_at", "WEB"));
+        shapes.add(new Shape("inventory.findAllBatches", false,
+                "SELECT id, product_code, location, received_at, expiry, quantity FROM batch "
+                        + "ORDER BY product_code, location, CASE WHEN expiry IS NULL THEN 1 ELSE 0 END, expiry, received_at"));
+
+        // Product / user / billing
+        shapes.add(new Shape("product.findByCode", true,
+                "SELECT code,name,price_cents,category_code FROM product WHERE code=?", code));
+        shapes.add(new Shape("users.findByUsername", true,
+                "SELECT id, username, password_hash, email, role FROM users WHERE username=?", "cashier"));
+        shapes.add(new Shape("billNumber.next", true,
+                "SELECT next_val FROM bill_number WHERE scope=? FOR UPDATE", "COUNTER"));
+        shapes.add(new Shape("bill by day", true,
+                "SELECT id, serial, date_time, total_cents FROM bill WHERE date_time >= ? AND date_time < ? ORDER BY date_time",
+                dayStart, dayEnd));
+        shapes.add(new Shape("bill_line by bill", true,
+                "SELECT product_code, name, qty, unit_price_cents, line_total_cents FROM bill_line WHERE bill_id=?", 1000L));
+        shapes.add(new Shape("bill.findByRequestId", true,
+                "SELECT id, serial, date_time, discount_cents, cash_cents FROM bill WHERE request_id=?", "req-1000"));
+
+        // Movement ledger (JdbcMovementRepository.history, StockHistoryService)
+        shapes.add(new Shape("movement.history", true,
+                "SELECT happened_at, product_code, from_location, to_location, quantity, note FROM inventory_movement "
+                        + "WHERE product_code = ? AND happened_at >= ? AND happened_at < ? ORDER BY happened_at, id",
+                code, monthStart, dayEnd));
+        shapes.add(new Shape("stockHistory ledger (one product)", true,
+                "SELECT product_code, to_location AS location, quantity AS delta, happened_at FROM inventory_movement "
+                        + "WHERE to_location IN ('MAIN_STORE','SHELF','WEB') AND happened_at > ? AND happened_at <= ? AND product_code IN (?)",
+                monthStart, dayEnd, code));
+        shapes.add(new Shape("stockHistory ledger (all products)", false,
+                "SELECT product_code, to_location AS location, quantity AS delta, happened_at FROM inventory_movement "
+                        + "WHERE to_location IN ('MAIN_STORE','SHELF','WEB') AND happened_at > ? AND happened_at <= ?",
+                dayStart, dayEnd));
+
+        // Stock snapshots (StockHistoryService)
+        shapes.add(new Shape("stockHistory latestSnapshot", true,
+                "SELECT MAX(taken_at) FROM stock_snapshot WHERE taken_at <= ?", dayEnd));
+        shapes.add(new Shape("stockHistory snapshot rows", true,
+                "SELECT product_code, location, quantity AS delta, NULL FROM stock_snapshot WHERE taken_at = ? AND product_code IN (?)",
+                snapshotAt(1), code));
+
+        // Sales totals (JdbcBillRepository, ReportCatalog, DailySalesReport)
+        shapes.add(new Shape("sales_daily by product", false,
+                "SELECT product_code, SUM(qty), SUM(revenue_cents) FROM sales_daily WHERE day >= ? AND day < ? GROUP BY product_code",
+                java.sql.Date.valueOf(LocalDate.now().minusDays(7)), java.sql.Date.valueOf(LocalDate.now())));
+        shapes.add(new Shape("DailySalesReport", false,
+                "SELECT s.product_code, COALESCE(p.name, '') AS name, SUM(s.qty) AS qty, SUM(s.revenue_cents) AS revenue "
+                        + "FROM sales_daily s LEFT JOIN product p ON p.code = s.product_code WHERE s.day BETWEEN ? AND ? "
+                        + "GROUP BY s.product_code, p.name ORDER BY revenue DESC, s.product_code",
+                java.sql.Date.valueOf(LocalDate.now().minusDays(7)), java.sql.Date.valueOf(LocalDate.now())));
+
+        // Imports (ImportService)
+        shapes.add(new Shape("import_progress", true,
+                "SELECT fingerprint, records, imported, failed, error_bytes, finished FROM import_progress WHERE import_key = ?",
+                "PRODUCTS:/tmp/products.csv"));
+
+        // Reports
+        shapes.add(new Shape("ReorderReport", false,
+                "SELECT product_code, COALESCE(SUM(quantity),0) AS qty FROM batch WHERE location = 'SHELF' "
+                        + "GROUP BY product_code HAVING qty < ? ORDER BY qty ASC", 50));
+        shapes.add(new Shape("ReportCatalog movements", false,
+                "SELECT product_code, CONCAT(COALESCE(from_location,'-'), '->', COALESCE(to_location,'-')), SUM(quantity), COUNT(*) "
+                        + "FROM inventory_movement WHERE happened_at >= ? AND happened_at < ? GROUP BY 1, 2",
+                dayStart, dayEnd));
+        return shapes;
+    }
+
+    private static boolean check(Connection con, List<Shape> shapes) throws SQLException {
+        boolean ok = true;
+        System.out.printf("%-40s %-5s %-8s %-22s %-9s %s%n", "QUERY", "HOT", "TYPE", "KEY", "ROWS", "EXTRA");
+        for (Shape shape : shapes) {
+            for (Plan p : explain(con, shape)) {
+                boolean bad = p.fullScan() || p.filesort();
+                String verdict = !bad ? "" : shape.hot() ? "  <-- FAIL" : "  (report)";
+                if (bad && shape.hot()) ok = false;
+                System.out.printf("%-40s %-5s %-8s %-22s %-9s %s%s%n", shape.name(), shape.hot() ? "yes" : "no",
+                        p.type(), p.key(), p.rows(), p.extra() == null ? "" : p.extra(), verdict);
+            }
+        }
+        System.out.println(ok ? "All hot queries use an index without filesort." : "Query plan regressions found.");
+        return ok;
+    }
+
+    private static List<Plan> explain(Connection con, Shape shape) throws SQLException {
+        List<Plan> plans = new ArrayList<>();
+        try (var ps = con.prepareStatement("EXPLAIN " + shape.sql())) {
+            for (int i = 0; i < shape.params().length; i++) ps.setObject(i + 1, shape.params()[i]);
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    plans.add(new Plan(rs.getString("table"), rs.getString("type"), rs.getString("key"),
+                            rs.getString("rows"), rs.getString("Extra")));
+                }
+            }
+        }
+        return plans;
+    }
+
+    private static void seed(Connection con, int products, int batches, int bills, int movements) throws SQLException {
+        long start = System.nanoTime();
+        Random rnd = new Random(42);
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        boolean old = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try {
+            long firstBill = 1 + maxBillId(con);
+            insertRows(con, "INSERT INTO product(code, name, price_cents) VALUES ", products,
+                    (i, sb) -> sb.append("('").append(code(i)).append("','Product ").append(i).append("',")
+                            .append(100 + rnd.nextInt(10_000)).append(')'));
+            insertRows(con, "INSERT INTO batch(product_code, location, received_at, expiry, quantity, version) VALUES ", batches,
+                    (i, sb) -> sb.append("('").append(code(i % products)).append("','")
+                            .append(LOCATIONS[(i / products) % LOCATIONS.length]).append("','")
+                            .append(Timestamp.valueOf(now.minusSeconds(i * 61L))).append("',")
+                            .append(rnd.nextInt(8) == 0 ? "NULL" : "'" + LocalDate.now().plusDays(rnd.nextInt(365)) + "'")
+                            .append(',').append(rnd.nextInt(5) == 0 ? 0 : 1 + rnd.nextInt(200)).append(",0)"));
+            insertRows(con, "INSERT INTO bill(serial, date_time, subtotal_cents, discount_cents, total_cents, cash_cents, change_cents, request_id) VALUES ", bills,
+                    (i, sb) -> sb.append("('Q-").append(i).append("','")
+                            .append(Timestamp.valueOf(now.minusSeconds(i * 300L))).append("',1000,0,1000,1000,0,'req-").append(i).append("')"));
+            insertRows(con, "INSERT INTO bill_line(bill_id, product_code, name, qty, unit_price_cents, line_total_cents) VALUES ", bills * 3,
+                    (i, sb) -> sb.append('(').append(firstBill + i / 3).append(",'").append(code(rnd.nextInt(products)))
+                            .append("','Product',1,1000,1000)"));
+            insertRows(con, "INSERT INTO inventory_movement(happened_at, product_code, from_location, to_location, quantity, note) VALUES ", movements,
+                    (i, sb) -> sb.append("('").append(Timestamp.valueOf(now.minusSeconds(i * 150L))).append("','")
+                            .append(code(i % products)).append("','MAIN_STORE','SHELF',").append(1 + rnd.nextInt(20))
+                            .append(",'plan-check')"));
+            insertRows(con, "INSERT INTO sales_daily(day, product_code, qty, revenue_cents) VALUES ", bills,
+                    (i, sb) -> sb.append("('").append(LocalDate.now().minusDays(i / products)).append("','")
+                            .append(code(i % products)).append("',").append(1 + rnd.nextInt(50)).append(",1000)"));
+            insertRows(con, "INSERT INTO stock_snapshot(taken_at, product_code, location, quantity) VALUES ", products * SNAPSHOTS,
+                    (i, sb) -> sb.append("('").append(snapshotAt(i / products)).append("','").append(code(i % products))
+                            .append("','SHELF',").append(1 + rnd.nextInt(200)).append(')'));
+        } finally {
+            con.setAutoCommit(old);
+        }
+        try (var st = con.createStatement()) {
+            st.execute("ANALYZE TABLE product, batch, bill, bill_line, inventory_movement, sales_daily, stock_snapshot");
+        }
+        System.out.printf("Seeded %,d products, %,d batches, %,d bills, %,d movements in %.1f s%n",
+                products, batches, bills, movements, (System.nanoTime() - start) / 1e9);
+    }
+
+    /** Time of the n-th seeded snapshot, one per week going back. */
+    private static Timestamp snapshotAt(int n) {
+        return Timestamp.valueOf(LocalDate.now().minusWeeks(n).atStartOfDay());
+    }
+
+    private static long maxBillId(Connection con) throws SQLException {
+        try (var st = con.createStatement(); var rs = st.executeQuery("SELECT COALESCE(MAX(id),0) FROM bill")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private interface RowWriter {
+        void write(int row, StringBuilder sb);
+    }
+
+    private static void insertRows(Connection con, String insert, int rows, RowWriter writer) throws SQLException {
+        StringBuilder sql = new StringBuilder();
+        for (int done = 0; done < rows; done += 1000) {
+            sql.setLength(0);
+            sql.append(insert);
+            for (int i = done; i < Math.min(rows, done + 1000); i++) {
+                if (i > done) sql.append(',');
+                writer.write(i, sql);
+            }
+            try (var st = con.createStatement()) {
+                st.executeUpdate(sql.toString());
+            }
+            con.commit();
+        }
+    }
+
+    private static String code(int i) {
+        return String.format("QP%06d", i);
+    }
+}
@@ -0,0 +1,147 @@
+package main.java.cli.demo;
+
+import main.java.config.Db;
+import main.java.domain.inventory.Batch;
+import main.java.domain.inventory.StockLocation;
+import main.java.domain.shared.Code;
+import main.java.domain.shared.Quantity;
+import main.java.infrastructure.persistence.BatchRowMapper;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the old name-based batch row mapping with {@link BatchRowMapper} on full reads of a
+ * scratch batch table (batch_bench, dropped afterwards). Reports time and bytes allocated by the
+ * reading thread per row; the driver's own allocations are included in both columns.
+ * Usage: RowMapperBenchmark [rows] [rounds]   (defaults: 100,000 rows, 10 rounds)
+ */
+public final class RowMapperBenchmark {
+
+    private static final String SQL = "SELECT " + BatchRowMapper.COLUMNS + " FROM batch_bench";
+    private static final String[] LOCATIONS = {"MAIN_STORE", "SHELF", "WEB"};
+    private static final int PRODUCTS = 2_000;
+
+    @FunctionalInterface
+    private interface Mapper {
+        Batch map(ResultSet rs) throws SQLException;
+    }
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        try (var db = new Db()) {
+            run(db.getDataSource(), rows, rounds);
+        }
+    }
+
+    public static void run(DataSource ds, int rows, int rounds) {
+        System.out.println("\n=== BATCH ROW MAPPER BENCHMARK ===");
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        try (Connection con = ds.getConnection()) {
+            try {
+                seed(con, rows);
+                // Warm up both paths (JIT, driver caches, buffer pool)
+                for (int i = 0; i < 3; i++) {
+                    read(con, RowMapperBenchmark::legacy);
+                    read(con, BatchRowMapper::map);
+                }
+                long[] legacy = new long[2];
+                long[] mapper = new long[2];
+                for (int i = 0; i < rounds; i++) {
+                    measure(threads, con, RowMapperBenchmark::legacy, legacy);
+                    measure(threads, con, BatchRowMapper::map, mapper);
+                }
+                long total = (long) rows * rounds;
+                report("name-based (old)", legacy, total);
+                report("BatchRowMapper  ", mapper, total);
+            } finally {
+                try (var st = con.createStatement()) {
+                    st.execute("DROP TABLE IF EXISTS batch_bench");
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Benchmark failed", e);
+        }
+        System.out.println("=== BENCHMARK COMPLETE ===\n");
+    }
+
+    /** The mapping JdbcInventoryRepository used before BatchRowMapper. */
+    private static Batch legacy(ResultSet rs) throws SQLException {
+        return new Batch(
+                rs.getLong("id"),
+                new Code(rs.getString("product_code")),
+                StockLocation.valueOf(rs.getString("location")),
+                rs.getTimestamp("received_at").toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime(),
+                rs.getDate("expiry") == null ? null : rs.getDate("expiry").toLocalDate(),
+                new Quantity(rs.getInt("quantity")));
+    }
+
+    private static void measure(com.sun.management.ThreadMXBean threads, Connection con, Mapper mapper, long[] acc)
+            throws SQLException {
+        long tid = Thread.currentThread().getId();
+        long bytes = threads.getThreadAllocatedBytes(tid);
+        long start = System.nanoTime();
+        read(con, mapper);
+        acc[0] += System.nanoTime() - start;
+        acc[1] += threads.getThreadAllocatedBytes(tid) - bytes;
+    }
+
+    private static List<Batch> read(Connection con, Mapper mapper) throws SQLException {
+        try (var ps = con.prepareStatement(SQL); var rs = ps.executeQuery()) {
+            List<Batch> out = new ArrayList<>();
+            while (rs.next()) {
+                out.add(mapper.map(rs));
+            }
+            return out;
+        }
+    }
+
+    private static void seed(Connection con, int rows) throws SQLException {
+        try (var st = con.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS batch_bench");
+            st.execute("CREATE TABLE batch_bench LIKE batch");
+        }
+        Random rnd = new Random(42);
+        LocalDateTime base = LocalDateTime.now().withNano(0).minusYears(1);
+        boolean old = con.getAutoCommit();
+        con.setAutoCommit(false);
+        StringBuilder sql = new StringBuilder();
+        for (int done = 0; done < rows; done += 1000) {
+            int n = Math.min(1000, rows - done);
+            sql.setLength(0);
+            sql.append("INSERT INTO batch_bench(product_code, location, received_at, expiry, quantity, version) VALUES ");
+            for (int i = 0; i < n; i++) {
+                int row = done + i;
+                LocalDateTime received = base.plusSeconds(row * 31L);
+                if (i > 0) sql.append(',');
+                sql.append("('MAP").append(row % PRODUCTS).append("','")
+                        .append(LOCATIONS[(row / PRODUCTS) % LOCATIONS.length]).append("','")
+                        .append(Timestamp.valueOf(received)).append("',")
+                        .append(rnd.nextInt(10) == 0 ? "NULL" : "'" + LocalDate.from(received).plusDays(30 + rnd.nextInt(400)) + "'")
+                        .append(',').append(rnd.nextInt(300)).append(",0)");
+            }
+            try (var st = con.createStatement()) {
+                st.executeUpdate(sql.toString());
+            }
+            con.commit();
+        }
+        con.setAutoCommit(old);
+        System.out.printf("Seeded %,d rows%n", rows);
+    }
+
+    private static void report(String label, long[] acc, long rows) {
+        System.out.printf("%s: %.1f ns/row, %.0f bytes/row allocated%n",
+                label, (double) acc[0] / rows, (double) acc[1] / rows);
+    }
+}
@@ -0,0 +1,173 @@
+package main.java.cli.demo;
+
+import main.java.application.services.StockHistoryService;
+import main.java.config.Db;
+import main.java.config.StartupTimer;
+import main.java.domain.inventory.Movement;
+import main.java.domain.inventory.StockLocation;
+import main.java.infrastructure.concurrency.Tx;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Times {@link StockHistoryService#series} for a 30-day hourly series of every product, on a
+ * scratch schema filled with a simulated month: a morning transfer MAIN_STORE -> SHELF and a day
+ * of sales per product, plus the daily snapshots the background job would have written. Every
+ * point of the series is checked against the simulation. Target: under one second.
+ * Usage: StockHistoryBenchmark [products] [sales per product per day]   (default: 1,000 products, 8 sales)
+ */
+public final class StockHistoryBenchmark {
+
+    private static final String SCHEMA = "syos_stockbench";
+    private static final int DAYS = 30;
+    private static final int RUNS = 5;
+    private static final int ROWS_PER_INSERT = 1_000;
+
+    public static void main(String[] args) {
+        int products = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int sales = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        try (var db = new Db(new StartupTimer(), SCHEMA)) {
+            run(db, products, sales);
+        }
+    }
+
+    public static void run(Db db, int products, int salesPerDay) {
+        System.out.println("\n=== STOCK HISTORY BENCHMARK (" + SCHEMA + ") ===");
+        LocalDateTime start = LocalDate.now().minusDays(DAYS + 1).atStartOfDay();
+        List<String> codes = new ArrayList<>(products);
+        for (int p = 0; p < products; p++) codes.add(String.format("SB%05d", p));
+        int hours = DAYS * 24;
+        // expected[product][location][hour]: stock at start + hour, as simulated
+        int[][][] expected = new int[products][StockLocation.values().length][hours + 1];
+
+        try (Connection con = db.getConnection()) {
+            try {
+                long movements = fill(con, codes, start, salesPerDay, expected);
+                System.out.printf("%,d products, %,d movements over %d days%n", products, movements, DAYS);
+
+                var service = new StockHistoryService(new Tx(db.getDataSource()));
+                // Start off a snapshot boundary so the first point needs a replay too
+                LocalDateTime from = start.plusHours(7), to = from.plusHours(hours - 7);
+                long best = Long.MAX_VALUE;
+                StockHistoryService.Series series = null;
+                for (int run = 0; run < RUNS; run++) {
+                    long t0 = System.nanoTime();
+                    series = service.series(codes, from, to, Duration.ofHours(1));
+                    best = Math.min(best, System.nanoTime() - t0);
+                }
+                int wrong = 0;
+                for (int p = 0; p < products; p++) {
+                    for (StockLocation loc : StockLocation.values()) {
+                        for (int point = 0; point < series.points(); point++) {
+                            if (series.at(codes.get(p), loc, point) != expected[p][loc.ordinal()][point + 7]) wrong++;
+                        }
+                    }
+                }
+                System.out.printf("%d-point hourly series for %,d products: best of %d runs %d ms (target < 1000 ms) %s%n",
+                        series.points(), products, RUNS, best / 1_000_000, best < 1_000_000_000L ? "PASS" : "SLOW");
+                System.out.println(wrong == 0 ? "All points match the simulation." : wrong + " points differ from the simulation!");
+            } finally {
+                try (var st = con.createStatement()) {
+                    st.execute("DROP DATABASE IF EXISTS " + SCHEMA);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Stock history benchmark failed", e);
+        }
+        System.out.println("=== DONE ===\n");
+    }
+
+    /** Writes the simulated movements and daily snapshots, recording the hourly levels in {@code expected}. */
+    private static long fill(Connection con, List<String> codes, LocalDateTime start, int salesPerDay, int[][][] expected) throws SQLException {
+        var rnd = new Random(42);
+        int main = StockLocation.MAIN_STORE.ordinal(), shelf = StockLocation.SHELF.ordinal();
+        var movementRows = new Rows(con, "INSERT INTO inventory_movement(happened_at, product_code, from_location, to_location, quantity, note) VALUES ", 6);
+        var snapshotRows = new Rows(con, "INSERT INTO stock_snapshot(taken_at, product_code, location, quantity) VALUES ", 4);
+        long count = 0;
+        for (int p = 0; p < codes.size(); p++) {
+            String code = codes.get(p);
+            int[] level = {5_000, 0, 0};
+            int[][] byHour = new int[level.length][DAYS * 24 + 1];
+            for (int day = 0; day < DAYS; day++) {
+                LocalDateTime midnight = start.plusDays(day);
+                for (int l = 0; l < level.length; l++) {
+                    if (level[l] != 0) snapshotRows.add(Timestamp.valueOf(midnight), code, StockLocation.values()[l].name(), level[l]);
+                }
+                // Morning refill, then sales through the day in time order
+                int refill = 40 + rnd.nextInt(40);
+                long[] times = new long[salesPerDay + 1];
+                times[0] = 7 * 3600 + rnd.nextInt(3600);
+                for (int s = 1; s <= salesPerDay; s++) times[s] = 8 * 3600 + rnd.nextInt(12 * 3600);
+                Arrays.sort(times, 1, times.length);
+                for (int s = 0; s < times.length; s++) {
+                    LocalDateTime at = midnight.plusSeconds(times[s]);
+                    int hour = day * 24 + (int) ((times[s] + 3599) / 3600); // first whole hour that sees it
+                    if (s == 0) {
+                        movementRows.add(Timestamp.valueOf(at), code, "MAIN_STORE", "SHELF", refill, "Stock transfer");
+                        level[main] -= refill; level[shelf] += refill;
+                        byHour[main][hour] -= refill; byHour[shelf][hour] += refill;
+                    } else {
+                        int qty = Math.min(level[shelf], 1 + rnd.nextInt(5));
+                        if (qty == 0) continue;
+                        movementRows.add(Timestamp.valueOf(at), code, "SHELF", Movement.CUSTOMER, qty, "Sale");
+                        level[shelf] -= qty;
+                        byHour[shelf][hour] -= qty;
+                    }
+                    count++;
+                }
+            }
+            int[] opening = {5_000, 0, 0};
+            for (int l = 0; l < level.length; l++) {
+                int running = opening[l];
+                for (int h = 0; h < byHour[l].length; h++) {
+                    running += byHour[l][h];
+                    expected[p][l][h] = running;
+                }
+            }
+        }
+        movementRows.flush();
+        snapshotRows.flush();
+        try (var st = con.createStatement()) {
+            st.execute("ANALYZE TABLE inventory_movement, stock_snapshot");
+        }
+        return count;
+    }
+
+    /** Multi-row INSERT of up to {@value #ROWS_PER_INSERT} rows at a time. */
+    private static final class Rows {
+        private final Connection con;
+        private final String insert;
+        private final int columns;
+        private final List<Object> values = new ArrayList<>();
+
+        Rows(Connection con, String insert, int columns) {
+            this.con = con; this.insert = insert; this.columns = columns;
+        }
+
+        void add(Object... row) throws SQLException {
+            values.addAll(Arrays.asList(row));
+            if (values.size() == ROWS_PER_INSERT * columns) flush();
+        }
+
+        void flush() throws SQLException {
+            if (values.isEmpty()) return;
+            String row = "(" + "?,".repeat(columns - 1) + "?)";
+            var sql = new StringBuilder(insert).append(row);
+            for (int r = 1; r < values.size() / columns; r++) sql.append(',').append(row);
+            try (var ps = con.prepareStatement(sql.toString())) {
+                for (int i = 0; i < values.size(); i++) ps.setObject(i + 1, values.get(i));
+                ps.executeUpdate();
+            }
+            values.clear();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package main.java.cli.demo;
+
+import main.java.domain.inventory.StockLocation;
+import main.java.infrastructure.persistence.StockTable;
+
+/**
+ * Measures heap used by a {@link StockTable} holding every location of a synthetic catalogue,
+ * and the throughput of its lock-free reads. No database needed.
+ * Usage: StockTableFootprint [products]   (default: 500,000)
+ */
+public final class StockTableFootprint {
+
+    public static void main(String[] args) {
+        int products = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        run(products);
+    }
+
+    public static void run(int products) {
+        System.out.println("\n=== STOCK TABLE FOOTPRINT ===");
+        StockLocation[] locations = StockLocation.values();
+        String[] codes = new String[products];
+        for (int i = 0; i < products; i++) codes[i] = String.format("SKU%07d", i);
+
+        long before = usedHeap();
+        StockTable table = new StockTable();
+        for (int i = 0; i < products; i++) {
+            for (StockLocation loc : locations) table.set(codes[i], loc, i % 500);
+        }
+        long bytes = usedHeap() - before;
+        int cells = products * locations.length;
+        System.out.printf("%,d products x %d locations: %,d KB, %.1f bytes per (product, location)%n",
+                products, locations.length, bytes / 1024, (double) bytes / cells);
+        System.out.println("(key strings are counted by the caller's catalogue, not the table)");
+
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < products; i++) sink += table.quantity(codes[i], StockLocation.SHELF);
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.printf("quantity(): %.1f ns/lookup (checksum %d)%n", (double) nanos / (5L * products), sink);
+        System.out.println("=== DONE ===\n");
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
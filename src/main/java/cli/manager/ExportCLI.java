@@ -0,0 +1,62 @@
+package main.java.cli.manager;
+
+import main.java.application.services.ExportService;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Scanner;
+
+/** Export bills, bill lines, batches or movements to CSV. */
+public final class ExportCLI {
+    private final ExportService exports;
+
+    public ExportCLI(ExportService exports) { this.exports = exports; }
+
+    public void run() {
+        var sc = new Scanner(System.in);
+        var datasets = ExportService.Dataset.values();
+        System.out.println("\n-- Export --");
+        for (int i = 0; i < datasets.length; i++) System.out.println((i + 1) + ") " + datasets[i]);
+        System.out.print("Dataset: ");
+        int choice;
+        try {
+            choice = Integer.parseInt(sc.nextLine().trim());
+        } catch (NumberFormatException e) {
+            System.out.println("?");
+            return;
+        }
+        if (choice < 1 || choice > datasets.length) { System.out.println("?"); return; }
+
+        LocalDate from, to;
+        try {
+            from = optionalDate(sc, "From date (YYYY-MM-DD, blank = no limit): ");
+            to = optionalDate(sc, "To date (YYYY-MM-DD, blank = no limit): ");
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date: " + e.getParsedString());
+            return;
+        }
+        System.out.print("Product code (blank = all): ");
+        String product = sc.nextLine().trim();
+        System.out.print("Output file (ends with .gz to compress): ");
+        String file = sc.nextLine().trim();
+        if (file.isEmpty()) { System.out.println("Cancelled."); return; }
+
+        var spec = new ExportService.Spec(datasets[choice - 1], from, to, product.isEmpty() ? null : product,
+                Path.of(file), file.endsWith(".gz"));
+        long start = System.nanoTime();
+        try {
+            var result = exports.export(spec);
+            System.out.printf("%s%,d rows, %,d bytes written to %s in %d ms%n", result.resumed() ? "Resumed: " : "",
+                    result.rows(), result.bytes(), file, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    private static LocalDate optionalDate(Scanner sc, String prompt) {
+        System.out.print(prompt);
+        String s = sc.nextLine().trim();
+        return s.isEmpty() ? null : LocalDate.parse(s);
+    }
+}
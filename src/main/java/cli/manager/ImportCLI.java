@@ -0,0 +1,52 @@
+package main.java.cli.manager;
+
+import main.java.application.services.ImportService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+
+/** Import categories, products or opening stock from CSV. */
+public final class ImportCLI {
+    private final ImportService imports;
+
+    public ImportCLI(ImportService imports) { this.imports = imports; }
+
+    public void run() {
+        var sc = new Scanner(System.in);
+        var datasets = ImportService.Dataset.values();
+        System.out.println("\n-- Import --");
+        for (int i = 0; i < datasets.length; i++) {
+            System.out.println((i + 1) + ") " + datasets[i] + "  [" + datasets[i].header() + "]");
+        }
+        System.out.print("Dataset: ");
+        int choice;
+        try {
+            choice = Integer.parseInt(sc.nextLine().trim());
+        } catch (NumberFormatException e) {
+            System.out.println("?");
+            return;
+        }
+        if (choice < 1 || choice > datasets.length) { System.out.println("?"); return; }
+
+        System.out.print("CSV file (first line is the header above): ");
+        String file = sc.nextLine().trim();
+        if (file.isEmpty()) { System.out.println("Cancelled."); return; }
+        if (!Files.isRegularFile(Path.of(file))) { System.out.println("No such file: " + file); return; }
+
+        long start = System.nanoTime();
+        try {
+            var result = imports.importFile(datasets[choice - 1], Path.of(file));
+            if (result.alreadyDone()) {
+                System.out.printf("Already imported: %,d rows, %,d imported, %,d rejected%n",
+                        result.records(), result.imported(), result.failed());
+            } else {
+                System.out.printf("%s%,d rows, %,d imported, %,d rejected in %d ms%n", result.resumed() ? "Resumed: " : "",
+                        result.records(), result.imported(), result.failed(), (System.nanoTime() - start) / 1_000_000);
+            }
+            if (result.failed() > 0) System.out.println("Rejected rows: " + result.errorReport());
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
@@ -10,6 +10,7 @@ import java.util.Scanner;
 
 public final class ManagerMenu {
     private final DataSource ds;
+    private final Runnable dailySales;
     private final Runnable checkout;
     private final ShortageEventService shortageEvents;
     private final Runnable receiveToMain;
@@ -17,12 +18,18 @@ public final class ManagerMenu {
     private final ProductManagementCLI productManagement;
     private final BatchManagementCLI batchManagement;
     private final CategoryManagementCLI categoryManagement;
+    private final Runnable pickingStrategy;
+    private final Runnable stockHistory;
+    private final Runnable catalogImport;
+    private final Runnable export;
 
-    public ManagerMenu(DataSource ds, Runnable checkout, ShortageEventService shortageEvents,
+    public ManagerMenu(DataSource ds, Runnable dailySales, Runnable checkout, ShortageEventService shortageEvents,
                       Runnable receiveToMain, Runnable transferFromMain,
                       ProductManagementCLI productManagement, BatchManagementCLI batchManagement,
-                      CategoryManagementCLI categoryManagement) {
+                      CategoryManagementCLI categoryManagement, Runnable pickingStrategy, Runnable stockHistory,
+                      Runnable catalogImport, Runnable export) {
         this.ds = ds;
+        this.dailySales = dailySales;
         this.checkout = checkout;
         this.shortageEvents = shortageEvents;
         this.receiveToMain = receiveToMain;
@@ -30,14 +37,18 @@ public final class ManagerMenu {
         this.productManagement = productManagement;
         this.batchManagement = batchManagement;
         this.categoryManagement = categoryManagement;
+        this.pickingStrategy = pickingStrategy;
+        this.stockHistory = stockHistory;
+        this.catalogImport = catalogImport;
+        this.export = export;
     }
 
     public void run() {
         var sc = new Scanner(System.in);
         while (true) {
-            System.out.println("\n[MANAGER] 1) Daily Sales  2) Checkout  3) Reorder <50  4) New Batch to MAIN  5) Transfer Batch MAIN->SHELF/WEB  6) Product Management  7) Batch Management  8) Category Management  0) Logout");
+            System.out.println("\n[MANAGER] 1) Daily Sales  2) Checkout  3) Reorder <50  4) New Batch to MAIN  5) Transfer Batch MAIN->SHELF/WEB  6) Product Management  7) Batch Management  8) Category Management  9) Picking Strategy  R) Reports  E) Export  H) Stock History  I) Import  0) Logout");
             switch (sc.nextLine().trim()) {
-//                case "1" -> new DailySalesReport(ds).run();
+                case "1" -> dailySales.run();
                 case "2" -> checkout.run();
                 case "3" -> new ReorderReport(ds, 50).run();
 //                case "4" -> showShortages(sc);
@@ -45,6 +56,11 @@ public final class ManagerMenu {
                 case "6" -> productManagement.run();
                 case "7" -> batchManagement.run();
                 case "8" -> categoryManagement.run();
+                case "9" -> pickingStrategy.run();
+                case "R", "r" -> new ReportsCLI(ds).run();
+                case "E", "e" -> export.run();
+                case "H", "h" -> stockHistory.run();
+                case "I", "i" -> catalogImport.run();
                 case "0" -> { return; }
                 default -> System.out.println("?");
             }
@@ -0,0 +1,79 @@
+package main.java.cli.manager;
+
+import main.java.domain.inventory.StockLocation;
+import main.java.domain.policies.BatchSelectionStrategy;
+import main.java.domain.policies.RoutingBatchStrategy;
+
+import java.util.Map;
+import java.util.Scanner;
+
+/** Lets a manager switch between FEFO and FIFO picking per location or category at runtime. */
+public final class PickingStrategyCLI {
+    private final RoutingBatchStrategy routing;
+    private final Map<String, BatchSelectionStrategy> available; // e.g. FEFO -> FefoStrategy
+
+    public PickingStrategyCLI(RoutingBatchStrategy routing, Map<String, BatchSelectionStrategy> available) {
+        this.routing = routing;
+        this.available = available;
+    }
+
+    public void run() {
+        var sc = new Scanner(System.in);
+        while (true) {
+            showCurrent();
+            System.out.println("1) Set default  2) Set for location  3) Set for category  0) Back");
+            switch (sc.nextLine().trim()) {
+                case "1" -> {
+                    String name = readName(sc, false);
+                    if (available.containsKey(name)) routing.setDefault(available.get(name));
+                    else System.out.println("Unknown strategy: " + name);
+                }
+                case "2" -> {
+                    System.out.print("Location (MAIN_STORE/SHELF/WEB): ");
+                    StockLocation loc;
+                    try {
+                        loc = StockLocation.valueOf(sc.nextLine().trim().toUpperCase());
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Invalid location.");
+                        continue;
+                    }
+                    String name = readName(sc, true);
+                    if ("CLEAR".equals(name)) routing.setForLocation(loc, null);
+                    else if (available.containsKey(name)) routing.setForLocation(loc, available.get(name));
+                    else System.out.println("Unknown strategy: " + name);
+                }
+                case "3" -> {
+                    System.out.print("Category code: ");
+                    String category = sc.nextLine().trim();
+                    if (category.isEmpty()) continue;
+                    String name = readName(sc, true);
+                    if ("CLEAR".equals(name)) routing.setForCategory(category, null);
+                    else if (available.containsKey(name)) routing.setForCategory(category, available.get(name));
+                    else System.out.println("Unknown strategy: " + name);
+                }
+                case "0" -> { return; }
+                default -> System.out.println("?");
+            }
+        }
+    }
+
+    private void showCurrent() {
+        System.out.println("\n-- Picking Strategy --");
+        System.out.println("Default : " + nameOf(routing.defaultStrategy()));
+        routing.locationOverrides().forEach((loc, s) -> System.out.println("Location " + loc + " : " + nameOf(s)));
+        routing.categoryOverrides().forEach((cat, s) -> System.out.println("Category " + cat + " : " + nameOf(s)));
+    }
+
+    private String readName(Scanner sc, boolean allowClear) {
+        System.out.print("Strategy " + available.keySet() + (allowClear ? " or 'clear'" : "") + ": ");
+        return sc.nextLine().trim().toUpperCase();
+    }
+
+    private String nameOf(BatchSelectionStrategy s) {
+        return available.entrySet().stream()
+                .filter(e -> e.getValue() == s)
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElse(s.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,74 @@
+package main.java.cli.manager;
+
+import main.java.application.reports.PartitionedReport;
+import main.java.application.reports.ReportCatalog;
+import main.java.application.reports.ReportExecutor;
+
+import javax.sql.DataSource;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+/** End-of-day reports: pick one or all, a date range and where to write them. */
+public final class ReportsCLI {
+    private static final int PARALLELISM = 4;
+    private static final int PARTITION_DAYS = 7;
+
+    private final DataSource ds;
+    private final Map<String, PartitionedReport<?>> catalog = ReportCatalog.standard(50);
+
+    public ReportsCLI(DataSource ds) { this.ds = ds; }
+
+    public void run() {
+        var sc = new Scanner(System.in);
+        System.out.println("\n-- Reports --");
+        catalog.forEach((k, r) -> System.out.println(k + ") " + r.title()));
+        System.out.print("Report (A = all): ");
+        String choice = sc.nextLine().trim();
+        List<PartitionedReport<?>> selected = new ArrayList<>();
+        if ("A".equalsIgnoreCase(choice)) selected.addAll(catalog.values());
+        else if (catalog.containsKey(choice)) selected.add(catalog.get(choice));
+        else { System.out.println("?"); return; }
+
+        LocalDate from, to;
+        try {
+            System.out.print("From date (YYYY-MM-DD, blank = 7 days ago): ");
+            String f = sc.nextLine().trim();
+            from = f.isEmpty() ? LocalDate.now().minusDays(7) : LocalDate.parse(f);
+            System.out.print("To date (YYYY-MM-DD, blank = today): ");
+            String t = sc.nextLine().trim();
+            to = t.isEmpty() ? LocalDate.now() : LocalDate.parse(t);
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date: " + e.getParsedString());
+            return;
+        }
+        if (to.isBefore(from)) { LocalDate t = from; from = to; to = t; }
+
+        System.out.print("Output file (blank = console): ");
+        String file = sc.nextLine().trim();
+        long start = System.nanoTime();
+        try (var executor = new ReportExecutor(ds, PARALLELISM, PARTITION_DAYS)) {
+            if (file.isEmpty()) {
+                executor.runAll(selected, from, to, System.out);
+            } else {
+                try (var out = new PrintStream(new FileOutputStream(file), false, "UTF-8")) {
+                    executor.runAll(selected, from, to, out);
+                }
+                System.out.println("Written to " + file);
+            }
+        } catch (FileNotFoundException | java.io.UnsupportedEncodingException e) {
+            System.out.println("Cannot write " + file + ": " + e.getMessage());
+            return;
+        } catch (RuntimeException e) {
+            System.out.println("Report failed: " + e.getMessage());
+            return;
+        }
+        System.out.printf("(%d report(s) in %d ms)%n", selected.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,97 @@
+package main.java.cli.manager;
+
+import main.java.application.services.StockHistoryService;
+import main.java.domain.inventory.Movement;
+import main.java.domain.inventory.StockLocation;
+import main.java.domain.repository.MovementRepository;
+import main.java.infrastructure.concurrency.Tx;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+/** One product's stock movements over a date range, or its stock at a past point in time. */
+public final class StockHistoryCLI {
+    private static final DateTimeFormatter WHEN = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final Tx tx;
+    private final MovementRepository movements;
+    private final StockHistoryService history;
+
+    public StockHistoryCLI(Tx tx, MovementRepository movements, StockHistoryService history) {
+        this.tx = tx;
+        this.movements = movements;
+        this.history = history;
+    }
+
+    public void run() {
+        var sc = new Scanner(System.in);
+        System.out.println("\n-- Stock History --");
+        System.out.print("Product code: ");
+        String code = sc.nextLine().trim().toUpperCase();
+        if (code.isEmpty()) return;
+        System.out.print("1) Movements  2) Stock at a point in time: ");
+        String choice = sc.nextLine().trim();
+        if ("2".equals(choice)) { stockAt(sc, code); return; }
+        if (!"1".equals(choice)) { System.out.println("?"); return; }
+
+        LocalDate from, to;
+        try {
+            System.out.print("From date (YYYY-MM-DD, blank = 30 days ago): ");
+            String f = sc.nextLine().trim();
+            from = f.isEmpty() ? LocalDate.now().minusDays(30) : LocalDate.parse(f);
+            System.out.print("To date (YYYY-MM-DD, blank = today): ");
+            String t = sc.nextLine().trim();
+            to = t.isEmpty() ? LocalDate.now() : LocalDate.parse(t);
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date: " + e.getParsedString());
+            return;
+        }
+        LocalDate start = from, end = to;
+        List<Movement> ledger;
+        try {
+            ledger = tx.inTx(con -> movements.history(con, code, start.atStartOfDay(), end.plusDays(1).atStartOfDay()));
+        } catch (RuntimeException e) {
+            System.out.println("Failed to read stock history: " + e.getMessage());
+            return;
+        }
+        if (ledger.isEmpty()) {
+            System.out.println("No movements of " + code + " between " + from + " and " + to + ".");
+            return;
+        }
+
+        Map<StockLocation, Integer> net = new EnumMap<>(StockLocation.class);
+        System.out.printf("%-19s %-11s %-11s %8s  %s%n", "When", "From", "To", "Qty", "Note");
+        for (Movement m : ledger) {
+            System.out.printf("%-19s %-11s %-11s %8d  %s%n", m.happenedAt().withNano(0), m.from(), m.to(), m.quantity(),
+                    m.note() == null ? "" : m.note());
+            for (StockLocation loc : StockLocation.values()) net.merge(loc, m.delta(loc), Integer::sum);
+        }
+        System.out.print("Net change:");
+        net.forEach((loc, d) -> System.out.printf("  %s %+d", loc, d));
+        System.out.println();
+    }
+
+    private void stockAt(Scanner sc, String code) {
+        System.out.print("When (YYYY-MM-DD HH:MM): ");
+        LocalDateTime at;
+        try {
+            at = LocalDateTime.parse(sc.nextLine().trim(), WHEN);
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date/time: " + e.getParsedString());
+            return;
+        }
+        try {
+            var stock = history.stockAt(code, at);
+            System.out.println(code + " at " + at.format(WHEN) + ":");
+            stock.forEach((loc, q) -> System.out.printf("  %-11s %8d%n", loc, q));
+        } catch (RuntimeException e) {
+            System.out.println("Failed to rebuild stock: " + e.getMessage());
+        }
+    }
+}
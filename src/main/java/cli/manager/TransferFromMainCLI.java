@@ -184,7 +184,7 @@ public final class TransferFromMainCLI {
         System.out.println("\n=== Batch Details for " + productCode + " at " + location.name() + " ===");
 
         List<Batch> batches = tx.inTx(con ->
-            inventoryRepository.findDeductionCandidates(con, new Code(productCode), location)
+            inventoryRepository.findDeductionCandidates(con, Code.of(productCode), location)
         );
 
         if (batches.isEmpty()) {
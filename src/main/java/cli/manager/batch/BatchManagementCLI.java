@@ -7,12 +7,14 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.Scanner;
+import java.util.function.Consumer;
 
 public final class BatchManagementCLI {
 
     private final BatchManagementUseCase batchUseCase;
     private final Scanner scanner;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int PAGE_SIZE = 50;
 
     public BatchManagementCLI(BatchManagementUseCase batchUseCase) {
         this.batchUseCase = batchUseCase;
@@ -198,32 +200,28 @@ public final class BatchManagementCLI {
         System.out.println("-".repeat(100));
 
         try {
-            System.out.println("Loading all batches...");
-            var batches = batchUseCase.listAllBatches();
-
-            if (batches.isEmpty()) {
+            System.out.printf("%-8s %-15s %-12s %-20s %-12s %-10s%n",
+                "ID", "PRODUCT", "LOCATION", "RECEIVED", "EXPIRY", "QUANTITY");
+            System.out.println("-".repeat(100));
+
+            long[] totals = pageThrough(null, batch ->
+                System.out.printf("%-8d %-15s %-12s %-20s %-12s %-10d%n",
+                    batch.id(),
+                    truncate(batch.productCode(), 15),
+                    batch.location(),
+                    batch.receivedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")),
+                    batch.expiry() != null ? batch.expiry().format(DATE_FORMATTER) : "No expiry",
+                    batch.quantity()));
+
+            if (totals[0] == 0) {
                 System.out.println("No batches found in the system.");
                 System.out.println("This could mean:");
                 System.out.println("- The database is empty (no batches have been added yet)");
                 System.out.println("- There might be a database connection issue");
                 System.out.println("- Try adding a new batch first using option 1");
             } else {
-                System.out.printf("%-8s %-15s %-12s %-20s %-12s %-10s%n",
-                    "ID", "PRODUCT", "LOCATION", "RECEIVED", "EXPIRY", "QUANTITY");
                 System.out.println("-".repeat(100));
-
-                for (var batch : batches) {
-                    System.out.printf("%-8d %-15s %-12s %-20s %-12s %-10d%n",
-                        batch.id(),
-                        truncate(batch.productCode(), 15),
-                        batch.location(),
-                        batch.receivedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")),
-                        batch.expiry() != null ? batch.expiry().format(DATE_FORMATTER) : "No expiry",
-                        batch.quantity());
-                }
-
-                System.out.println("-".repeat(100));
-                System.out.println("Total batches: " + batches.size());
+                System.out.println("Batches shown: " + totals[0]);
             }
 
         } catch (Exception e) {
@@ -294,35 +292,29 @@ public final class BatchManagementCLI {
         try {
             StockLocation location = getValidLocation("Enter location (MAIN_STORE/SHELF/WEB): ");
 
-            System.out.println("Searching for batches at " + location + "...");
-            var batches = batchUseCase.listBatchesByLocation(location);
-
-            if (batches.isEmpty()) {
+            System.out.println("\nBatches at location: " + location);
+            System.out.println("-".repeat(85));
+            System.out.printf("%-8s %-15s %-20s %-12s %-10s%n",
+                "ID", "PRODUCT", "RECEIVED", "EXPIRY", "QUANTITY");
+            System.out.println("-".repeat(85));
+
+            long[] totals = pageThrough(location, batch ->
+                System.out.printf("%-8d %-15s %-20s %-12s %-10d%n",
+                    batch.id(),
+                    truncate(batch.productCode(), 15),
+                    batch.receivedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")),
+                    batch.expiry() != null ? batch.expiry().format(DATE_FORMATTER) : "No expiry",
+                    batch.quantity()));
+
+            if (totals[0] == 0) {
                 System.out.println("No batches found at location: " + location);
                 System.out.println("This could mean:");
                 System.out.println("- No batches have been added to this location yet");
                 System.out.println("- All batches at this location have been consumed");
                 System.out.println("- Try adding a new batch first using option 1");
             } else {
-                System.out.println("\nBatches at location: " + location);
-                System.out.println("-".repeat(85));
-                System.out.printf("%-8s %-15s %-20s %-12s %-10s%n",
-                    "ID", "PRODUCT", "RECEIVED", "EXPIRY", "QUANTITY");
-                System.out.println("-".repeat(85));
-
-                int totalQuantity = 0;
-                for (var batch : batches) {
-                    System.out.printf("%-8d %-15s %-20s %-12s %-10d%n",
-                        batch.id(),
-                        truncate(batch.productCode(), 15),
-                        batch.receivedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")),
-                        batch.expiry() != null ? batch.expiry().format(DATE_FORMATTER) : "No expiry",
-                        batch.quantity());
-                    totalQuantity += batch.quantity();
-                }
-
                 System.out.println("-".repeat(85));
-                System.out.println("Total batches: " + batches.size() + " | Total quantity: " + totalQuantity);
+                System.out.println("Batches shown: " + totals[0] + " | Quantity shown: " + totals[1]);
             }
 
         } catch (Exception e) {
@@ -334,6 +326,32 @@ public final class BatchManagementCLI {
         pressEnterToContinue();
     }
 
+    /**
+     * Print batches one keyset page at a time, asking before fetching the next page.
+     * Returns {batches shown, quantity shown}.
+     */
+    private long[] pageThrough(StockLocation location, Consumer<BatchManagementUseCase.BatchInfo> printer) {
+        long shown = 0;
+        long quantity = 0;
+        long afterId = 0;
+        while (true) {
+            var page = batchUseCase.listBatchPage(location, afterId, PAGE_SIZE);
+            for (var batch : page) {
+                printer.accept(batch);
+                quantity += batch.quantity();
+            }
+            shown += page.size();
+            if (page.size() < PAGE_SIZE) {
+                return new long[]{shown, quantity};
+            }
+            afterId = page.get(page.size() - 1).id();
+            System.out.print("-- " + shown + " shown. Enter for more, 'q' to stop: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                return new long[]{shown, quantity};
+            }
+        }
+    }
+
     private void deleteBatch() {
         System.out.println("\nDELETE BATCH");
         System.out.println("-".repeat(40));
@@ -245,7 +245,7 @@ public final class CategoryManagementCLI {
             for (int i = 0; i < categories.size(); i++) {
                 Category cat = categories.get(i);
                 System.out.printf("%d. %s - %s (Next: %s)%n",
-                    i + 1, cat.code(), cat.name(), cat.generateNextProductCode());
+                    i + 1, cat.code(), cat.name(), categoryUseCase.previewProductCode(cat));
             }
 
             System.out.print("Select category number: ");
@@ -287,7 +287,7 @@ public final class CategoryManagementCLI {
         System.out.println("Name: " + category.name());
         System.out.println("Description: " + (category.description() != null ? category.description() : "N/A"));
         System.out.println("Prefix: " + category.prefix());
-        System.out.println("Next Product Code: " + category.generateNextProductCode());
+        System.out.println("Next Product Code: " + categoryUseCase.previewProductCode(category));
         System.out.println("Display Order: " + category.displayOrder());
         System.out.println("Active: " + (category.active() ? "Yes" : "No"));
     }
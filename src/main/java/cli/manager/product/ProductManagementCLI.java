@@ -10,6 +10,8 @@ import java.util.List;
 import java.util.Scanner;
 
 public final class ProductManagementCLI {
+    private static final int SEARCH_RESULTS = 20;
+
     private final ProductManagementUseCase productUseCase;
     private final CategoryManagementUseCase categoryUseCase;
     private final Scanner scanner;
@@ -32,6 +34,7 @@ public final class ProductManagementCLI {
                 case "4" -> viewProduct();
                 case "5" -> viewAllProducts();
                 case "6" -> deleteProduct();
+                case "7" -> searchProducts();
                 case "0" -> { return; }
                 default -> {
                     System.out.println("Invalid option. Please try again.");
@@ -51,6 +54,7 @@ public final class ProductManagementCLI {
         System.out.println("4. View Product Details");
         System.out.println("5. View All Products");
         System.out.println("6. Delete Product");
+        System.out.println("7. Search Products");
         System.out.println("0. Back to Manager Menu");
         System.out.println("=".repeat(50));
         System.out.print("Choose an option: ");
@@ -73,7 +77,7 @@ public final class ProductManagementCLI {
             for (int i = 0; i < categories.size(); i++) {
                 Category cat = categories.get(i);
                 System.out.printf("%d. %s - %s (Next code: %s)%n",
-                    i + 1, cat.code(), cat.name(), cat.generateNextProductCode());
+                    i + 1, cat.code(), cat.name(), categoryUseCase.previewProductCode(cat));
             }
 
             System.out.print("Select category number: ");
@@ -87,7 +91,7 @@ public final class ProductManagementCLI {
 
             Category selectedCategory = categories.get(choice - 1);
             System.out.printf("Selected category: %s - %s%n", selectedCategory.code(), selectedCategory.name());
-            System.out.printf("Product code will be: %s%n", selectedCategory.generateNextProductCode());
+            System.out.printf("Product code will be: %s%n", categoryUseCase.previewProductCode(selectedCategory));
 
             String name = getValidProductName("Enter product name: ");
             BigDecimal price = getValidPrice("Enter product price: ");
@@ -261,6 +265,40 @@ public final class ProductManagementCLI {
         pressEnterToContinue();
     }
 
+    private void searchProducts() {
+        System.out.println("\nSEARCH PRODUCTS");
+        System.out.println("-".repeat(60));
+
+        try {
+            System.out.print("Code or name (typos are tolerated): ");
+            String query = scanner.nextLine().trim();
+            if (query.isEmpty()) {
+                System.out.println("Search text cannot be empty.");
+                pressEnterToContinue();
+                return;
+            }
+
+            var products = productUseCase.searchProducts(query, SEARCH_RESULTS);
+            if (products.isEmpty()) {
+                System.out.println("No products match: " + query);
+            } else {
+                System.out.printf("%-15s %-30s %10s%n", "CODE", "NAME", "PRICE (" + Currency.SYMBOL + ")");
+                System.out.println("-".repeat(60));
+                for (var product : products) {
+                    System.out.printf("%-15s %-30s %10.2f%n",
+                        product.code(),
+                        truncate(product.name(), 30),
+                        product.price());
+                }
+            }
+
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+
+        pressEnterToContinue();
+    }
+
     private void deleteProduct() {
         System.out.println("\nDELETE PRODUCT");
         System.out.println("-".repeat(30));
@@ -0,0 +1,118 @@
+package main.java.config;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Application bootstrap that initializes the database in the background.
+ * <p>
+ * Connection test, schema creation and migrations run on a worker thread while the
+ * caller wires the object graph and shows the login prompt. The {@link DataSource}
+ * returned by {@link #dataSource()} only blocks the first operation that actually needs
+ * a connection. Warmup tasks registered with {@link #afterMigration} run in parallel
+ * once the schema is ready.
+ */
+public final class Bootstrap implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(Bootstrap.class.getName());
+
+    static {
+        LOGGER.setLevel(Level.WARNING);
+    }
+
+    private final StartupTimer timer = new StartupTimer();
+    private final ExecutorService workers;
+    private final CompletableFuture<Db> db;
+    private final List<CompletableFuture<Void>> warmups = new CopyOnWriteArrayList<>();
+    private final DataSource dataSource = new AwaitingDataSource();
+
+    public Bootstrap() {
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(
+                Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())), r -> {
+                    Thread t = new Thread(r, "syos-bootstrap-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.db = CompletableFuture.supplyAsync(() -> new Db(timer), workers);
+    }
+
+    /** Timer shared by all startup phases. */
+    public StartupTimer timer() { return timer; }
+
+    /** DataSource that waits for database initialization on first use. */
+    public DataSource dataSource() { return dataSource; }
+
+    /**
+     * Run a task in the background once migrations have completed.
+     * Failures are logged and do not affect other tasks.
+     */
+    public void afterMigration(String phase, Runnable task) {
+        warmups.add(db.thenRunAsync(() -> timer.time(phase, task), workers)
+                .exceptionally(e -> {
+                    LOGGER.log(Level.WARNING, "Startup task '" + phase + "' failed", e);
+                    return null;
+                }));
+    }
+
+    /** Report the timing breakdown once the database and all warmup tasks are done. */
+    public void reportWhenIdle() {
+        CompletableFuture.allOf(warmups.toArray(CompletableFuture[]::new))
+                .thenCombine(db, (ignored, ready) -> ready)
+                .whenComplete((ready, e) -> timer.report());
+    }
+
+    /** True if database initialization finished with an error. */
+    public boolean failed() {
+        return db.isCompletedExceptionally();
+    }
+
+    private Db awaitDb() throws SQLException {
+        try {
+            return db.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new SQLException("Database initialization failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        db.thenAccept(Db::close);
+    }
+
+    /** DataSource view over the background-initialized {@link Db}. */
+    private final class AwaitingDataSource implements DataSource {
+        @Override public Connection getConnection() throws SQLException {
+            return awaitDb().getDataSource().getConnection();
+        }
+        @Override public Connection getConnection(String u, String p) throws SQLException {
+            return awaitDb().getDataSource().getConnection(u, p);
+        }
+        @Override public PrintWriter getLogWriter() { return null; }
+        @Override public void setLogWriter(PrintWriter out) { /* no-op */ }
+        @Override public void setLoginTimeout(int seconds) { /* no-op */ }
+        @Override public int getLoginTimeout() { return 0; }
+        @Override public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException("getParentLogger not supported");
+        }
+        @Override public <T> T unwrap(Class<T> iface) throws SQLException {
+            if (iface.isAssignableFrom(getClass())) return iface.cast(this);
+            throw new SQLException("Cannot unwrap to " + iface.getName());
+        }
+        @Override public boolean isWrapperFor(Class<?> iface) { return iface.isAssignableFrom(getClass()); }
+    }
+}
@@ -1,20 +1,17 @@
 package main.java.config;
 
 import javax.sql.DataSource;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.sql.*;
 import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 /**
  * Database configuration class that handles connections to the MySQL database
- * using direct JDBC connections and simple classpath-based SQL migrations.
+ * using direct JDBC connections and versioned classpath-based SQL migrations.
  */
 public class Db implements AutoCloseable {
 
@@ -28,7 +25,7 @@ public class Db implements AutoCloseable {
     // Properties file name
     private static final String PROPERTIES_FILE = "application.properties";
 
-    // Classpath locations inside src/main/resources
+    // Classpath locations inside src/main/resources; applied versions are tracked in schema_history
     private static final String[] MIGRATION_SCRIPTS = {
             "main/resources/db/migration/V1__create_users_table.sql",
             "main/resources/db/migration/V2__init_product_and_batch.sql",
@@ -40,6 +37,14 @@ public class Db implements AutoCloseable {
             "main/resources/db/migration/V8__main_store_location.sql",
             "main/resources/db/migration/V9__inventory_movement_log.sql",
             "main/resources/db/migration/V10__create_category_table.sql",
+            "main/resources/db/migration/V11__batch_fifo_index.sql",
+            "main/resources/db/migration/V12__consolidate_batch_indexes.sql",
+            "main/resources/db/migration/V13__bill_request_id.sql",
+            "main/resources/db/migration/V14__sales_daily.sql",
+            "main/resources/db/migration/V15__report_time_indexes.sql",
+            "main/resources/db/migration/V16__partition_inventory_movement.sql",
+            "main/resources/db/migration/V17__stock_snapshot.sql",
+            "main/resources/db/migration/V18__import_progress.sql",
     };
 
     private final Properties properties;
@@ -47,6 +52,8 @@ public class Db implements AutoCloseable {
     private final String username;
     private final String password;
 
+    private final DataSource dataSource = new SimpleDataSource();
+
     private Connection currentConnection; // optional, if you later add pooling
 
     /**
@@ -54,14 +61,31 @@ public class Db implements AutoCloseable {
      * Loads properties and initializes the database.
      */
     public Db() {
-        this.properties = loadProperties();
-        this.jdbcUrl = properties.getProperty("db.url");
+        this(new StartupTimer());
+    }
+
+    /**
+     * Same as {@link #Db()}, recording each initialization phase on the given timer.
+     */
+    public Db(StartupTimer timer) {
+        this(timer, null);
+    }
+
+    /**
+     * Connects to {@code schema} instead of the database named in db.url, creating and
+     * migrating it if needed. Used by tooling that must not touch the application schema.
+     */
+    public Db(StartupTimer timer, String schema) {
+        this.properties = timer.time("db.properties", this::loadProperties);
+        String url = properties.getProperty("db.url");
+        this.jdbcUrl = schema == null ? url : withDatabaseName(url, schema);
         this.username = properties.getProperty("db.user");
         this.password = properties.getProperty("db.pass");
 
-        loadMySQLDriver();
-        testConnection();
-        initializeDatabase();
+        timer.time("db.driver", this::loadMySQLDriver);
+        timer.time("db.create", this::createDatabaseIfNotExists);
+        timer.time("db.connect", this::testConnection);
+        timer.time("db.migrate", this::executeInitScripts);
     }
 
     /** Load MySQL JDBC driver */
@@ -103,7 +127,7 @@ public class Db implements AutoCloseable {
 
     /** Expose a simple DataSource for compatibility with other code. */
     public DataSource getDataSource() {
-        return new SimpleDataSource();
+        return dataSource;
     }
 
     /** Simple javax.sql.DataSource implementation backed by DriverManager. */
@@ -162,7 +186,7 @@ public class Db implements AutoCloseable {
      */
     private Properties getDefaultProperties() {
         Properties props = new Properties();
-        props.setProperty("db.url", "jdbc:mysql://localhost:3306/SYOS?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC");
+        props.setProperty("db.url", "jdbc:mysql://localhost:3306/SYOS?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC&rewriteBatchedStatements=true");
         props.setProperty("db.user", "Alex");
         props.setProperty("db.pass", "Alex@20020930"); // empty by default
 
@@ -170,13 +194,6 @@ public class Db implements AutoCloseable {
         return props;
     }
 
-    /** Initialize DB: create database if needed, then run migrations. */
-    private void initializeDatabase() {
-        LOGGER.fine("Starting database initialization");
-        createDatabaseIfNotExists();
-        executeInitScripts();
-    }
-
     /** Create database if it doesn't exist (based on db name in JDBC URL). */
     private void createDatabaseIfNotExists() {
         String dbName = extractDatabaseName(jdbcUrl);
@@ -202,6 +219,13 @@ public class Db implements AutoCloseable {
         }
     }
 
+    /** Replace the database name in a JDBC URL, keeping its parameters. */
+    private static String withDatabaseName(String url, String dbName) {
+        int lastSlash = url.lastIndexOf('/');
+        int qm = url.indexOf('?', lastSlash);
+        return url.substring(0, lastSlash + 1) + dbName + (qm == -1 ? "" : url.substring(qm));
+    }
+
     /** Extract the database name from a JDBC URL. */
     private String extractDatabaseName(String url) {
         int lastSlash = url.lastIndexOf('/');
@@ -210,59 +234,9 @@ public class Db implements AutoCloseable {
         return (qm == -1) ? url.substring(lastSlash + 1) : url.substring(lastSlash + 1, qm);
     }
 
-    /** Execute SQL migration scripts from classpath in order. */
+    /** Apply pending SQL migrations recorded against schema_history. */
     private void executeInitScripts() {
-        for (String scriptPath : MIGRATION_SCRIPTS) {
-            String sql = readResourceFile(scriptPath);
-            if (sql == null || sql.trim().isEmpty()) {
-                LOGGER.warning("Could not find or empty migration script: " + scriptPath);
-                continue;
-            }
-
-            try (Connection connection = getConnection();
-                 Statement statement = connection.createStatement()) {
-
-                // naive split by ';' – adequate for simple migrations without custom DELIMITER
-                String[] statements = sql.split(";\\s*");
-                for (String stmt : statements) {
-                    String s = stmt.trim();
-                    if (s.isEmpty()) continue;
-                    try {
-                        statement.execute(s);
-                        LOGGER.fine("Executed SQL from " + scriptPath + ": " +
-                                s.substring(0, Math.min(s.length(), 80)) + "...");
-                    } catch (SQLException e) {
-                        LOGGER.log(Level.FINE, "Error executing SQL statement from " + scriptPath + ": " + e.getMessage());
-                    }
-                }
-
-                LOGGER.fine("Database initialization completed for " + scriptPath);
-            } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Failed to initialize database with script: " + scriptPath, e);
-            }
-        }
-    }
-
-    /** Read a resource file from classpath into a String. */
-    private String readResourceFile(String resourcePath) {
-        // Accept both "db/migration/..." and "/db/migration/..."
-        String normalized = resourcePath.startsWith("/") ? resourcePath.substring(1) : resourcePath;
-
-        InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream(normalized);
-        if (in == null) {
-            in = Db.class.getResourceAsStream("/" + normalized);
-        }
-        if (in == null) {
-            LOGGER.fine("Could not find resource: " + resourcePath);
-            return null;
-        }
-
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in))) {
-            return reader.lines().collect(Collectors.joining("\n"));
-        } catch (IOException e) {
-            LOGGER.log(Level.WARNING, "Failed to read resource file: " + resourcePath, e);
-            return null;
-        }
+        new MigrationRunner(this::getConnection, MIGRATION_SCRIPTS).migrate();
     }
 
     /** Close any open connection on shutdown (if one was kept). */
@@ -0,0 +1,335 @@
+package main.java.config;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned migration runner backed by a {@code schema_history} table.
+ * Each script is identified by the version in its file name (V{n}__description.sql) and
+ * a CRC32 checksum of its contents. Already applied versions are skipped, so a normal
+ * startup costs a single metadata query. Pending scripts run one by one in their own
+ * transaction and any failure aborts startup. MySQL commits DDL as it goes, so a failed script
+ * may be half applied: plain CREATE INDEX / DROP INDEX statements are checked against
+ * information_schema first and skipped when already done, which makes re-running it safe.
+ */
+final class MigrationRunner {
+
+    private static final Logger LOGGER = Logger.getLogger(MigrationRunner.class.getName());
+
+    static {
+        LOGGER.setLevel(Level.WARNING);
+    }
+
+    private static final Pattern VERSIONED_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql$");
+
+    /** Table created by V1 – used to detect databases migrated before schema_history existed. */
+    private static final String LEGACY_MARKER_TABLE = "users";
+
+    /** Last version the pre-history runner replayed on every startup. */
+    private static final int LEGACY_LAST_VERSION = 10;
+
+    /**
+     * Indexes from V1-V10 that later code relies on. The pre-history runner swallowed failing
+     * statements, so a legacy schema may lack them; they are created when it is baselined.
+     */
+    private static final String[] LEGACY_INDEXES = {
+            "CREATE UNIQUE INDEX uq_bill_serial ON bill(serial)",
+            "CREATE INDEX ix_mov_product_time ON inventory_movement(product_code, happened_at)",
+    };
+
+    private static final Pattern CREATE_INDEX =
+            Pattern.compile("(?is)CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+`?(\\w+)`?\\s+ON\\s+`?(\\w+)`?\\s*\\(.*");
+    private static final Pattern DROP_INDEX =
+            Pattern.compile("(?is)DROP\\s+INDEX\\s+`?(\\w+)`?\\s+ON\\s+`?(\\w+)`?");
+
+    private static final String CREATE_HISTORY_SQL = """
+            CREATE TABLE IF NOT EXISTS schema_history (
+                version INT PRIMARY KEY,
+                description VARCHAR(200) NOT NULL,
+                script VARCHAR(255) NOT NULL,
+                checksum BIGINT NOT NULL,
+                installed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                execution_ms BIGINT NOT NULL
+            )
+            """;
+
+    /** Opens a new connection to the application schema. */
+    @FunctionalInterface
+    interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private final ConnectionFactory connections;
+    private final String[] scriptPaths;
+
+    MigrationRunner(ConnectionFactory connections, String[] scriptPaths) {
+        this.connections = connections;
+        this.scriptPaths = scriptPaths;
+    }
+
+    /** Apply every script not yet recorded in schema_history, in version order. */
+    void migrate() {
+        List<Script> scripts = loadScripts();
+
+        try (Connection con = connections.open()) {
+            Map<Integer, Long> applied = readHistory(con);
+
+            if (applied == null) {
+                createHistoryTable(con);
+                if (tableExists(con, LEGACY_MARKER_TABLE)) {
+                    // Schema was built by the old replay-everything runner: record it, don't re-run it.
+                    applied = baseline(con, scripts);
+                } else {
+                    applied = Map.of();
+                }
+            }
+
+            for (Script script : scripts) {
+                Long checksum = applied.get(script.version());
+                if (checksum == null) {
+                    apply(con, script);
+                } else if (checksum != script.checksum()) {
+                    throw new IllegalStateException("Checksum mismatch for applied migration " + script.path()
+                            + " (recorded=" + checksum + ", current=" + script.checksum() + ")");
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Database migration failed", e);
+            throw new IllegalStateException("Database migration failed", e);
+        }
+    }
+
+    /** Returns version -> checksum, or null if the history table does not exist yet. */
+    private Map<Integer, Long> readHistory(Connection con) throws SQLException {
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT version, checksum FROM schema_history")) {
+            Map<Integer, Long> applied = new HashMap<>();
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getLong(2));
+            }
+            return applied;
+        } catch (SQLException e) {
+            // Only a missing table means a fresh install; anything else must not trigger a baseline
+            if (!"42S02".equals(e.getSQLState()) && e.getErrorCode() != 1146) throw e;
+            LOGGER.fine("schema_history not found, treating as fresh: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void createHistoryTable(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute(CREATE_HISTORY_SQL);
+        }
+    }
+
+    private boolean tableExists(Connection con, String table) throws SQLException {
+        DatabaseMetaData meta = con.getMetaData();
+        try (ResultSet rs = meta.getTables(con.getCatalog(), null, table, new String[]{"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    private Map<Integer, Long> baseline(Connection con, List<Script> scripts) throws SQLException {
+        LOGGER.info("Existing schema detected; baselining migrations up to V" + LEGACY_LAST_VERSION + " without executing them");
+        Map<Integer, Long> baselined = new HashMap<>();
+        boolean old = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try {
+            for (Script script : scripts) {
+                if (script.version() > LEGACY_LAST_VERSION) continue;
+                recordHistory(con, script, 0L);
+                baselined.put(script.version(), script.checksum());
+            }
+            try (Statement st = con.createStatement()) {
+                for (String sql : LEGACY_INDEXES) {
+                    if (!alreadyApplied(con, sql)) st.execute(sql);
+                }
+            }
+            con.commit();
+            return baselined;
+        } catch (SQLException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(old);
+        }
+    }
+
+    private void apply(Connection con, Script script) throws SQLException {
+        long start = System.nanoTime();
+        boolean old = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try (Statement st = con.createStatement()) {
+            for (String sql : splitStatements(script.sql())) {
+                try {
+                    if (alreadyApplied(con, sql)) {
+                        LOGGER.info("Skipping statement already applied by an earlier run: " + abbreviate(sql));
+                        continue;
+                    }
+                    st.execute(sql);
+                } catch (SQLException e) {
+                    throw new SQLException("Migration " + script.path() + " failed at statement: "
+                            + abbreviate(sql) + " -> " + e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+                }
+            }
+            recordHistory(con, script, (System.nanoTime() - start) / 1_000_000);
+            con.commit();
+            LOGGER.info("Applied migration " + script.path());
+        } catch (SQLException e) {
+            // MySQL DDL commits implicitly, so only the data part of a failed script is undone here.
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(old);
+        }
+    }
+
+    /** True for a CREATE INDEX whose index exists, or a DROP INDEX whose index is gone. */
+    private static boolean alreadyApplied(Connection con, String sql) throws SQLException {
+        Matcher m = CREATE_INDEX.matcher(sql);
+        if (m.matches()) return indexExists(con, m.group(2), m.group(1));
+        m = DROP_INDEX.matcher(sql);
+        if (m.matches()) return !indexExists(con, m.group(2), m.group(1));
+        return false;
+    }
+
+    private static boolean indexExists(Connection con, String table, String index) throws SQLException {
+        String sql = "SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ? LIMIT 1";
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setString(1, table);
+            ps.setString(2, index);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private void recordHistory(Connection con, Script script, long executionMs) throws SQLException {
+        String sql = "INSERT INTO schema_history(version, description, script, checksum, execution_ms) VALUES(?,?,?,?,?)";
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setInt(1, script.version());
+            ps.setString(2, script.description());
+            ps.setString(3, script.path());
+            ps.setLong(4, script.checksum());
+            ps.setLong(5, executionMs);
+            ps.executeUpdate();
+        }
+    }
+
+    private List<Script> loadScripts() {
+        List<Script> scripts = new ArrayList<>();
+        for (String path : scriptPaths) {
+            Matcher m = VERSIONED_NAME.matcher(path);
+            if (!m.find()) {
+                throw new IllegalStateException("Migration script name must look like V<n>__<desc>.sql: " + path);
+            }
+            String sql = readResourceFile(path);
+            if (sql == null || sql.isBlank()) {
+                throw new IllegalStateException("Could not find or empty migration script: " + path);
+            }
+            scripts.add(new Script(Integer.parseInt(m.group(1)), m.group(2).replace('_', ' '), path, sql, checksum(sql)));
+        }
+        scripts.sort((a, b) -> Integer.compare(a.version(), b.version()));
+        return scripts;
+    }
+
+    private static long checksum(String sql) {
+        CRC32 crc = new CRC32();
+        crc.update(sql.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Split a script into statements on ';', ignoring semicolons inside quotes and comments.
+     * Comment-only fragments are dropped. DELIMITER blocks are not supported.
+     */
+    static List<String> splitStatements(String script) {
+        List<String> out = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        int n = script.length();
+        int i = 0;
+        while (i < n) {
+            char c = script.charAt(i);
+            char next = i + 1 < n ? script.charAt(i + 1) : '\0';
+
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = i + 1;
+                while (end < n) {
+                    char e = script.charAt(end);
+                    if (e == '\\' && c != '`') { end += 2; continue; }
+                    if (e == c) break;
+                    end++;
+                }
+                cur.append(script, i, Math.min(end + 1, n));
+                i = end + 1;
+            } else if ((c == '-' && next == '-') || c == '#') {
+                int eol = script.indexOf('\n', i);
+                i = eol < 0 ? n : eol + 1;
+                cur.append('\n');
+            } else if (c == '/' && next == '*') {
+                int end = script.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+                cur.append(' ');
+            } else if (c == ';') {
+                addIfNotBlank(out, cur);
+                cur.setLength(0);
+                i++;
+            } else {
+                cur.append(c);
+                i++;
+            }
+        }
+        addIfNotBlank(out, cur);
+        return out;
+    }
+
+    private static void addIfNotBlank(List<String> out, StringBuilder sb) {
+        String s = sb.toString().trim();
+        if (!s.isEmpty()) out.add(s);
+    }
+
+    private static String abbreviate(String sql) {
+        String oneLine = sql.replaceAll("\\s+", " ");
+        return oneLine.length() <= 120 ? oneLine : oneLine.substring(0, 120) + "...";
+    }
+
+    /** Read a resource file from classpath into a String. */
+    private String readResourceFile(String resourcePath) {
+        String normalized = resourcePath.startsWith("/") ? resourcePath.substring(1) : resourcePath;
+
+        InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream(normalized);
+        if (in == null) {
+            in = MigrationRunner.class.getResourceAsStream("/" + normalized);
+        }
+        if (in == null) {
+            return null;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.joining("\n"));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read migration script: " + resourcePath, e);
+        }
+    }
+
+    private record Script(int version, String description, String path, String sql, long checksum) {}
+}
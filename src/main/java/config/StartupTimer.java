@@ -0,0 +1,71 @@
+package main.java.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records how long each startup phase takes so that time-to-login can be measured.
+ * Phases may run on different threads; the report lists them in completion order.
+ * Enable output with -Dsyos.startup.timing=true.
+ */
+public final class StartupTimer {
+
+    private static final Logger LOGGER = Logger.getLogger(StartupTimer.class.getName());
+
+    static {
+        LOGGER.setLevel(Boolean.getBoolean("syos.startup.timing") ? Level.INFO : Level.WARNING);
+    }
+
+    private final long origin = System.nanoTime();
+    private final List<Phase> phases = new ArrayList<>();
+
+    /** Run and time a phase that produces a value. */
+    public <T> T time(String name, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            record(name, start);
+        }
+    }
+
+    /** Run and time a phase. */
+    public void time(String name, Runnable work) {
+        long start = System.nanoTime();
+        try {
+            work.run();
+        } finally {
+            record(name, start);
+        }
+    }
+
+    /** Record a milestone measured from the moment the timer was created. */
+    public void mark(String name) {
+        record(name, origin);
+    }
+
+    /** Log every recorded phase with its duration and offset from process start. */
+    public void report() {
+        if (!LOGGER.isLoggable(Level.INFO)) return;
+        StringBuilder sb = new StringBuilder("Startup timing:");
+        synchronized (phases) {
+            for (Phase p : phases) {
+                sb.append(String.format("%n  %-22s %7.1f ms  (done at +%.1f ms, %s)",
+                        p.name(), p.durationNanos() / 1e6, (p.endNanos() - origin) / 1e6, p.thread()));
+            }
+        }
+        LOGGER.info(sb.toString());
+    }
+
+    private void record(String name, long start) {
+        long end = System.nanoTime();
+        synchronized (phases) {
+            phases.add(new Phase(name, end - start, end, Thread.currentThread().getName()));
+        }
+    }
+
+    private record Phase(String name, long durationNanos, long endNanos, String thread) {}
+}
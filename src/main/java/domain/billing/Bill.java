@@ -45,7 +45,9 @@ public final class Bill {
         private Money discount = Money.of(0);
         private Money cash = Money.of(0);
 
+        public Builder id(long id){ this.id = id; return this; }
         public Builder serial(String s){ this.serial = s; return this; }
+        public Builder dateTime(LocalDateTime t){ this.dateTime = t; return this; }
         public Builder addLine(BillLine l){ this.lines.add(l); return this; }
         public Builder discount(Money d){ this.discount = d; return this; }
         public Builder cash(Money c){ this.cash = c; return this; }
@@ -0,0 +1,15 @@
+package main.java.domain.billing;
+
+/** A bill already exists for this checkout request id. */
+public final class DuplicateCheckoutException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String requestId;
+
+    public DuplicateCheckoutException(String requestId, Throwable cause) {
+        super("Checkout already recorded for request " + requestId, cause);
+        this.requestId = requestId;
+    }
+
+    public String requestId() { return requestId; }
+}
@@ -0,0 +1,22 @@
+package main.java.domain.inventory;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the stock ledger: {@code quantity} units moved from one place to another.
+ * Places are {@link StockLocation} names or one of the outside parties below, so the net change
+ * of a location is what moved into it minus what moved out of it.
+ */
+public record Movement(LocalDateTime happenedAt, String productCode, String from, String to, int quantity, String note) {
+    public static final String SUPPLIER = "SUPPLIER";
+    public static final String CUSTOMER = "CUSTOMER";
+    public static final String ADJUSTMENT = "ADJUSTMENT";
+
+    /** Signed change this movement made to the stock held at {@code location}. */
+    public int delta(StockLocation location) {
+        int d = 0;
+        if (location.name().equals(to)) d += quantity;
+        if (location.name().equals(from)) d -= quantity;
+        return d;
+    }
+}
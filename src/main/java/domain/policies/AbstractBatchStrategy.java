@@ -17,34 +17,41 @@ abstract class AbstractBatchStrategy implements BatchSelectionStrategy {
 
     @Override
     public void deduct(Connection con, Code productCode, int qtyNeeded, StockLocation location) {
-        int remaining = qtyNeeded;
-        for (Batch b : candidates(con, productCode, location)) {
-            if (remaining <= 0) break;
-            int take = Math.min(remaining, b.quantity().value());
-            if (take > 0) {
-                inventory.deductFromBatch(con, b.id(), take);
-                remaining -= take;
-            }
-        }
-        if (remaining > 0) {
+        int taken = deductUpTo(con, productCode, qtyNeeded, location);
+        if (taken < qtyNeeded) {
             throw new IllegalStateException("Insufficient stock for " + productCode.value() + " need=" + qtyNeeded);
         }
     }
 
     @Override
     public int deductUpTo(Connection con, Code productCode, int qtyNeeded, StockLocation location) {
+        int taken = takeFrom(con, candidates(con, productCode, location), qtyNeeded);
+        if (taken < qtyNeeded) {
+            // Candidates may come from a cached view that missed stock added elsewhere: re-read once.
+            taken += takeFrom(con, freshCandidates(con, productCode, location), qtyNeeded - taken);
+        }
+        return taken; // caller decides next steps
+    }
+
+    private int takeFrom(Connection con, List<Batch> batches, int qtyNeeded) {
         int remaining = qtyNeeded;
         int taken = 0;
-        for (Batch b : candidates(con, productCode, location)) {
+        for (Batch b : batches) {
             if (remaining <= 0) break;
             int take = Math.min(remaining, b.quantity().value());
             if (take > 0) {
-                inventory.deductFromBatch(con, b.id(), take);
-                remaining -= take;
-                taken += take;
+                // The candidate may overstate the batch; what's missing comes from the next one or a fresh read
+                int got = inventory.deductFromBatch(con, b.id(), take);
+                remaining -= got;
+                taken += got;
             }
         }
-        return taken; // caller decides next steps
+        return taken;
+    }
+
+    /** Candidates read straight from storage, in this strategy's order. */
+    protected List<Batch> freshCandidates(Connection con, Code productCode, StockLocation location) {
+        return inventory.refreshDeductionCandidates(con, productCode, location);
     }
 
     protected abstract List<Batch> candidates(Connection con, Code productCode, StockLocation location);
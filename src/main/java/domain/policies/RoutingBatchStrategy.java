@@ -0,0 +1,76 @@
+package main.java.domain.policies;
+
+import main.java.domain.inventory.StockLocation;
+import main.java.domain.shared.Code;
+
+import java.sql.Connection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Picks the batch selection strategy per deduction, so FIFO and FEFO stores can coexist.
+ * A category override wins over a location override, which wins over the default.
+ * Overrides can be changed at runtime; readers always see a consistent snapshot.
+ */
+public final class RoutingBatchStrategy implements BatchSelectionStrategy {
+
+    private final Function<Code, Optional<String>> categoryOf;
+    private volatile BatchSelectionStrategy fallback;
+    private volatile Map<StockLocation, BatchSelectionStrategy> byLocation = new EnumMap<>(StockLocation.class);
+    private volatile Map<String, BatchSelectionStrategy> byCategory = Map.of();
+
+    /**
+     * @param fallback   strategy used when no override matches
+     * @param categoryOf resolves a product's category code; only consulted when category overrides exist
+     */
+    public RoutingBatchStrategy(BatchSelectionStrategy fallback, Function<Code, Optional<String>> categoryOf) {
+        this.fallback = fallback;
+        this.categoryOf = categoryOf;
+    }
+
+    @Override
+    public void deduct(Connection con, Code productCode, int quantity, StockLocation location) {
+        select(productCode, location).deduct(con, productCode, quantity, location);
+    }
+
+    @Override
+    public int deductUpTo(Connection con, Code productCode, int quantity, StockLocation location) {
+        return select(productCode, location).deductUpTo(con, productCode, quantity, location);
+    }
+
+    /** Strategy that would be used for this product at this location. */
+    public BatchSelectionStrategy select(Code productCode, StockLocation location) {
+        Map<String, BatchSelectionStrategy> categories = byCategory;
+        if (!categories.isEmpty()) {
+            var byCat = categoryOf.apply(productCode).map(c -> categories.get(c.toUpperCase()));
+            if (byCat.isPresent()) return byCat.get();
+        }
+        return byLocation.getOrDefault(location, fallback);
+    }
+
+    public void setDefault(BatchSelectionStrategy strategy) {
+        this.fallback = strategy;
+    }
+
+    /** Use {@code strategy} for a location; {@code null} removes the override. */
+    public synchronized void setForLocation(StockLocation location, BatchSelectionStrategy strategy) {
+        var next = new EnumMap<StockLocation, BatchSelectionStrategy>(StockLocation.class);
+        next.putAll(byLocation);
+        if (strategy == null) next.remove(location); else next.put(location, strategy);
+        byLocation = next;
+    }
+
+    /** Use {@code strategy} for a category; {@code null} removes the override. */
+    public synchronized void setForCategory(String categoryCode, BatchSelectionStrategy strategy) {
+        var next = new HashMap<>(byCategory);
+        if (strategy == null) next.remove(categoryCode.toUpperCase()); else next.put(categoryCode.toUpperCase(), strategy);
+        byCategory = Map.copyOf(next);
+    }
+
+    public BatchSelectionStrategy defaultStrategy() { return fallback; }
+    public Map<StockLocation, BatchSelectionStrategy> locationOverrides() { return Map.copyOf(byLocation); }
+    public Map<String, BatchSelectionStrategy> categoryOverrides() { return byCategory; }
+}
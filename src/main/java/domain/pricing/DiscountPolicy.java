@@ -4,6 +4,7 @@ import main.java.domain.billing.BillLine;
 import main.java.domain.shared.Money;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Strategy interface for calculating discounts on bill lines.
@@ -15,4 +16,14 @@ public interface DiscountPolicy {
      * @return the discount amount
      */
     Money discountFor(List<BillLine> lines);
+
+    /**
+     * Discount in cents when the subtotal is already known. Policies that depend only on the
+     * subtotal override this to avoid walking the lines; others fall back to {@link #discountFor}.
+     * @param subtotalCents sum of the line totals in cents
+     * @param lines supplies the bill lines, only called if the policy needs them
+     */
+    default long discountCents(long subtotalCents, Supplier<List<BillLine>> lines) {
+        return discountFor(lines.get()).cents();
+    }
 }
@@ -4,6 +4,7 @@ import main.java.domain.billing.BillLine;
 import main.java.domain.shared.Money;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * A discount policy that applies no discount.
@@ -12,4 +13,8 @@ public final class NoDiscount implements DiscountPolicy {
     @Override public Money discountFor(List<BillLine> lines) {
         return Money.of(0);
     }
+
+    @Override public long discountCents(long subtotalCents, Supplier<List<BillLine>> lines) {
+        return 0;
+    }
 }
@@ -5,6 +5,7 @@ import main.java.domain.shared.Money;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Discount policy that applies a percentage discount to the total.
@@ -21,7 +22,11 @@ public final class PercentDiscount implements DiscountPolicy {
     public Money discountFor(List<BillLine> lines) {
         var subtotal = lines.stream().map(BillLine::lineTotal).reduce(Money.of(0), Money::plus).amount();
         long cents = subtotal.movePointRight(2).longValueExact();
-        long discCents = Math.round(cents * (percent / 100.0));
-        return Money.of(BigDecimal.valueOf(discCents, 2));
+        return Money.of(BigDecimal.valueOf(discountCents(cents, () -> lines), 2));
+    }
+
+    @Override
+    public long discountCents(long subtotalCents, Supplier<List<BillLine>> lines) {
+        return Math.round(subtotalCents * (percent / 100.0));
     }
 }
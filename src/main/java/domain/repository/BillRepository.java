@@ -3,7 +3,29 @@ package main.java.domain.repository;
 import main.java.domain.billing.Bill;
 
 import java.sql.Connection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 
 public interface BillRepository {
-    long save(Connection con, Bill bill); // returns generated id
+    default long save(Connection con, Bill bill) { // returns generated id
+        return save(con, bill, null);
+    }
+
+    // requestId may be null; a reused one throws DuplicateCheckoutException
+    long save(Connection con, Bill bill, String requestId);
+
+    default long[] saveAll(Connection con, List<Bill> bills) {
+        return saveAll(con, bills, Collections.nCopies(bills.size(), null));
+    }
+
+    // Persist several bills together; requestIds is parallel to bills (entries may be null). Returns ids in order.
+    default long[] saveAll(Connection con, List<Bill> bills, List<String> requestIds) {
+        long[] ids = new long[bills.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = save(con, bills.get(i), requestIds.get(i));
+        return ids;
+    }
+
+    // Bill previously saved under this checkout request id
+    Optional<Bill> findByRequestId(Connection con, String requestId);
 }
\ No newline at end of file
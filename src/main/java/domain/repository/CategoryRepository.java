@@ -8,7 +8,9 @@ public interface CategoryRepository {
     List<Category> findAllActive();
     List<Category> findAll();
     Optional<Category> findByCode(String code);
+    Optional<Category> findByPrefix(String prefix);
     void save(Category category);
     void delete(String code);
-    Category incrementSequenceAndSave(String categoryCode);
+    // Atomically advance next_sequence by count; returns the first of the reserved sequence numbers
+    int reserveSequence(String categoryCode, int count);
 }
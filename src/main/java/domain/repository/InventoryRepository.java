@@ -9,11 +9,26 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface InventoryRepository {
     // FEFO/FIFO candidates by product+location ordered by (expiry asc nulls last, receivedAt asc)
     List<Batch> findDeductionCandidates(Connection con, Code product, StockLocation loc);
-    void deductFromBatch(Connection con, long batchId, int take);
+
+    // Same ordering, but bypassing any cached view and reading the table on this connection
+    default List<Batch> refreshDeductionCandidates(Connection con, Code product, StockLocation loc) {
+        return findDeductionCandidates(con, product, loc);
+    }
+
+    // FIFO candidates by product+location ordered by receivedAt asc only (expiry ignored)
+    List<Batch> findFifoCandidates(Connection con, Code product, StockLocation loc);
+
+    default List<Batch> refreshFifoCandidates(Connection con, Code product, StockLocation loc) {
+        return findFifoCandidates(con, product, loc);
+    }
+
+    // Deduct up to take from the batch; returns what was actually taken (0 if it has nothing left)
+    int deductFromBatch(Connection con, long batchId, int take);
 
     // Sum of quantities for product at location (e.g., SHELF / WEB)
     int totalAvailable(Connection con, String productCode, String location);
@@ -26,6 +41,16 @@ public interface InventoryRepository {
         return totalAvailable(con, productCode, location) >= required;
     }
 
+    // Committed quantity at a location; implementations may answer from memory instead of summing rows
+    default int committedAvailable(Connection con, String productCode, StockLocation loc) {
+        return totalAvailable(con, productCode, loc.name());
+    }
+
+    // Low-stock threshold configured for product at location, or fallback when there is none
+    default int lowStockThreshold(Connection con, String productCode, StockLocation loc, int fallback) {
+        return fallback;
+    }
+
     // Reminder for low quantity
     int remainingQuantity(java.sql.Connection con, String productCode, String location);
 
@@ -35,9 +60,19 @@ public interface InventoryRepository {
     List<Batch> findBatchesByLocation(Connection con, StockLocation location);
     Optional<Batch> findBatchById(Connection con, long batchId);
 
+    // Keyset page: up to `limit` batches with id > afterId in id order; location null = every location
+    List<Batch> findBatchPage(Connection con, StockLocation location, long afterId, int limit);
+
+    // Forward-only cursor over every batch in id order; close it (try-with-resources) before the transaction ends
+    Stream<Batch> streamAllBatches(Connection con);
+
     long createBatch(Connection con, Code productCode, StockLocation location,
                      LocalDateTime receivedAt, LocalDate expiry, int quantity);
 
+    // Receive many batches at once (ids ignored); one matching an existing batch (product, location,
+    // received_at, expiry) adds to its quantity
+    void receiveBatches(Connection con, List<Batch> batches, String note);
+
     void updateBatch(Connection con, long batchId, LocalDate expiry, int quantity);
 
     void deleteBatch(Connection con, long batchId);
@@ -0,0 +1,15 @@
+package main.java.domain.repository;
+
+import main.java.domain.inventory.Movement;
+
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface MovementRepository {
+    // Append to the ledger; written when the surrounding transaction commits
+    void record(Connection con, String productCode, String from, String to, int quantity, String note);
+
+    // Movements of a product with from <= happened_at < to, oldest first
+    List<Movement> history(Connection con, String productCode, LocalDateTime from, LocalDateTime to);
+}
@@ -3,12 +3,30 @@ package main.java.domain.repository;
 import main.java.domain.product.Product;
 import main.java.domain.shared.Code;
 
+import java.sql.Connection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 public interface ProductRepository {
     void upsert(Product p);
+    // Insert or update many products on the caller's transaction, in multi-row statements
+    void upsertAll(Connection con, List<Product> products);
     Optional<Product> findByCode(Code code);
     List<Product> findAll();
     boolean deleteByCode(Code code);
+
+    default boolean exists(Code code) {
+        return findByCode(code).isPresent();
+    }
+
+    // Products whose code or name contains the query; indexed implementations rank matches and tolerate typos
+    default List<Product> search(String query, int limit) {
+        String q = query.trim().toLowerCase(Locale.ROOT);
+        if (q.isEmpty()) return List.of();
+        return findAll().stream()
+                .filter(p -> p.code().value().toLowerCase(Locale.ROOT).contains(q) || p.name().toLowerCase(Locale.ROOT).contains(q))
+                .limit(limit)
+                .toList();
+    }
 }
\ No newline at end of file
@@ -2,9 +2,11 @@ package main.java.domain.repository;
 
 import main.java.domain.user.User;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository {
     Optional<User> findByUsername(String username);
+    List<User> findAll();
     void upsert(User user);
 }
\ No newline at end of file
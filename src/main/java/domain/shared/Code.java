@@ -1,18 +1,41 @@
 package main.java.domain.shared;
 
-import java.util.Objects;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class Code {
+    // Canonical instances by input string; capped so arbitrary user input cannot grow it without bound
+    private static final int INTERN_LIMIT = 1 << 20;
+    private static final ConcurrentHashMap<String, Code> INTERNED = new ConcurrentHashMap<>();
+
     private final String value;
+    private final String key;   // case-folded form used for equality
+    private final int hash;
 
     public Code(String value) {
         if (value == null || value.isBlank()) throw new IllegalArgumentException("Product Code cannot be null or blank");
         this.value = value.trim();
+        this.key = this.value.toLowerCase(Locale.ROOT);
+        this.hash = key.hashCode();
+    }
+
+    /** Shared instance for this code; prefer over the constructor for lookups, keys and row reads. */
+    public static Code of(String value) {
+        if (value == null) throw new IllegalArgumentException("Product Code cannot be null or blank");
+        Code code = INTERNED.get(value);
+        if (code != null) return code;
+        code = new Code(value);
+        if (INTERNED.size() >= INTERN_LIMIT) return code;
+        Code prev = INTERNED.putIfAbsent(value, code);
+        return prev != null ? prev : code;
     }
 
     public String value() { return value; }
 
-    @Override public boolean equals(Object o){ return (o instanceof Code c) && value.equalsIgnoreCase(c.value); }
-    @Override public int hashCode(){ return Objects.hash(value.toLowerCase()); }
+    @Override public boolean equals(Object o){
+        if (this == o) return true;
+        return (o instanceof Code c) && hash == c.hash && key.equals(c.key);
+    }
+    @Override public int hashCode(){ return hash; }
     @Override public String toString(){ return value; }
 }
@@ -0,0 +1,336 @@
+package main.java.infrastructure.archive;
+
+import main.java.domain.billing.Bill;
+import main.java.domain.billing.BillLine;
+import main.java.domain.shared.Code;
+import main.java.domain.shared.Money;
+import main.java.domain.shared.Quantity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Closed days of bills, one immutable file per day ({@code bills-YYYY-MM-DD.sba}).
+ * <p>
+ * A day file is a sequence of deflated blocks of up to {@value #BLOCK_BILLS} bills, stored
+ * column by column (ids, times, serials, amounts, then the columns of all their lines), followed
+ * by a sparse index with each block's offset and time range. Range scans read the
+ * index and inflate only the blocks that overlap. Files are written to a temporary name, forced
+ * and renamed into place, so a reader never sees a partial day.
+ */
+public final class BillArchive {
+
+    private static final int MAGIC = 0x53594F41; // "SYOA"
+    private static final int VERSION = 1;
+    private static final int BLOCK_BILLS = 1024;
+    private static final String PREFIX = "bills-";
+    private static final String SUFFIX = ".sba";
+
+    private final Path dir;
+
+    public BillArchive(Path dir) {
+        this.dir = dir;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create archive directory " + dir, e);
+        }
+    }
+
+    public boolean hasDay(LocalDate day) {
+        return Files.exists(file(day));
+    }
+
+    /** Archived days in ascending order. */
+    public List<LocalDate> days() {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<LocalDate> out = new ArrayList<>();
+            files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(PREFIX) && n.endsWith(SUFFIX))
+                    .forEach(n -> {
+                        try {
+                            out.add(LocalDate.parse(n.substring(PREFIX.length(), n.length() - SUFFIX.length())));
+                        } catch (DateTimeParseException ignored) {
+                            // not ours
+                        }
+                    });
+            out.sort(null);
+            return out;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Start (or replace) the file for a day; nothing is visible until {@link Writer#commit()}. */
+    public Writer openDay(LocalDate day) {
+        return new Writer(day);
+    }
+
+    /** Every archived bill with {@code from <= dateTime < to}, in file order (by time within a day). */
+    public void scan(LocalDateTime from, LocalDateTime to, Consumer<Bill> sink) {
+        for (LocalDate day : days()) {
+            if (day.isBefore(from.toLocalDate()) || !day.atStartOfDay().isBefore(to)) continue;
+            long lo = millis(from), hi = millis(to);
+            readDay(day, b -> b.maxTime >= lo && b.minTime < hi, bill -> {
+                long t = millis(bill.dateTime());
+                if (t >= lo && t < hi) sink.accept(bill);
+            });
+        }
+    }
+
+    /** Sparse index entry for one block. */
+    private record Block(long offset, int bills, long minTime, long maxTime) {}
+
+    private interface BlockFilter {
+        boolean test(Block b);
+    }
+
+    private void readDay(LocalDate day, BlockFilter filter, Consumer<Bill> sink) {
+        try (FileChannel ch = FileChannel.open(file(day), StandardOpenOption.READ)) {
+            long size = ch.size();
+            ByteBuffer tail = read(ch, size - 12, 12);
+            long indexAt = tail.getLong();
+            if (tail.getInt() != MAGIC) throw new IllegalStateException("Corrupt archive file for " + day);
+            var index = new DataInputStream(new ByteArrayInputStream(read(ch, indexAt, (int) (size - 12 - indexAt)).array()));
+            if (index.readInt() != VERSION) throw new IllegalStateException("Unsupported archive version for " + day);
+            int blocks = index.readInt();
+            for (int i = 0; i < blocks; i++) {
+                var b = new Block(index.readLong(), index.readInt(), index.readLong(), index.readLong());
+                if (!filter.test(b)) continue;
+                ByteBuffer head = read(ch, b.offset(), 8);
+                int raw = head.getInt(), packed = head.getInt();
+                decodeBlock(inflate(read(ch, b.offset() + 8, packed).array(), raw), sink);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archive for " + day, e);
+        }
+    }
+
+    /**
+     * Writes one day's bills, best added in time order so each block covers a narrow range.
+     * Closing without {@link #commit()} discards the file.
+     */
+    public final class Writer implements AutoCloseable {
+        private final LocalDate day;
+        private final Path tmp;
+        private final FileChannel out;
+        private final List<Bill> pending = new ArrayList<>(BLOCK_BILLS);
+        private final List<Block> index = new ArrayList<>();
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private long position;
+        private boolean committed;
+
+        private Writer(LocalDate day) {
+            this.day = day;
+            this.tmp = dir.resolve(PREFIX + day + SUFFIX + ".tmp");
+            try {
+                this.out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create archive file for " + day, e);
+            }
+        }
+
+        public void add(Bill bill) {
+            pending.add(bill);
+            if (pending.size() == BLOCK_BILLS) flushBlock();
+        }
+
+        public void commit() {
+            flushBlock();
+            try {
+                var idx = new ByteArrayOutputStream();
+                var d = new DataOutputStream(idx);
+                d.writeInt(VERSION);
+                d.writeInt(index.size());
+                for (Block b : index) {
+                    d.writeLong(b.offset()); d.writeInt(b.bills());
+                    d.writeLong(b.minTime()); d.writeLong(b.maxTime());
+                }
+                long indexAt = position;
+                write(ByteBuffer.wrap(idx.toByteArray()));
+                write(ByteBuffer.allocate(12).putLong(indexAt).putInt(MAGIC).flip());
+                out.force(true);
+                out.close();
+                Files.move(tmp, file(day), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                committed = true;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write archive file for " + day, e);
+            }
+        }
+
+        @Override
+        public void close() {
+            deflater.end();
+            if (committed) return;
+            try {
+                out.close();
+                Files.deleteIfExists(tmp);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void flushBlock() {
+            if (pending.isEmpty()) return;
+            byte[] raw = encodeBlock(pending);
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            var packed = new ByteArrayOutputStream(raw.length / 4 + 64);
+            byte[] buf = new byte[8192];
+            while (!deflater.finished()) packed.write(buf, 0, deflater.deflate(buf));
+
+            long minTime = Long.MAX_VALUE, maxTime = Long.MIN_VALUE;
+            for (Bill b : pending) {
+                long t = millis(b.dateTime());
+                minTime = Math.min(minTime, t);
+                maxTime = Math.max(maxTime, t);
+            }
+            index.add(new Block(position, pending.size(), minTime, maxTime));
+            try {
+                write(ByteBuffer.allocate(8).putInt(raw.length).putInt(packed.size()).flip());
+                write(ByteBuffer.wrap(packed.toByteArray()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write archive file for " + day, e);
+            }
+            pending.clear();
+        }
+
+        private void write(ByteBuffer buf) throws IOException {
+            while (buf.hasRemaining()) position += out.write(buf);
+        }
+    }
+
+    // ---- block codec: one column after another, integers as zig-zag varints ----
+
+    private static byte[] encodeBlock(List<Bill> bills) {
+        var bytes = new ByteArrayOutputStream(bills.size() * 128);
+        var out = new DataOutputStream(bytes);
+        try {
+            writeVar(out, bills.size());
+            long prev = 0;
+            for (Bill b : bills) { writeVar(out, b.id() - prev); prev = b.id(); }
+            prev = 0;
+            for (Bill b : bills) { long t = millis(b.dateTime()); writeVar(out, t - prev); prev = t; }
+            for (Bill b : bills) out.writeUTF(b.serial());
+            for (Bill b : bills) writeVar(out, b.discount().cents());
+            for (Bill b : bills) writeVar(out, b.cash().cents());
+            for (Bill b : bills) writeVar(out, b.lines().size());
+            for (Bill b : bills) for (BillLine l : b.lines()) out.writeUTF(l.productCode().value());
+            for (Bill b : bills) for (BillLine l : b.lines()) out.writeUTF(l.name());
+            for (Bill b : bills) for (BillLine l : b.lines()) writeVar(out, l.qty().value());
+            for (Bill b : bills) for (BillLine l : b.lines()) writeVar(out, l.unitPrice().cents());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void decodeBlock(byte[] raw, Consumer<Bill> sink) throws IOException {
+        var in = new DataInputStream(new ByteArrayInputStream(raw));
+        int n = (int) readVar(in);
+        long[] ids = new long[n], times = new long[n], discounts = new long[n], cash = new long[n];
+        String[] serials = new String[n];
+        int[] lineCounts = new int[n];
+        long prev = 0;
+        for (int i = 0; i < n; i++) ids[i] = prev += readVar(in);
+        prev = 0;
+        for (int i = 0; i < n; i++) times[i] = prev += readVar(in);
+        for (int i = 0; i < n; i++) serials[i] = in.readUTF();
+        for (int i = 0; i < n; i++) discounts[i] = readVar(in);
+        for (int i = 0; i < n; i++) cash[i] = readVar(in);
+        int lines = 0;
+        for (int i = 0; i < n; i++) lines += lineCounts[i] = (int) readVar(in);
+        String[] codes = new String[lines], names = new String[lines];
+        int[] qty = new int[lines];
+        long[] unit = new long[lines];
+        for (int i = 0; i < lines; i++) codes[i] = in.readUTF();
+        for (int i = 0; i < lines; i++) names[i] = in.readUTF();
+        for (int i = 0; i < lines; i++) qty[i] = (int) readVar(in);
+        for (int i = 0; i < lines; i++) unit[i] = readVar(in);
+
+        int line = 0;
+        for (int i = 0; i < n; i++) {
+            var builder = new Bill.Builder().id(ids[i]).serial(serials[i])
+                    .dateTime(LocalDateTime.ofEpochSecond(Math.floorDiv(times[i], 1000), Math.floorMod(times[i], 1000) * 1_000_000, ZoneOffset.UTC))
+                    .discount(Money.of(discounts[i])).cash(Money.of(cash[i]));
+            for (int j = 0; j < lineCounts[i]; j++, line++) {
+                builder.addLine(new BillLine(Code.of(codes[line]), names[line], new Quantity(qty[line]), Money.of(unit[line])));
+            }
+            sink.accept(builder.build());
+        }
+    }
+
+    private static void writeVar(DataOutputStream out, long v) throws IOException {
+        long z = (v << 1) ^ (v >> 63);
+        while ((z & ~0x7FL) != 0) {
+            out.writeByte((int) ((z & 0x7F) | 0x80));
+            z >>>= 7;
+        }
+        out.writeByte((int) z);
+    }
+
+    private static long readVar(DataInputStream in) throws IOException {
+        long z = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            z |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) break;
+        }
+        return (z >>> 1) ^ -(z & 1);
+    }
+
+    private static byte[] inflate(byte[] packed, int rawLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(packed);
+            byte[] raw = new byte[rawLength];
+            int n = 0;
+            while (n < rawLength && !inflater.finished()) n += inflater.inflate(raw, n, rawLength - n);
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt archive block", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static ByteBuffer read(FileChannel ch, long at, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, at + buf.position()) < 0) throw new EOFException("Truncated archive file");
+        }
+        return buf.flip();
+    }
+
+    /** LocalDateTime as a plain number (no zone is implied; UTC is only the encoding). */
+    private static long millis(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC) * 1000 + t.getNano() / 1_000_000;
+    }
+
+    private Path file(LocalDate day) {
+        return dir.resolve(PREFIX + day + SUFFIX);
+    }
+}
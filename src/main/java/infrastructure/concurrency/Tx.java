@@ -2,20 +2,51 @@ package main.java.infrastructure.concurrency;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public final class Tx {
+    private static final Logger LOGGER = Logger.getLogger(Tx.class.getName());
+
+    // State of the transaction that owns each connection
+    private static final Map<Connection, Context> CONTEXTS = new ConcurrentHashMap<>();
+
+    private static final class Context {
+        final List<Runnable> afterCommit = new ArrayList<>();
+        final Map<Object, Buffer<?>> buffers = new LinkedHashMap<>();
+    }
+
+    private record Buffer<T>(List<T> items, BiConsumer<Connection, List<T>> flush) {
+        void flush(Connection con) {
+            if (!items.isEmpty()) flush.accept(con, items);
+        }
+    }
+
     private final DataSource ds;
     public Tx(DataSource ds) { this.ds = ds; }
 
     public <T> T inTx(Function<Connection, T> work) {
+        Context ctx = new Context();
+        T result;
         try (var con = ds.getConnection()) {
             boolean old = con.getAutoCommit();
             con.setAutoCommit(false);
+            CONTEXTS.put(con, ctx);
             try {
-                T result = work.apply(con);
+                result = work.apply(con);
+                for (Buffer<?> b : ctx.buffers.values()) b.flush(con);
                 con.commit();
-                return result;
             } catch (RuntimeException e) {
                 con.rollback();
                 throw e;
@@ -23,10 +54,74 @@ public final class Tx {
                 con.rollback();
                 throw new RuntimeException(e);
             } finally {
+                CONTEXTS.remove(con);
                 con.setAutoCommit(old);
             }
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
+        // Committed: a failing action must neither report the transaction as failed nor skip the others
+        for (Runnable action : ctx.afterCommit) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "After-commit action failed", e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs the action once the transaction owning this connection commits; it is dropped on rollback.
+     * Connections not managed by {@link #inTx} run the action immediately.
+     */
+    public static void afterCommit(Connection con, Runnable action) {
+        Context ctx = CONTEXTS.get(con);
+        if (ctx == null) action.run(); else ctx.afterCommit.add(action);
+    }
+
+    /**
+     * Per-transaction write buffer for {@code key}: items added to it are handed to {@code flush}
+     * in one call just before the transaction commits, and discarded on rollback. Returns null for
+     * connections not managed by {@link #inTx}; callers then write straight away.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> buffer(Connection con, Object key, BiConsumer<Connection, List<T>> flush) {
+        Context ctx = CONTEXTS.get(con);
+        if (ctx == null) return null;
+        return ((Buffer<T>) ctx.buffers.computeIfAbsent(key, k -> new Buffer<>(new ArrayList<T>(), flush))).items();
+    }
+
+    /**
+     * Runs work inside a savepoint of the current transaction. If it throws, only its own
+     * statements are rolled back, along with any after-commit actions and buffered writes it added.
+     */
+    public static <T> T inSavepoint(Connection con, Supplier<T> work) {
+        Context ctx = CONTEXTS.get(con);
+        int mark = ctx == null ? 0 : ctx.afterCommit.size();
+        Map<Object, Integer> buffered = new HashMap<>();
+        if (ctx != null) ctx.buffers.forEach((k, b) -> buffered.put(k, b.items().size()));
+        Savepoint sp;
+        try {
+            sp = con.setSavepoint();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        try {
+            T result = work.get();
+            con.releaseSavepoint(sp);
+            return result;
+        } catch (RuntimeException | SQLException e) {
+            try {
+                con.rollback(sp);
+            } catch (SQLException ex) {
+                e.addSuppressed(ex);
+            }
+            if (ctx != null) {
+                ctx.afterCommit.subList(mark, ctx.afterCommit.size()).clear();
+                ctx.buffers.forEach((k, b) -> b.items().subList(buffered.getOrDefault(k, 0), b.items().size()).clear());
+            }
+            throw new RuntimeException(e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,123 @@
+package main.java.infrastructure.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CSV rows encoded into one reusable buffer and written to a {@link FileChannel} whenever it
+ * fills, so memory stays constant however many rows are written.
+ * <p>
+ * With gzip, every {@link #checkpoint()} ends the current gzip member. A gzip file made of several
+ * members decompresses as one stream, so a resumed export can append new members after
+ * truncating the file back to the last checkpoint.
+ */
+public final class CsvFileWriter implements AutoCloseable {
+
+    private static final int BUFFER_BYTES = 1 << 18;
+
+    private final FileChannel channel;
+    private final boolean gzip;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private final StringBuilder row = new StringBuilder(256);
+    private GZIPOutputStream member;
+    private boolean firstField = true;
+
+    /** Opens {@code file} positioned at {@code resumeAt} bytes, dropping anything after it. */
+    public CsvFileWriter(Path file, boolean gzip, long resumeAt) {
+        this.gzip = gzip;
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.truncate(resumeAt);
+            channel.position(resumeAt);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open " + file, e);
+        }
+    }
+
+    public CsvFileWriter field(Object value) {
+        if (!firstField) row.append(',');
+        firstField = false;
+        if (value == null) return this;
+        String s = value.toString();
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+            row.append(s);
+        } else {
+            row.append('"').append(s.replace("\"", "\"\"")).append('"');
+        }
+        return this;
+    }
+
+    public void endRow() {
+        row.append('\n');
+        byte[] bytes = row.toString().getBytes(StandardCharsets.UTF_8);
+        row.setLength(0);
+        firstField = true;
+        if (bytes.length > buffer.remaining()) drain();
+        if (bytes.length > buffer.capacity()) write(ByteBuffer.wrap(bytes));
+        else buffer.put(bytes);
+    }
+
+    /** Flush everything written so far to disk; returns the file size to resume from. */
+    public long checkpoint() {
+        drain();
+        try {
+            if (member != null) {
+                member.finish();
+                member.flush();
+                member = null;
+            }
+            channel.force(false);
+            return channel.position();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        checkpoint();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void drain() {
+        buffer.flip();
+        if (buffer.hasRemaining()) write(buffer);
+        buffer.clear();
+    }
+
+    private void write(ByteBuffer bytes) {
+        try {
+            if (!gzip) {
+                while (bytes.hasRemaining()) channel.write(bytes);
+                return;
+            }
+            if (member == null) member = new GZIPOutputStream(unclosable(), BUFFER_BYTES);
+            member.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+            bytes.position(bytes.limit());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Channel stream that survives the end of a gzip member. */
+    private OutputStream unclosable() {
+        OutputStream out = Channels.newOutputStream(channel);
+        return new OutputStream() {
+            @Override public void write(int b) throws IOException { out.write(b); }
+            @Override public void write(byte[] b, int off, int len) throws IOException { out.write(b, off, len); }
+            @Override public void close() { }
+        };
+    }
+}
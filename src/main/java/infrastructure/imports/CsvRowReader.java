@@ -0,0 +1,115 @@
+package main.java.infrastructure.imports;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming CSV parser (RFC 4180: quoted fields may hold commas, quotes doubled as {@code ""} and
+ * line breaks). Reads through a fixed character buffer, so memory does not grow with the file;
+ * only the record being parsed is held.
+ */
+public final class CsvRowReader implements AutoCloseable {
+
+    private static final int BUFFER_CHARS = 1 << 16;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_CHARS];
+    private final StringBuilder field = new StringBuilder(64);
+    private final List<String> fields = new ArrayList<>();
+    private int pos, limit;
+    private long line = 1;
+    private long recordLine;
+
+    public CsvRowReader(Path file) {
+        try {
+            this.in = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open " + file, e);
+        }
+    }
+
+    /** Fields of the next record, or null at end of file. Blank lines are skipped. */
+    public String[] next() {
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false, inRecord = false, wasQuoted = false;
+        recordLine = line;
+        int c;
+        while ((c = read()) >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    if (peek() == '"') { read(); field.append('"'); }
+                    else quoted = false;
+                } else {
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                }
+                continue;
+            }
+            if (c == '\r') continue;
+            if (c == '\n') {
+                line++;
+                if (!inRecord) { recordLine = line; continue; }
+                break;
+            }
+            inRecord = true;
+            if (c == ',') {
+                fields.add(value(wasQuoted));
+                wasQuoted = false;
+            } else if (c == '"' && field.isEmpty() && !wasQuoted) {
+                quoted = wasQuoted = true;
+            } else {
+                field.append((char) c);
+            }
+        }
+        if (!inRecord) return null;
+        fields.add(value(wasQuoted));
+        return fields.toArray(new String[0]);
+    }
+
+    /** Line number the last record returned by {@link #next()} started on. */
+    public long line() { return recordLine; }
+
+    @Override
+    public void close() {
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String value(boolean quoted) {
+        String v = quoted ? field.toString() : field.toString().trim();
+        field.setLength(0);
+        return v;
+    }
+
+    private int read() {
+        if (pos == limit && !fill()) return -1;
+        return buffer[pos++];
+    }
+
+    private int peek() {
+        if (pos == limit && !fill()) return -1;
+        return buffer[pos];
+    }
+
+    private boolean fill() {
+        try {
+            int n = in.read(buffer, 0, buffer.length);
+            if (n <= 0) return false;
+            pos = 0;
+            limit = n;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
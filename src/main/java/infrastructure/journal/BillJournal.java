@@ -0,0 +1,213 @@
+package main.java.infrastructure.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped journal of opaque records, used by the till to keep selling while
+ * the database is unreachable.
+ * <p>
+ * Layout: a 32-byte header ({@code magic, version, replayed offset}) followed by records of
+ * {@code [int length][int crc32c][payload]}. Every append also writes a zero length after the
+ * record so a scan stops there; a record whose checksum does not match (a torn write) ends the
+ * journal the same way. Appends return once a flusher thread has forced them to disk; the
+ * flusher forces whatever has accumulated since its last pass, so concurrent tills share fsyncs.
+ * Once every record is replayed the journal rewinds to the start of the file.
+ */
+public final class BillJournal implements AutoCloseable {
+
+    private static final int MAGIC = 0x53594F4A; // "SYOJ"
+    private static final int VERSION = 1;
+    private static final int HEADER = 32;
+    private static final int REPLAYED_AT = 8;
+    private static final int RECORD_HEADER = 8;
+    private static final long GROW_BY = 16L << 20;
+    private static final long FLUSH_INTERVAL_MS = 2;
+
+    /** A record read back from the journal; {@code end} is the offset to mark once it is replayed. */
+    public record Entry(long end, byte[] payload) {}
+
+    private final FileChannel channel;
+    private final Thread flusher;
+    private MappedByteBuffer map;       // guarded by this
+    private long writePos;              // guarded by this
+    private long durablePos;            // guarded by this
+    private long replayedPos;           // guarded by this
+    private long rewinds;               // guarded by this
+    private boolean closed;             // guarded by this
+
+    public BillJournal(Path file) {
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean fresh = channel.size() < HEADER;
+            remap(Math.max(channel.size(), GROW_BY));
+            if (fresh) {
+                map.putInt(0, MAGIC).putInt(4, VERSION).putLong(REPLAYED_AT, HEADER).putInt(HEADER, 0);
+                map.force();
+            } else if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION) {
+                throw new IllegalStateException("Not a bill journal: " + file);
+            }
+            replayedPos = map.getLong(REPLAYED_AT);
+            writePos = scanEnd(replayedPos);
+            durablePos = writePos;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal " + file, e);
+        }
+        flusher = new Thread(this::flushLoop, "bill-journal-flush");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /** Append a record and wait until it is on disk. */
+    public void append(byte[] payload) {
+        long end, epoch;
+        synchronized (this) {
+            if (closed) throw new IllegalStateException("Journal is closed");
+            end = writePos + RECORD_HEADER + payload.length;
+            if (end + 4 > map.capacity()) remap(end + 4 + GROW_BY);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            int pos = (int) writePos;
+            map.putInt((int) end, 0);      // terminator first, then the record over the old one
+            map.put(pos + RECORD_HEADER, payload);
+            map.putInt(pos + 4, (int) crc.getValue());
+            map.putInt(pos, payload.length);
+            writePos = end;
+            epoch = rewinds;
+            notifyAll();
+        }
+        awaitDurable(end, epoch);
+    }
+
+    /** Records on disk but not yet marked replayed, oldest first. */
+    public synchronized List<Entry> pending() {
+        List<Entry> out = new ArrayList<>();
+        long pos = replayedPos;
+        while (pos < durablePos) {
+            int len = map.getInt((int) pos);
+            byte[] payload = new byte[len];
+            map.get((int) pos + RECORD_HEADER, payload);
+            pos += RECORD_HEADER + len;
+            out.add(new Entry(pos, payload));
+        }
+        return out;
+    }
+
+    public synchronized boolean hasPending() {
+        return replayedPos < writePos;
+    }
+
+    /** Everything up to {@code end} has reached the database; rewinds when nothing is left. */
+    public synchronized void markReplayed(long end) {
+        replayedPos = end;
+        if (replayedPos == writePos) {
+            // Terminator at the start first, so a crash never exposes replayed records again
+            map.putInt(HEADER, 0);
+            map.putLong(REPLAYED_AT, HEADER);
+            replayedPos = writePos = durablePos = HEADER;
+            rewinds++;
+        } else {
+            map.putLong(REPLAYED_AT, replayedPos);
+        }
+        map.force();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Only durable records are replayed, so a rewind since the append means it was flushed
+    private synchronized void awaitDurable(long end, long epoch) {
+        while (durablePos < end && rewinds == epoch) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for the journal", e);
+            }
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            synchronized (this) {
+                while (durablePos >= writePos && !closed) {
+                    try {
+                        wait(100);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (durablePos >= writePos) return; // closed and nothing left
+            }
+            try {
+                // Let appends from other tills pile up so one fsync covers them all
+                Thread.sleep(FLUSH_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long target, epoch;
+            MappedByteBuffer toForce;
+            synchronized (this) {
+                target = writePos;
+                epoch = rewinds;
+                toForce = map;
+            }
+            toForce.force();
+            synchronized (this) {
+                if (epoch == rewinds && target > durablePos) durablePos = target;
+                notifyAll();
+            }
+        }
+    }
+
+    /** Offset just past the last intact record. */
+    private long scanEnd(long from) {
+        long pos = from;
+        CRC32C crc = new CRC32C();
+        while (pos + RECORD_HEADER <= map.capacity()) {
+            int len = map.getInt((int) pos);
+            if (len <= 0 || pos + RECORD_HEADER + len > map.capacity()) break;
+            byte[] payload = new byte[len];
+            map.get((int) pos + RECORD_HEADER, payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != map.getInt((int) pos + 4)) break;
+            pos += RECORD_HEADER + len;
+        }
+        if (pos + 4 <= map.capacity()) map.putInt((int) pos, 0); // cut off a torn tail
+        return pos;
+    }
+
+    private void remap(long size) {
+        if (size > Integer.MAX_VALUE) throw new IllegalStateException("Journal is full; replay it before selling offline");
+        try {
+            if (map != null) map.force();
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            map.order(ByteOrder.BIG_ENDIAN);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map journal", e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package main.java.infrastructure.persistence;
+
+import main.java.domain.inventory.Batch;
+import main.java.domain.inventory.StockLocation;
+import main.java.domain.shared.Code;
+import main.java.domain.shared.Quantity;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Maps batch rows selected with {@link #COLUMNS} (in that order) to {@link Batch}.
+ * Reads by column index, takes dates as java.time directly from the driver (no zone conversion),
+ * shares one {@link Code} per product code and reuses {@link Quantity} instances for small values,
+ * so a row costs little more than the Batch itself.
+ */
+public final class BatchRowMapper {
+
+    /** Column list every mapped query must select first, in this order. */
+    public static final String COLUMNS = "id, product_code, location, received_at, expiry, quantity";
+
+    static final int ID = 1;
+    static final int PRODUCT_CODE = 2;
+    static final int LOCATION = 3;
+    static final int RECEIVED_AT = 4;
+    static final int EXPIRY = 5;
+    static final int QUANTITY = 6;
+
+    private static final StockLocation[] LOCATIONS = StockLocation.values();
+
+    private static final Quantity[] SMALL_QUANTITIES = new Quantity[1024];
+
+    static {
+        for (int i = 0; i < SMALL_QUANTITIES.length; i++) {
+            SMALL_QUANTITIES[i] = new Quantity(i);
+        }
+    }
+
+    private BatchRowMapper() {}
+
+    public static Batch map(ResultSet rs) throws SQLException {
+        return new Batch(
+                rs.getLong(ID),
+                code(rs.getString(PRODUCT_CODE)),
+                location(rs.getString(LOCATION)),
+                rs.getObject(RECEIVED_AT, LocalDateTime.class),
+                rs.getObject(EXPIRY, LocalDate.class),
+                quantity(rs.getInt(QUANTITY)));
+    }
+
+    /** Canonical Code for a product code string; one instance per distinct value. */
+    static Code code(String value) {
+        return Code.of(value);
+    }
+
+    static Quantity quantity(int value) {
+        return value >= 0 && value < SMALL_QUANTITIES.length ? SMALL_QUANTITIES[value] : new Quantity(value);
+    }
+
+    static StockLocation location(String name) {
+        // Three constants: a linear scan beats hashing the name in Enum.valueOf
+        for (StockLocation l : LOCATIONS) {
+            if (l.name().equals(name)) return l;
+        }
+        return StockLocation.valueOf(name); // throws with the usual message
+    }
+}
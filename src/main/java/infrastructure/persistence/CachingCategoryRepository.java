@@ -0,0 +1,147 @@
+package main.java.infrastructure.persistence;
+
+import main.java.domain.product.Category;
+import main.java.domain.repository.CategoryRepository;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Serves category reads from an immutable snapshot. The snapshot holds every category and the
+ * active ones, both already in display order, plus lookups by code and by prefix. Reads take no
+ * lock and never see a half-applied change. A write goes to the database first. A copy of the
+ * snapshot with the change applied then replaces the current one. The snapshot is reloaded after
+ * {@value #TTL_MINUTES} minutes, which bounds how long a change made elsewhere goes unseen. A code
+ * or prefix the snapshot does not know is looked up in the database.
+ */
+public final class CachingCategoryRepository implements CategoryRepository {
+
+    private static final long TTL_MINUTES = 10;
+    private static final Comparator<Category> DISPLAY_ORDER =
+            Comparator.comparingInt(Category::displayOrder).thenComparing(Category::code);
+
+    private record Snapshot(List<Category> all, List<Category> active, Map<String, Category> byCode,
+                            Map<String, Category> byPrefix, long loadedAt) {
+
+        static Snapshot of(Collection<Category> categories, long loadedAt) {
+            List<Category> all = categories.stream().sorted(DISPLAY_ORDER).toList();
+            Map<String, Category> byCode = new HashMap<>();
+            Map<String, Category> byPrefix = new HashMap<>();
+            for (Category c : all) {
+                byCode.put(key(c.code()), c);
+                byPrefix.put(key(c.prefix()), c);
+            }
+            return new Snapshot(all, all.stream().filter(Category::active).toList(),
+                    Map.copyOf(byCode), Map.copyOf(byPrefix), loadedAt);
+        }
+
+        boolean fresh() {
+            return System.nanoTime() - loadedAt < TimeUnit.MINUTES.toNanos(TTL_MINUTES);
+        }
+    }
+
+    private final CategoryRepository delegate;
+    private volatile Snapshot snapshot;
+
+    public CachingCategoryRepository(CategoryRepository delegate) { this.delegate = delegate; }
+
+    @Override
+    public List<Category> findAllActive() {
+        return current().active();
+    }
+
+    @Override
+    public List<Category> findAll() {
+        return current().all();
+    }
+
+    @Override
+    public Optional<Category> findByCode(String code) {
+        Category c = current().byCode().get(key(code));
+        if (c != null) return Optional.of(c);
+        Optional<Category> found = delegate.findByCode(code);
+        found.ifPresent(f -> apply(f.code(), prev -> f));
+        return found;
+    }
+
+    @Override
+    public Optional<Category> findByPrefix(String prefix) {
+        Category c = current().byPrefix().get(key(prefix));
+        if (c != null) return Optional.of(c);
+        Optional<Category> found = delegate.findByPrefix(prefix);
+        found.ifPresent(f -> apply(f.code(), prev -> f));
+        return found;
+    }
+
+    @Override
+    public void save(Category category) {
+        delegate.save(category);
+        apply(category.code(), prev -> category);
+    }
+
+    @Override
+    public void delete(String code) {
+        delegate.delete(code);
+        apply(code, prev -> prev == null ? null : with(prev, prev.nextSequence(), false));
+    }
+
+    @Override
+    public int reserveSequence(String categoryCode, int count) {
+        int first = delegate.reserveSequence(categoryCode, count);
+        apply(categoryCode, prev -> prev == null ? null : with(prev, first + count, prev.active()));
+        return first;
+    }
+
+    /** Load every category in one query, ahead of the first use. */
+    public void preload() {
+        reload();
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        return s != null && s.fresh() ? s : reload();
+    }
+
+    // Loads and writes are serialised, so a load that missed a write is followed by that write's apply
+    private synchronized Snapshot reload() {
+        Snapshot s = snapshot;
+        if (s != null && s.fresh()) return s;
+        s = Snapshot.of(delegate.findAll(), System.nanoTime());
+        snapshot = s;
+        return s;
+    }
+
+    /**
+     * Copy-on-write: a new snapshot with the category replaced by {@code change} of its cached
+     * version (null if not cached; returning null changes nothing). Like the database,
+     * next_sequence never goes back.
+     */
+    private synchronized void apply(String code, UnaryOperator<Category> change) {
+        Snapshot s = snapshot;
+        if (s == null) return;
+        Category prev = s.byCode().get(key(code));
+        Category changed = change.apply(prev);
+        if (changed == null) return;
+        if (prev != null && prev.nextSequence() > changed.nextSequence()) {
+            changed = with(changed, prev.nextSequence(), changed.active());
+        }
+        Map<String, Category> byCode = new HashMap<>(s.byCode());
+        byCode.put(key(changed.code()), changed);
+        snapshot = Snapshot.of(byCode.values(), s.loadedAt());
+    }
+
+    private static Category with(Category c, int nextSequence, boolean active) {
+        return new Category(c.code(), c.name(), c.description(), c.prefix(), nextSequence, c.displayOrder(), active);
+    }
+
+    private static String key(String value) {
+        return value.trim().toUpperCase(Locale.ROOT);
+    }
+}
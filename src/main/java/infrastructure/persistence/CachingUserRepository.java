@@ -0,0 +1,64 @@
+package main.java.infrastructure.persistence;
+
+import main.java.domain.repository.UserRepository;
+import main.java.domain.user.User;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps users found by name in memory so a login needs no database round trip. An entry is
+ * dropped on {@link #upsert} through this repository and expires after {@value #TTL_MINUTES}
+ * minutes, which bounds how long a change made elsewhere goes unseen. Unknown names are not
+ * cached, so mistyped usernames cannot fill the cache.
+ */
+public final class CachingUserRepository implements UserRepository {
+
+    private static final long TTL_MINUTES = 10;
+
+    private record Entry(User user, long expiresAt) {}
+
+    private final UserRepository delegate;
+    private final Map<String, Entry> byName = new ConcurrentHashMap<>();
+
+    public CachingUserRepository(UserRepository delegate) { this.delegate = delegate; }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        Entry e = byName.get(username);
+        if (e != null && e.expiresAt() - System.nanoTime() > 0) return Optional.of(e.user());
+        Optional<User> user = delegate.findByUsername(username);
+        user.ifPresentOrElse(this::put, () -> byName.remove(username));
+        return user;
+    }
+
+    @Override
+    public List<User> findAll() {
+        List<User> all = delegate.findAll();
+        all.forEach(this::put);
+        return all;
+    }
+
+    @Override
+    public void upsert(User user) {
+        byName.remove(user.username());
+        try {
+            delegate.upsert(user);
+        } finally {
+            // Also drop anything a concurrent lookup cached while the write was in progress
+            byName.remove(user.username());
+        }
+    }
+
+    /** Load every user in one query, ahead of the first login. */
+    public void preload() {
+        findAll();
+    }
+
+    private void put(User user) {
+        byName.put(user.username(), new Entry(user, System.nanoTime() + TimeUnit.MINUTES.toNanos(TTL_MINUTES)));
+    }
+}
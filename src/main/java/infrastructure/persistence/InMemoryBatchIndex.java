@@ -0,0 +1,309 @@
+package main.java.infrastructure.persistence;
+
+import main.java.domain.inventory.Batch;
+import main.java.domain.inventory.StockLocation;
+import main.java.infrastructure.concurrency.Tx;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of batches with stock, grouped by (product, location) and kept in
+ * both deduction orders: FEFO (expiry ascending with nulls last, then received_at, then id)
+ * and FIFO (received_at, then id).
+ * <p>
+ * The index is loaded once from the database and then maintained by the repositories'
+ * write methods after their transaction commits. Every entry carries the row's
+ * {@code version}; writes are guarded by it so a stale entry (changed by another till,
+ * or by a rolled back transaction) is detected and its (product, location) reloaded.
+ * Rows re-read inside a transaction may include its uncommitted writes, so they are
+ * returned to the caller and only published once that transaction commits.
+ * Per-slot totals and low-stock thresholds are mirrored into a {@link StockTable}.
+ */
+public final class InMemoryBatchIndex {
+
+    static final Comparator<Entry> DEDUCTION_ORDER = Comparator
+            .comparing(Entry::expiry, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Entry::receivedAt)
+            .thenComparingLong(Entry::id);
+
+    static final Comparator<Entry> RECEIPT_ORDER = Comparator
+            .comparing(Entry::receivedAt)
+            .thenComparingLong(Entry::id);
+
+    /** Candidate ordering served by the index. */
+    enum Order { FEFO, FIFO }
+
+    private static final String SELECT_COLUMNS =
+            "SELECT " + BatchRowMapper.COLUMNS + ", version FROM batch ";
+    private static final int VERSION = BatchRowMapper.QUANTITY + 1;
+
+    /** Indexed batch row. */
+    record Entry(long id, String productCode, StockLocation location, LocalDateTime receivedAt,
+                 LocalDate expiry, int quantity, int version) {
+        Key key() { return new Key(productCode, location); }
+
+        Batch toBatch() {
+            return new Batch(id, BatchRowMapper.code(productCode), location, receivedAt, expiry, BatchRowMapper.quantity(quantity));
+        }
+    }
+
+    /** (product, location) slot identity; product codes are case-insensitive like the column. */
+    record Key(String productCode, StockLocation location) {
+        Key {
+            productCode = productCode.trim().toUpperCase();
+        }
+    }
+
+    /** Ordered batches for one (product, location). */
+    private static final class Slot {
+        private final TreeSet<Entry> ordered = new TreeSet<>(DEDUCTION_ORDER);
+        private final TreeSet<Entry> byReceipt = new TreeSet<>(RECEIPT_ORDER);
+        private volatile boolean stale;
+        private long generation; // bumped on every change, guarded by the slot
+
+        void add(Entry e) { ordered.add(e); byReceipt.add(e); }
+        void remove(Entry e) { ordered.remove(e); byReceipt.remove(e); }
+        void clear() { ordered.clear(); byReceipt.clear(); }
+        TreeSet<Entry> view(Order order) { return order == Order.FIFO ? byReceipt : ordered; }
+    }
+
+    private final Map<Key, Slot> slots = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+    private final StockTable stock = new StockTable();
+    private volatile boolean loaded;
+
+    /** Load every batch with stock, once. Later calls are no-ops. */
+    public void ensureLoaded(Connection con) {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            try (var ps = con.prepareStatement(SELECT_COLUMNS + "WHERE quantity > 0")) {
+                ps.setFetchSize(1000);
+                try (var rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        put(read(rs));
+                    }
+                }
+                loadThresholds(con);
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to load batch index", e);
+            }
+            loaded = true;
+        }
+    }
+
+    private void loadThresholds(Connection con) throws SQLException {
+        try (var ps = con.prepareStatement("SELECT product_code, location, threshold FROM stock_threshold");
+             var rs = ps.executeQuery()) {
+            while (rs.next()) {
+                try {
+                    stock.setThreshold(rs.getString(1), StockLocation.valueOf(rs.getString(2).trim().toUpperCase()), rs.getInt(3));
+                } catch (IllegalArgumentException ignored) {
+                    // threshold for a location this build does not know about
+                }
+            }
+        }
+    }
+
+    /** Committed quantity for the slot from the stock table, reloading the slot first if it was marked stale. */
+    int available(Connection con, Key key) {
+        ensureLoaded(con);
+        Slot slot = slots.get(key);
+        if (slot != null && slot.stale) {
+            int total = 0;
+            for (Entry e : refresh(con, key)) total += e.quantity();
+            return total;
+        }
+        return stock.quantity(key.productCode(), key.location());
+    }
+
+    StockTable stock() {
+        return stock;
+    }
+
+    /** Batches with stock for the slot in the given order, reloading it first if it was marked stale. */
+    List<Batch> candidates(Connection con, Key key, Order order) {
+        ensureLoaded(con);
+        Slot slot = slots.get(key);
+        if (slot != null && slot.stale) {
+            return reload(con, key, order);
+        }
+        if (slot == null) return List.of();
+        return snapshot(slot, order);
+    }
+
+    /**
+     * Batches with stock for the slot as currently visible on this connection, in the given order.
+     * Rows are ordered in memory, so the query needs no ORDER BY (and no filesort).
+     */
+    List<Batch> reload(Connection con, Key key, Order order) {
+        List<Entry> rows = new ArrayList<>(refresh(con, key));
+        rows.sort(order == Order.FIFO ? RECEIPT_ORDER : DEDUCTION_ORDER);
+        List<Batch> out = new ArrayList<>(rows.size());
+        for (Entry e : rows) out.add(e.toBatch());
+        return out;
+    }
+
+    /**
+     * Read the slot's rows on this connection. They replace the slot once the transaction
+     * commits, unless the slot changed in the meantime; then it is marked stale instead.
+     */
+    private List<Entry> refresh(Connection con, Key key) {
+        Slot slot = slots.computeIfAbsent(key, k -> new Slot());
+        long seen;
+        synchronized (slot) {
+            seen = slot.generation;
+        }
+        List<Entry> rows = new ArrayList<>();
+        try (var ps = con.prepareStatement(SELECT_COLUMNS + "WHERE product_code=? AND location=? AND quantity>0")) {
+            ps.setString(1, key.productCode());
+            ps.setString(2, key.location().name());
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) rows.add(read(rs));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to reload batches for " + key.productCode() + "@" + key.location(), e);
+        }
+        Tx.afterCommit(con, () -> publish(key, slot, seen, rows));
+        return rows;
+    }
+
+    private void publish(Key key, Slot slot, long seen, List<Entry> rows) {
+        synchronized (slot) {
+            if (slot.generation != seen) {
+                slot.stale = true;
+                return;
+            }
+            for (Entry old : slot.ordered) byId.remove(old.id());
+            slot.clear();
+            int total = 0;
+            for (Entry e : rows) {
+                slot.add(e);
+                byId.put(e.id(), e);
+                total += e.quantity();
+            }
+            stock.set(key.productCode(), key.location(), total);
+            slot.stale = false;
+            slot.generation++;
+        }
+    }
+
+    private static List<Batch> snapshot(Slot slot, Order order) {
+        synchronized (slot) {
+            TreeSet<Entry> view = slot.view(order);
+            List<Batch> out = new ArrayList<>(view.size());
+            for (Entry e : view) out.add(e.toBatch());
+            return out;
+        }
+    }
+
+    /**
+     * Re-read one batch row on this connection. Its slot is marked stale straight away, which is
+     * safe whether or not the transaction commits, so the next use re-reads it from the table.
+     */
+    Optional<Entry> reloadBatch(Connection con, long batchId) {
+        try (var ps = con.prepareStatement(SELECT_COLUMNS + "WHERE id=?")) {
+            ps.setLong(1, batchId);
+            try (var rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    keyOf(batchId).ifPresent(this::markStale);
+                    return Optional.empty();
+                }
+                Entry e = read(rs);
+                markStale(e.key());
+                return Optional.of(e);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to reload batch " + batchId, e);
+        }
+    }
+
+    /** Version the index expects for the row, if the batch is indexed. */
+    Optional<Integer> version(long batchId) {
+        Entry e = byId.get(batchId);
+        return e == null ? Optional.empty() : Optional.of(e.version());
+    }
+
+    Optional<Key> keyOf(long batchId) {
+        Entry e = byId.get(batchId);
+        return e == null ? Optional.empty() : Optional.of(e.key());
+    }
+
+    /** Insert or replace an entry; batches without stock are dropped from the slot. */
+    void put(Entry e) {
+        Slot slot = slots.computeIfAbsent(e.key(), k -> new Slot());
+        synchronized (slot) {
+            Entry old = byId.get(e.id());
+            int delta = 0;
+            if (old != null) {
+                slot.remove(old);
+                delta -= old.quantity();
+            }
+            if (e.quantity() > 0) {
+                slot.add(e);
+                byId.put(e.id(), e);
+                delta += e.quantity();
+            } else {
+                byId.remove(e.id());
+            }
+            if (delta != 0) stock.add(e.productCode(), e.location(), delta);
+            slot.generation++;
+        }
+    }
+
+    /** Apply a committed decrement made against {@code expectedVersion}; a mismatch marks the slot stale. */
+    void deducted(long batchId, int take, int expectedVersion) {
+        Entry e = byId.get(batchId);
+        if (e == null) return;
+        if (e.version() != expectedVersion) {
+            markStale(e.key());
+            return;
+        }
+        put(new Entry(e.id(), e.productCode(), e.location(), e.receivedAt(), e.expiry(),
+                e.quantity() - take, expectedVersion + 1));
+    }
+
+    void remove(long batchId) {
+        Entry e = byId.get(batchId);
+        if (e == null) return;
+        Slot slot = slots.get(e.key());
+        if (slot == null) return;
+        synchronized (slot) {
+            if (byId.remove(batchId) == null) return;
+            slot.remove(e);
+            stock.add(e.productCode(), e.location(), -e.quantity());
+            slot.generation++;
+        }
+    }
+
+    /** Force the slot to be re-read from the database on next use. */
+    void markStale(Key key) {
+        Slot slot = slots.computeIfAbsent(key, k -> new Slot());
+        synchronized (slot) {
+            slot.stale = true;
+            slot.generation++;
+        }
+    }
+
+    static Entry read(ResultSet rs) throws SQLException {
+        return new Entry(
+                rs.getLong(BatchRowMapper.ID),
+                rs.getString(BatchRowMapper.PRODUCT_CODE),
+                BatchRowMapper.location(rs.getString(BatchRowMapper.LOCATION)),
+                rs.getObject(BatchRowMapper.RECEIVED_AT, LocalDateTime.class),
+                rs.getObject(BatchRowMapper.EXPIRY, LocalDate.class),
+                rs.getInt(BatchRowMapper.QUANTITY),
+                rs.getInt(VERSION));
+    }
+}
@@ -0,0 +1,110 @@
+package main.java.infrastructure.persistence;
+
+import main.java.domain.product.Product;
+import main.java.domain.repository.ProductRepository;
+import main.java.domain.shared.Code;
+import main.java.infrastructure.concurrency.Tx;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Adds a {@link ProductSearchIndex} to a product repository, so search and existence checks are
+ * answered from memory. Writes through this repository update the index once they are stored
+ * ({@link #upsertAll} after its transaction commits). {@link #findByCode} still reads the
+ * database, so prices are always current; its result refreshes the index entry. If the database
+ * cannot be read, it answers from the index instead, so an offline till can keep scanning. Changes made by
+ * other tills are picked up by a full reload, which runs in the background once the index is older
+ * than {@value #REFRESH_MINUTES} minutes. Until the first load, everything goes to the database.
+ */
+public final class IndexedProductRepository implements ProductRepository {
+
+    private static final long REFRESH_MINUTES = 10;
+
+    private final ProductRepository delegate;
+    private final ProductSearchIndex index = new ProductSearchIndex();
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private volatile long loadedAt;
+    private volatile boolean loaded;
+
+    public IndexedProductRepository(ProductRepository delegate) { this.delegate = delegate; }
+
+    @Override
+    public void upsert(Product p) {
+        delegate.upsert(p);
+        index.put(p);
+    }
+
+    @Override
+    public void upsertAll(Connection con, List<Product> products) {
+        delegate.upsertAll(con, products);
+        Tx.afterCommit(con, () -> products.forEach(index::put));
+    }
+
+    @Override
+    public Optional<Product> findByCode(Code code) {
+        Optional<Product> p;
+        try {
+            p = delegate.findByCode(code);
+        } catch (RuntimeException e) {
+            Product cached = loaded ? index.get(code.value()) : null;
+            if (cached == null) throw e;
+            return Optional.of(cached);
+        }
+        if (loaded) p.ifPresentOrElse(index::put, () -> index.remove(code.value()));
+        return p;
+    }
+
+    /** Every product from the database; also reloads the index. */
+    @Override
+    public List<Product> findAll() {
+        List<Product> all = delegate.findAll();
+        index.replaceAll(all);
+        loadedAt = System.nanoTime();
+        loaded = true;
+        return all;
+    }
+
+    @Override
+    public boolean deleteByCode(Code code) {
+        boolean deleted = delegate.deleteByCode(code);
+        index.remove(code.value());
+        return deleted;
+    }
+
+    /** In memory when indexed; a code the index does not know is checked in the database once. */
+    @Override
+    public boolean exists(Code code) {
+        if (loaded && index.get(code.value()) != null) {
+            refreshIfStale();
+            return true;
+        }
+        return findByCode(code).isPresent();
+    }
+
+    @Override
+    public List<Product> search(String query, int limit) {
+        if (!loaded) findAll();
+        refreshIfStale();
+        return index.search(query, limit);
+    }
+
+    private void refreshIfStale() {
+        if (System.nanoTime() - loadedAt < TimeUnit.MINUTES.toNanos(REFRESH_MINUTES)) return;
+        if (!reloading.compareAndSet(false, true)) return;
+        Thread t = new Thread(() -> {
+            try {
+                findAll();
+            } catch (RuntimeException e) {
+                loadedAt = System.nanoTime(); // try again after another interval
+            } finally {
+                reloading.set(false);
+            }
+        }, "product-index-reload");
+        t.setDaemon(true);
+        t.start();
+    }
+}
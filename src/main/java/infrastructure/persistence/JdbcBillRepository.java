@@ -2,55 +2,216 @@ package main.java.infrastructure.persistence;
 
 import main.java.domain.billing.Bill;
 import main.java.domain.billing.BillLine;
+import main.java.domain.billing.DuplicateCheckoutException;
 import main.java.domain.repository.BillRepository;
+import main.java.domain.shared.Code;
+import main.java.domain.shared.Money;
+import main.java.domain.shared.Quantity;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
 
 public final class JdbcBillRepository implements BillRepository {
 
+    private static final String REQUEST_ID_KEY = "uq_bill_request_id";
+    private static final int MAX_ROWS_PER_INSERT = 500;
+    private static final int HEADER_PARAMS = 8;
+    private static final String HEADER_INSERT =
+            "INSERT INTO bill(serial, date_time, subtotal_cents, discount_cents, total_cents, cash_cents, change_cents, request_id) VALUES ";
+
+    private static volatile String fullHeaderInsert;
+
     @Override
-    public long save(Connection con, Bill bill) {
+    public long save(Connection con, Bill bill, String requestId) {
         try {
-            var sql = """
-        INSERT INTO bill(serial, date_time, subtotal_cents, discount_cents, total_cents, cash_cents, change_cents)
-        VALUES(?,?,?,?,?,?,?)
-      """;
-            try (var ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                ps.setString(1, bill.serial());
-                ps.setTimestamp(2, java.sql.Timestamp.valueOf(bill.dateTime()));
-                ps.setLong(3, bill.subtotal().amount().movePointRight(2).longValueExact());
-                ps.setLong(4, bill.discount().amount().movePointRight(2).longValueExact());
-                ps.setLong(5, bill.total().amount().movePointRight(2).longValueExact());
-                ps.setLong(6, bill.cash().amount().movePointRight(2).longValueExact());
-                ps.setLong(7, bill.change().amount().movePointRight(2).longValueExact());
-                ps.executeUpdate();
+            try (var ps = con.prepareStatement(headerInsert(1), Statement.RETURN_GENERATED_KEYS)) {
+                bindHeader(ps, 0, bill, requestId);
+                try {
+                    ps.executeUpdate();
+                } catch (SQLIntegrityConstraintViolationException e) {
+                    if (requestId != null && String.valueOf(e.getMessage()).contains(REQUEST_ID_KEY)) {
+                        throw new DuplicateCheckoutException(requestId, e);
+                    }
+                    throw e;
+                }
                 try (var keys = ps.getGeneratedKeys()) {
                     keys.next();
                     long id = keys.getLong(1);
                     insertLines(con, id, bill);
+                    addToDailySales(con, List.of(bill));
                     return id;
                 }
             }
+        } catch (DuplicateCheckoutException e) {
+            throw e;
         } catch (Exception e) { throw new RuntimeException(e); }
     }
 
+    /**
+     * Headers go in multi-row INSERTs of up to {@value #MAX_ROWS_PER_INSERT} bills. MySQL hands out
+     * consecutive auto-increment ids to the rows of one simple INSERT, so the generated keys come back
+     * in row order. Every line of every bill then goes in one batch, which the driver rewrites into
+     * multi-row statements when {@code rewriteBatchedStatements=true} is set on db.url.
+     * A duplicate request id fails the whole call; callers fall back to {@link #save} per bill.
+     */
+    @Override
+    public long[] saveAll(Connection con, List<Bill> bills, List<String> requestIds) {
+        if (bills.isEmpty()) return new long[0];
+        long[] ids = new long[bills.size()];
+        try {
+            for (int from = 0; from < bills.size(); from += MAX_ROWS_PER_INSERT) {
+                int rows = Math.min(MAX_ROWS_PER_INSERT, bills.size() - from);
+                try (var ps = con.prepareStatement(headerInsert(rows), Statement.RETURN_GENERATED_KEYS)) {
+                    for (int r = 0; r < rows; r++) {
+                        bindHeader(ps, r * HEADER_PARAMS, bills.get(from + r), requestIds.get(from + r));
+                    }
+                    ps.executeUpdate();
+                    try (var keys = ps.getGeneratedKeys()) {
+                        for (int r = 0; r < rows; r++) {
+                            if (!keys.next()) throw new IllegalStateException("Missing generated key for bill " + bills.get(from + r).serial());
+                            ids[from + r] = keys.getLong(1);
+                        }
+                    }
+                }
+            }
+            insertLines(con, ids, bills);
+            addToDailySales(con, bills);
+            return ids;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to save " + bills.size() + " bills", e);
+        }
+    }
+
+    /**
+     * Adds the bills to the sales_daily totals in the same transaction. Rows are upserted in key order
+     * so concurrent checkouts selling the same products lock them in the same order.
+     */
+    private static void addToDailySales(Connection con, List<Bill> bills) throws SQLException {
+        Map<String, long[]> totals = new TreeMap<>();
+        for (Bill bill : bills) {
+            String day = bill.dateTime().toLocalDate().toString();
+            for (BillLine l : bill.lines()) {
+                long[] t = totals.computeIfAbsent(day + '|' + l.productCode().value(), k -> new long[2]);
+                t[0] += l.qty().value();
+                t[1] += cents(l.unitPrice()) * l.qty().value();
+            }
+        }
+        if (totals.isEmpty()) return;
+        var sql = new StringBuilder("INSERT INTO sales_daily(day, product_code, qty, revenue_cents) VALUES ");
+        for (int i = 0; i < totals.size(); i++) sql.append(i == 0 ? "(?,?,?,?)" : ",(?,?,?,?)");
+        sql.append(" ON DUPLICATE KEY UPDATE qty = qty + VALUES(qty), revenue_cents = revenue_cents + VALUES(revenue_cents)");
+        try (var ps = con.prepareStatement(sql.toString())) {
+            int p = 0;
+            for (var e : totals.entrySet()) {
+                int bar = e.getKey().indexOf('|');
+                ps.setDate(++p, java.sql.Date.valueOf(e.getKey().substring(0, bar)));
+                ps.setString(++p, e.getKey().substring(bar + 1));
+                ps.setLong(++p, e.getValue()[0]);
+                ps.setLong(++p, e.getValue()[1]);
+            }
+            ps.executeUpdate();
+        }
+    }
+
+    private static String headerInsert(int rows) {
+        if (rows == MAX_ROWS_PER_INSERT && fullHeaderInsert != null) return fullHeaderInsert;
+        var sql = new StringBuilder(HEADER_INSERT.length() + rows * 18).append(HEADER_INSERT);
+        for (int r = 0; r < rows; r++) sql.append(r == 0 ? "(?,?,?,?,?,?,?,?)" : ",(?,?,?,?,?,?,?,?)");
+        if (rows == MAX_ROWS_PER_INSERT) fullHeaderInsert = sql.toString();
+        return sql.toString();
+    }
+
+    /** Binds one header row; total and change are derived in cents instead of converting three more amounts. */
+    private static void bindHeader(PreparedStatement ps, int offset, Bill bill, String requestId) throws SQLException {
+        long subtotal = cents(bill.subtotal());
+        long discount = cents(bill.discount());
+        long cash = cents(bill.cash());
+        long total = subtotal - discount;
+        ps.setString(offset + 1, bill.serial());
+        ps.setTimestamp(offset + 2, Timestamp.valueOf(bill.dateTime()));
+        ps.setLong(offset + 3, subtotal);
+        ps.setLong(offset + 4, discount);
+        ps.setLong(offset + 5, total);
+        ps.setLong(offset + 6, cash);
+        ps.setLong(offset + 7, cash - total);
+        ps.setString(offset + 8, requestId);
+    }
+
+    private static long cents(Money m) {
+        return m.amount().movePointRight(2).longValueExact();
+    }
+
+    @Override
+    public Optional<Bill> findByRequestId(Connection con, String requestId) {
+        var sql = """
+      SELECT id, serial, date_time, discount_cents, cash_cents
+      FROM bill WHERE request_id=?
+    """;
+        try (var ps = con.prepareStatement(sql)) {
+            ps.setString(1, requestId);
+            try (var rs = ps.executeQuery()) {
+                if (!rs.next()) return Optional.empty();
+                long id = rs.getLong("id");
+                var builder = new Bill.Builder()
+                        .id(id)
+                        .serial(rs.getString("serial"))
+                        .dateTime(rs.getTimestamp("date_time").toLocalDateTime())
+                        .discount(Money.of(rs.getLong("discount_cents")))
+                        .cash(Money.of(rs.getLong("cash_cents")));
+                loadLines(con, id, builder);
+                return Optional.of(builder.build());
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load bill for request " + requestId, e);
+        }
+    }
+
+    private void loadLines(Connection con, long billId, Bill.Builder builder) throws Exception {
+        var sql = "SELECT product_code, name, qty, unit_price_cents FROM bill_line WHERE bill_id=? ORDER BY id";
+        try (var ps = con.prepareStatement(sql)) {
+            ps.setLong(1, billId);
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    builder.addLine(new BillLine(Code.of(rs.getString(1)), rs.getString(2),
+                            new Quantity(rs.getInt(3)), Money.of(rs.getLong(4))));
+                }
+            }
+        }
+    }
+
     private void insertLines(Connection con, long billId, Bill bill) throws Exception {
+        insertLines(con, new long[]{billId}, List.of(bill));
+    }
+
+    private void insertLines(Connection con, long[] billIds, List<Bill> bills) throws Exception {
         var sql = """
       INSERT INTO bill_line(bill_id, product_code, name, qty, unit_price_cents, line_total_cents)
       VALUES(?,?,?,?,?,?)
     """;
         try (var ps = con.prepareStatement(sql)) {
-            for (BillLine l : bill.lines()) {
-                ps.setLong(1, billId);
-                ps.setString(2, l.productCode().value());
-                ps.setString(3, l.name());
-                ps.setInt(4, l.qty().value());
-                ps.setLong(5, l.unitPrice().amount().movePointRight(2).longValueExact());
-                ps.setLong(6, l.lineTotal().amount().movePointRight(2).longValueExact());
-                ps.addBatch();
+            for (int i = 0; i < billIds.length; i++) {
+                for (BillLine l : bills.get(i).lines()) {
+                    ps.setLong(1, billIds[i]);
+                    ps.setString(2, l.productCode().value());
+                    ps.setString(3, l.name());
+                    long unit = cents(l.unitPrice());
+                    ps.setInt(4, l.qty().value());
+                    ps.setLong(5, unit);
+                    ps.setLong(6, unit * l.qty().value());
+                    ps.addBatch();
+                }
             }
             ps.executeBatch();
         }
     }
-}
\ No newline at end of file
+}
@@ -37,29 +37,25 @@ public final class JdbcCategoryRepository implements CategoryRepository {
         String sql = "SELECT code, name, description, prefix, next_sequence, display_order, active " +
                     "FROM category WHERE code = ?";
 
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, code);
-            ResultSet rs = stmt.executeQuery();
+        return executeSingle(sql, code, "Failed to find category by code: " + code);
+    }
 
-            if (rs.next()) {
-                return Optional.of(mapToCategory(rs));
-            }
+    @Override
+    public Optional<Category> findByPrefix(String prefix) {
+        String sql = "SELECT code, name, description, prefix, next_sequence, display_order, active " +
+                    "FROM category WHERE prefix = ?";
 
-            return Optional.empty();
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to find category by code: " + code, e);
-        }
+        return executeSingle(sql, prefix, "Failed to find category by prefix: " + prefix);
     }
 
     @Override
     public void save(Category category) {
+        // next_sequence only moves forward: reserveSequence may have handed out codes past the value the caller read
         String sql = "INSERT INTO category (code, name, description, prefix, next_sequence, display_order, active) " +
                     "VALUES (?, ?, ?, ?, ?, ?, ?) " +
                     "ON DUPLICATE KEY UPDATE " +
                     "name = VALUES(name), description = VALUES(description), " +
-                    "prefix = VALUES(prefix), next_sequence = VALUES(next_sequence), " +
+                    "prefix = VALUES(prefix), next_sequence = GREATEST(next_sequence, VALUES(next_sequence)), " +
                     "display_order = VALUES(display_order), active = VALUES(active)";
 
         try (Connection conn = dataSource.getConnection();
@@ -97,25 +93,31 @@ public final class JdbcCategoryRepository implements CategoryRepository {
         }
     }
 
+    /**
+     * One UPDATE both advances the counter and, through LAST_INSERT_ID(expr), leaves the new value on
+     * this connection, so concurrent reservations never overlap and no row lock is held afterwards.
+     */
     @Override
-    public Category incrementSequenceAndSave(String categoryCode) {
-        String sql = "UPDATE category SET next_sequence = next_sequence + 1 WHERE code = ?";
+    public int reserveSequence(String categoryCode, int count) {
+        if (count <= 0) throw new IllegalArgumentException("count must be positive");
+        String sql = "UPDATE category SET next_sequence = LAST_INSERT_ID(next_sequence + ?) WHERE code = ?";
 
         try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, categoryCode);
-            int updated = stmt.executeUpdate();
-
-            if (updated == 0) {
-                throw new RuntimeException("Category not found: " + categoryCode);
+            stmt.setInt(1, count);
+            stmt.setString(2, categoryCode);
+            if (stmt.executeUpdate() == 0) {
+                throw new IllegalArgumentException("Category not found: " + categoryCode);
             }
 
-            return findByCode(categoryCode)
-                .orElseThrow(() -> new RuntimeException("Category not found after update: " + categoryCode));
-
+            try (Statement last = conn.createStatement();
+                 ResultSet rs = last.executeQuery("SELECT LAST_INSERT_ID()")) {
+                rs.next();
+                return rs.getInt(1) - count;
+            }
         } catch (SQLException e) {
-            throw new RuntimeException("Failed to increment sequence for category: " + categoryCode, e);
+            throw new RuntimeException("Failed to reserve sequence for category: " + categoryCode, e);
         }
     }
 
@@ -136,6 +138,22 @@ public final class JdbcCategoryRepository implements CategoryRepository {
         }
     }
 
+    private Optional<Category> executeSingle(String sql, String key, String failure) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, key);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapToCategory(rs));
+                }
+                return Optional.empty();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(failure, e);
+        }
+    }
+
     private Category mapToCategory(ResultSet rs) throws SQLException {
         return new Category(
             rs.getString("code"),
@@ -1,10 +1,19 @@
 package main.java.infrastructure.persistence;
 
+import main.java.domain.inventory.StockLocation;
 import main.java.domain.repository.InventoryAdminRepository;
+import main.java.infrastructure.concurrency.Tx;
 
 import java.sql.*;
 
 public final class JdbcInventoryAdminRepository implements InventoryAdminRepository {
+    private final InMemoryBatchIndex index;
+
+    public JdbcInventoryAdminRepository() { this(null); }
+
+    /** Registers inserted batches with the given index so deductions see them without a reload. */
+    public JdbcInventoryAdminRepository(InMemoryBatchIndex index) { this.index = index; }
+
     @Override
     public long insertBatch(Connection con, String code, String loc,
                             java.time.LocalDateTime receivedAt, java.time.LocalDate expiry, int qty) {
@@ -16,7 +25,15 @@ public final class JdbcInventoryAdminRepository implements InventoryAdminReposit
             if (expiry == null) ps.setNull(4, Types.DATE); else ps.setDate(4, Date.valueOf(expiry));
             ps.setInt(5, qty);
             ps.executeUpdate();
-            try (var keys = ps.getGeneratedKeys()){ keys.next(); return keys.getLong(1); }
+            try (var keys = ps.getGeneratedKeys()){
+                keys.next();
+                long id = keys.getLong(1);
+                if (index != null) {
+                    var entry = new InMemoryBatchIndex.Entry(id, code, StockLocation.valueOf(loc), receivedAt, expiry, qty, 0);
+                    Tx.afterCommit(con, () -> index.put(entry));
+                }
+                return id;
+            }
         } catch (Exception e){ throw new RuntimeException(e); }
     }
 }
\ No newline at end of file
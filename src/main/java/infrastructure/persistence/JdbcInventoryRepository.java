@@ -1,69 +1,126 @@
 package main.java.infrastructure.persistence;
 
 import main.java.domain.inventory.Batch;
+import main.java.domain.inventory.Movement;
 import main.java.domain.inventory.StockLocation;
 import main.java.domain.repository.InventoryRepository;
+import main.java.domain.repository.MovementRepository;
 import main.java.domain.shared.Code;
-import main.java.domain.shared.Quantity;
+import main.java.infrastructure.concurrency.Tx;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public final class JdbcInventoryRepository implements InventoryRepository {
 
+    // MySQL Connector/J only streams rows one at a time (instead of buffering the whole result) for this fetch size
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    private static final int MAX_ROWS_PER_INSERT = 500;
+
     private final DataSource dataSource;
+    private final InMemoryBatchIndex index;
+    private final MovementRepository movements;
 
     public JdbcInventoryRepository(DataSource dataSource) {
+        this(dataSource, new InMemoryBatchIndex());
+    }
+
+    public JdbcInventoryRepository(DataSource dataSource, InMemoryBatchIndex index) {
+        this(dataSource, index, new JdbcMovementRepository(dataSource));
+    }
+
+    public JdbcInventoryRepository(DataSource dataSource, InMemoryBatchIndex index, MovementRepository movements) {
         this.dataSource = dataSource;
+        this.index = index;
+        this.movements = movements;
+    }
+
+    /**
+     * Load the in-memory batch index ahead of the first checkout.
+     */
+    public void preload() {
+        try (var con = dataSource.getConnection()) {
+            index.ensureLoaded(con);
+        } catch (java.sql.SQLException e) {
+            throw new RuntimeException("Failed to preload batch index", e);
+        }
     }
 
     /**
-     * Find the batch candidates for deduction
+     * Find the batch candidates for deduction (served from the in-memory index)
      */
     @Override
     public List<Batch> findDeductionCandidates(Connection con, Code product, StockLocation loc) {
-        String sql = """
-      SELECT id, product_code, location, received_at, expiry, quantity
-      FROM batch
-      WHERE product_code=? AND location=? AND quantity>0
-      ORDER BY (CASE WHEN expiry IS NULL THEN 1 ELSE 0 END), expiry ASC, received_at ASC
-    """;
-        try (var ps = con.prepareStatement(sql)) {
-            ps.setString(1, product.value());
-            ps.setString(2, loc.name());
-            try (var rs = ps.executeQuery()) {
-                List<Batch> out = new ArrayList<>();
-                while (rs.next()) {
-                    out.add(new Batch(
-                            rs.getLong("id"),
-                            new Code(rs.getString("product_code")),
-                            StockLocation.valueOf(rs.getString("location")),
-                            rs.getTimestamp("received_at").toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime(),
-                            rs.getDate("expiry") == null ? null : rs.getDate("expiry").toLocalDate(),
-                            new Quantity(rs.getInt("quantity"))
-                    ));
-                }
-                return out;
-            }
-        } catch (Exception e) { throw new RuntimeException(e); }
+        return index.candidates(con, new InMemoryBatchIndex.Key(product.value(), loc), InMemoryBatchIndex.Order.FEFO);
+    }
+
+    /**
+     * Re-read the batch candidates from the table; the index picks them up once the transaction commits
+     */
+    @Override
+    public List<Batch> refreshDeductionCandidates(Connection con, Code product, StockLocation loc) {
+        return index.reload(con, new InMemoryBatchIndex.Key(product.value(), loc), InMemoryBatchIndex.Order.FEFO);
     }
 
     /**
-     * Deduct quantity specific batch
+     * Find the batch candidates oldest-received first (served from the in-memory index)
      */
     @Override
-    public void deductFromBatch(Connection con, long batchId, int take) {
-        String sql = "UPDATE batch SET quantity = quantity - ?, version = version + 1 WHERE id=? AND quantity >= ?";
+    public List<Batch> findFifoCandidates(Connection con, Code product, StockLocation loc) {
+        return index.candidates(con, new InMemoryBatchIndex.Key(product.value(), loc), InMemoryBatchIndex.Order.FIFO);
+    }
+
+    /**
+     * Re-read the FIFO candidates from the table; the index picks them up once the transaction commits
+     */
+    @Override
+    public List<Batch> refreshFifoCandidates(Connection con, Code product, StockLocation loc) {
+        return index.reload(con, new InMemoryBatchIndex.Key(product.value(), loc), InMemoryBatchIndex.Order.FIFO);
+    }
+
+    /**
+     * Deduct up to {@code take} from a batch, guarded by the version the index last saw; returns the amount taken
+     */
+    @Override
+    public int deductFromBatch(Connection con, long batchId, int take) {
+        int version = index.version(batchId).orElse(-1);
+        if (tryDeduct(con, batchId, take, version)) {
+            Tx.afterCommit(con, () -> index.deducted(batchId, take, version));
+            return take;
+        }
+
+        // Index was stale (another till or a rolled back transaction): re-read the row and take what it still holds
+        Optional<InMemoryBatchIndex.Entry> fresh = index.reloadBatch(con, batchId);
+        if (fresh.isEmpty()) return 0;
+        int actual = Math.min(take, fresh.get().quantity());
+        int expected = fresh.get().version();
+        if (actual <= 0 || !tryDeduct(con, batchId, actual, expected)) return 0;
+        Tx.afterCommit(con, () -> index.deducted(batchId, actual, expected));
+        return actual;
+    }
+
+    private boolean tryDeduct(Connection con, long batchId, int take, int version) {
+        if (version < 0) return false;
+        String sql = "UPDATE batch SET quantity = quantity - ?, version = version + 1 WHERE id=? AND version=? AND quantity >= ?";
         try (var ps = con.prepareStatement(sql)) {
             ps.setInt(1, take);
             ps.setLong(2, batchId);
-            ps.setInt(3, take);
-            int updated = ps.executeUpdate();
-            if (updated == 0) throw new IllegalStateException("Concurrent update or insufficient qty for batch " + batchId);
+            ps.setInt(3, version);
+            ps.setInt(4, take);
+            return ps.executeUpdate() == 1;
         } catch (Exception e) { throw new RuntimeException(e); }
     }
 
@@ -84,6 +141,23 @@ public final class JdbcInventoryRepository implements InventoryRepository {
         } catch (Exception e) { throw new RuntimeException(e); }
     }
 
+    /**
+     * Committed quantity from the in-memory stock table
+     */
+    @Override
+    public int committedAvailable(Connection con, String productCode, StockLocation loc) {
+        return index.available(con, new InMemoryBatchIndex.Key(productCode, loc));
+    }
+
+    /**
+     * Threshold from stock_threshold, loaded with the batch index
+     */
+    @Override
+    public int lowStockThreshold(Connection con, String productCode, StockLocation loc, int fallback) {
+        index.ensureLoaded(con);
+        return index.stock().threshold(productCode, loc, fallback);
+    }
+
     /**
     * Transfer Stock through the stock locations
     */
@@ -94,17 +168,17 @@ public final class JdbcInventoryRepository implements InventoryRepository {
         }
 
         // Get batches from source location using FEFO/FIFO strategy
-        List<Batch> candidates = findDeductionCandidates(con, new Code(productCode), fromLocation);
+        List<Batch> candidates = findDeductionCandidates(con, Code.of(productCode), fromLocation);
 
         int remaining = quantity;
         for (Batch batch : candidates) {
             if (remaining <= 0) break;
 
             int available = batch.quantity().value();
-            int toTransfer = Math.min(remaining, available);
 
-            // Deduct from source batch
-            deductFromBatch(con, batch.id(), toTransfer);
+            // Deduct from source batch (less than asked if the index overstated it)
+            int toTransfer = deductFromBatch(con, batch.id(), Math.min(remaining, available));
+            if (toTransfer == 0) continue;
 
             // Try to find existing batch in destination with same expiry
             Long existingBatchId = findExistingBatch(con, productCode, toLocation, batch.expiry());
@@ -146,13 +220,15 @@ public final class JdbcInventoryRepository implements InventoryRepository {
                 }
             }
 
-            // Log the inventory movement
-            logInventoryMovement(con, productCode, fromLocation.name(), toLocation.name(), toTransfer,
+            movements.record(con, productCode, fromLocation.name(), toLocation.name(), toTransfer,
                 "Stock transfer from " + fromLocation + " to " + toLocation);
 
             remaining -= toTransfer;
         }
 
+        var destination = new InMemoryBatchIndex.Key(productCode, toLocation);
+        Tx.afterCommit(con, () -> index.markStale(destination));
+
         if (remaining > 0) {
             throw new IllegalStateException("Insufficient stock in " + fromLocation +
                 " to transfer " + quantity + " of " + productCode + ". Missing: " + remaining);
@@ -188,34 +264,14 @@ public final class JdbcInventoryRepository implements InventoryRepository {
      * Show the remaning quantity for specific batch*/
     @Override
     public int remainingQuantity(java.sql.Connection con, String code, String location) {
-        String sql = "SELECT COALESCE(SUM(quantity),0) q FROM batch WHERE product_code=? AND UPPER(location)=UPPER(?)";
+        String sql = "SELECT COALESCE(SUM(quantity),0) q FROM batch WHERE product_code=? AND location=?";
         try (var ps = con.prepareStatement(sql)) {
-            ps.setString(1, code); ps.setString(2, location);
+            // location is an ENUM of upper-case names; normalise here so the index stays usable
+            ps.setString(1, code); ps.setString(2, location.toUpperCase());
             try (var rs = ps.executeQuery()) { rs.next(); return rs.getInt("q"); }
         } catch (Exception e) { throw new RuntimeException(e); }
     }
 
-    /**
-     * Logs inventory movement to the inventory_movement table
-     */
-    private void logInventoryMovement(Connection con, String productCode, String fromLocation, String toLocation, int quantity, String note) {
-        String sql = """
-            INSERT INTO inventory_movement (product_code, from_location, to_location, quantity, note)
-            VALUES (?, ?, ?, ?, ?)
-            """;
-
-        try (var ps = con.prepareStatement(sql)) {
-            ps.setString(1, productCode.toUpperCase());
-            ps.setString(2, fromLocation);
-            ps.setString(3, toLocation);
-            ps.setInt(4, quantity);
-            ps.setString(5, note);
-            ps.executeUpdate();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to log inventory movement", e);
-        }
-    }
-
     /**
      * Find all batches in the system
      */
@@ -232,7 +288,7 @@ public final class JdbcInventoryRepository implements InventoryRepository {
             try (var rs = ps.executeQuery()) {
                 List<Batch> batches = new ArrayList<>();
                 while (rs.next()) {
-                    batches.add(createBatchFromResultSet(rs));
+                    batches.add(BatchRowMapper.map(rs));
                 }
                 return batches;
             }
@@ -259,7 +315,7 @@ public final class JdbcInventoryRepository implements InventoryRepository {
             try (var rs = ps.executeQuery()) {
                 List<Batch> batches = new ArrayList<>();
                 while (rs.next()) {
-                    batches.add(createBatchFromResultSet(rs));
+                    batches.add(BatchRowMapper.map(rs));
                 }
                 return batches;
             }
@@ -286,7 +342,7 @@ public final class JdbcInventoryRepository implements InventoryRepository {
             try (var rs = ps.executeQuery()) {
                 List<Batch> batches = new ArrayList<>();
                 while (rs.next()) {
-                    batches.add(createBatchFromResultSet(rs));
+                    batches.add(BatchRowMapper.map(rs));
                 }
                 return batches;
             }
@@ -295,6 +351,71 @@ public final class JdbcInventoryRepository implements InventoryRepository {
         }
     }
 
+    /**
+     * One keyset page of batches ordered by id, optionally restricted to a location
+     */
+    @Override
+    public List<Batch> findBatchPage(Connection con, StockLocation location, long afterId, int limit) {
+        String sql = "SELECT id, product_code, location, received_at, expiry, quantity FROM batch WHERE id > ?"
+                + (location == null ? "" : " AND location = ?")
+                + " ORDER BY id LIMIT ?";
+
+        try (var ps = con.prepareStatement(sql)) {
+            int i = 1;
+            ps.setLong(i++, afterId);
+            if (location != null) ps.setString(i++, location.name());
+            ps.setInt(i, limit);
+            try (var rs = ps.executeQuery()) {
+                List<Batch> batches = new ArrayList<>(limit);
+                while (rs.next()) {
+                    batches.add(BatchRowMapper.map(rs));
+                }
+                return batches;
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to find batch page after ID: " + afterId, e);
+        }
+    }
+
+    /**
+     * Stream every batch in id order without materialising the table
+     */
+    @Override
+    public Stream<Batch> streamAllBatches(Connection con) {
+        String sql = "SELECT id, product_code, location, received_at, expiry, quantity FROM batch ORDER BY id";
+        try {
+            var ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            try {
+                ps.setFetchSize(STREAMING_FETCH_SIZE);
+                var rs = ps.executeQuery();
+                var rows = new Spliterators.AbstractSpliterator<Batch>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                    @Override
+                    public boolean tryAdvance(Consumer<? super Batch> action) {
+                        try {
+                            if (!rs.next()) return false;
+                            action.accept(BatchRowMapper.map(rs));
+                            return true;
+                        } catch (SQLException e) {
+                            throw new RuntimeException("Failed to read batch stream", e);
+                        }
+                    }
+                };
+                return StreamSupport.stream(rows, false).onClose(() -> {
+                    try {
+                        ps.close(); // also closes rs
+                    } catch (SQLException e) {
+                        throw new RuntimeException("Failed to close batch stream", e);
+                    }
+                });
+            } catch (SQLException | RuntimeException e) {
+                ps.close();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to stream batches", e);
+        }
+    }
+
     /**
      * Find batch by ID
      */
@@ -310,7 +431,7 @@ public final class JdbcInventoryRepository implements InventoryRepository {
             ps.setLong(1, batchId);
             try (var rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    return java.util.Optional.of(createBatchFromResultSet(rs));
+                    return java.util.Optional.of(BatchRowMapper.map(rs));
                 }
                 return java.util.Optional.empty();
             }
@@ -353,9 +474,11 @@ public final class JdbcInventoryRepository implements InventoryRepository {
             try (var generatedKeys = ps.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
                     long batchId = generatedKeys.getLong(1);
+                    var entry = new InMemoryBatchIndex.Entry(batchId, productCode.value(), location,
+                            receivedAt, expiry, quantity, 0);
+                    Tx.afterCommit(con, () -> index.put(entry));
 
-                    // Log the batch creation
-                    logInventoryMovement(con, productCode.value(), "SUPPLIER", location.name(), quantity,
+                    movements.record(con, productCode.value(), Movement.SUPPLIER, location.name(), quantity,
                         "New batch created - ID: " + batchId);
 
                     return batchId;
@@ -369,7 +492,41 @@ public final class JdbcInventoryRepository implements InventoryRepository {
     }
 
     /**
-     * Update batch expiry and quantity
+     * Receive batches in multi-row upserts, each logged to the ledger as a supplier movement
+     */
+    @Override
+    public void receiveBatches(Connection con, List<Batch> batches, String note) {
+        Set<InMemoryBatchIndex.Key> touched = new HashSet<>();
+        try {
+            for (int from = 0; from < batches.size(); from += MAX_ROWS_PER_INSERT) {
+                int rows = Math.min(MAX_ROWS_PER_INSERT, batches.size() - from);
+                var sql = new StringBuilder("INSERT INTO batch (product_code, location, received_at, expiry, quantity, version) VALUES ");
+                for (int r = 0; r < rows; r++) sql.append(r == 0 ? "(?,?,?,?,?,0)" : ",(?,?,?,?,?,0)");
+                sql.append(" ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), version = version + 1");
+                try (var ps = con.prepareStatement(sql.toString())) {
+                    int i = 0;
+                    for (Batch b : batches.subList(from, from + rows)) {
+                        ps.setString(++i, b.productCode().value());
+                        ps.setString(++i, b.location().name());
+                        ps.setTimestamp(++i, java.sql.Timestamp.valueOf(b.receivedAt()));
+                        ps.setDate(++i, b.expiry() == null ? null : java.sql.Date.valueOf(b.expiry()));
+                        ps.setInt(++i, b.quantity().value());
+                    }
+                    ps.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to receive batches", e);
+        }
+        for (Batch b : batches) {
+            movements.record(con, b.productCode().value(), Movement.SUPPLIER, b.location().name(), b.quantity().value(), note);
+            touched.add(new InMemoryBatchIndex.Key(b.productCode().value(), b.location()));
+        }
+        Tx.afterCommit(con, () -> touched.forEach(index::markStale));
+    }
+
+    /**
+     * Update batch expiry and quantity; a quantity change goes to the ledger as an adjustment
      */
     @Override
     public void updateBatch(Connection con, long batchId, java.time.LocalDate expiry, int quantity) {
@@ -377,10 +534,7 @@ public final class JdbcInventoryRepository implements InventoryRepository {
             throw new IllegalArgumentException("Batch quantity cannot be negative");
         }
 
-        // First verify the batch exists
-        if (!batchExists(con, batchId)) {
-            throw new IllegalArgumentException("Batch with ID " + batchId + " does not exist");
-        }
+        Batch before = lockBatch(con, batchId);
 
         String sql = """
             UPDATE batch 
@@ -401,6 +555,9 @@ public final class JdbcInventoryRepository implements InventoryRepository {
             if (rowsAffected == 0) {
                 throw new RuntimeException("Failed to update batch " + batchId + ", no rows affected");
             }
+            recordAdjustment(con, before, quantity - before.quantity().value(), "Batch " + batchId + " quantity corrected");
+            var key = new InMemoryBatchIndex.Key(before.productCode().value(), before.location());
+            Tx.afterCommit(con, () -> index.markStale(key));
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to update batch " + batchId, e);
@@ -408,14 +565,11 @@ public final class JdbcInventoryRepository implements InventoryRepository {
     }
 
     /**
-     * Delete a batch
+     * Delete a batch; whatever it still held goes to the ledger as an adjustment
      */
     @Override
     public void deleteBatch(Connection con, long batchId) {
-        // First verify the batch exists
-        if (!batchExists(con, batchId)) {
-            throw new IllegalArgumentException("Batch with ID " + batchId + " does not exist");
-        }
+        Batch before = lockBatch(con, batchId);
 
         String sql = "DELETE FROM batch WHERE id = ?";
 
@@ -426,12 +580,36 @@ public final class JdbcInventoryRepository implements InventoryRepository {
             if (rowsAffected == 0) {
                 throw new RuntimeException("Failed to delete batch " + batchId + ", no rows affected");
             }
+            recordAdjustment(con, before, -before.quantity().value(), "Batch " + batchId + " deleted");
+            Tx.afterCommit(con, () -> index.remove(batchId));
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to delete batch " + batchId, e);
         }
     }
 
+    /**
+     * Read a batch and hold its row lock until the transaction ends, so the ledger sees the quantity being replaced
+     */
+    private Batch lockBatch(Connection con, long batchId) {
+        String sql = "SELECT id, product_code, location, received_at, expiry, quantity FROM batch WHERE id = ? FOR UPDATE";
+        try (var ps = con.prepareStatement(sql)) {
+            ps.setLong(1, batchId);
+            try (var rs = ps.executeQuery()) {
+                if (rs.next()) return BatchRowMapper.map(rs);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to find batch with ID: " + batchId, e);
+        }
+        throw new IllegalArgumentException("Batch with ID " + batchId + " does not exist");
+    }
+
+    private void recordAdjustment(Connection con, Batch batch, int delta, String note) {
+        String location = batch.location().name();
+        if (delta > 0) movements.record(con, batch.productCode().value(), Movement.ADJUSTMENT, location, delta, note);
+        if (delta < 0) movements.record(con, batch.productCode().value(), location, Movement.ADJUSTMENT, -delta, note);
+    }
+
     /**
      * Check if batch exists
      */
@@ -448,18 +626,4 @@ public final class JdbcInventoryRepository implements InventoryRepository {
             throw new RuntimeException("Failed to check batch existence for ID: " + batchId, e);
         }
     }
-
-    /**
-     * Helper method to create Batch objects from ResultSet
-     */
-    private Batch createBatchFromResultSet(java.sql.ResultSet rs) throws java.sql.SQLException {
-        return new Batch(
-            rs.getLong("id"),
-            new Code(rs.getString("product_code")),
-            StockLocation.valueOf(rs.getString("location")),
-            rs.getTimestamp("received_at").toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime(),
-            rs.getDate("expiry") == null ? null : rs.getDate("expiry").toLocalDate(),
-            new Quantity(rs.getInt("quantity"))
-        );
-    }
 }
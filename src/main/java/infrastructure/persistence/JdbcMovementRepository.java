@@ -0,0 +1,130 @@
+package main.java.infrastructure.persistence;
+
+import main.java.domain.inventory.Movement;
+import main.java.domain.repository.MovementRepository;
+import main.java.infrastructure.concurrency.Tx;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stock ledger on the month-partitioned {@code inventory_movement} table (V16).
+ * <p>
+ * Movements recorded inside {@link Tx#inTx} are buffered with the transaction and go to the table
+ * in one multi-row INSERT just before it commits; a rolled back transaction or savepoint drops
+ * them with the stock changes they describe.
+ */
+public final class JdbcMovementRepository implements MovementRepository {
+
+    private static final int MAX_ROWS_PER_INSERT = 500;
+    private static final String INSERT =
+            "INSERT INTO inventory_movement(happened_at, product_code, from_location, to_location, quantity, note) VALUES ";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final DataSource ds;
+
+    public JdbcMovementRepository(DataSource ds) { this.ds = ds; }
+
+    @Override
+    public void record(Connection con, String productCode, String from, String to, int quantity, String note) {
+        if (quantity == 0) return;
+        var m = new Movement(LocalDateTime.now(), productCode.toUpperCase(), from, to, quantity, note);
+        List<Movement> pending = Tx.buffer(con, this, JdbcMovementRepository::insertAll);
+        if (pending == null) insertAll(con, List.of(m)); else pending.add(m);
+    }
+
+    @Override
+    public List<Movement> history(Connection con, String productCode, LocalDateTime from, LocalDateTime to) {
+        String sql = """
+            SELECT happened_at, product_code, from_location, to_location, quantity, note
+            FROM inventory_movement
+            WHERE product_code = ? AND happened_at >= ? AND happened_at < ?
+            ORDER BY happened_at, id
+            """;
+        try (var ps = con.prepareStatement(sql)) {
+            ps.setString(1, productCode.toUpperCase());
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            try (var rs = ps.executeQuery()) {
+                List<Movement> out = new ArrayList<>();
+                while (rs.next()) {
+                    out.add(new Movement(rs.getTimestamp(1).toLocalDateTime(), rs.getString(2), rs.getString(3),
+                            rs.getString(4), rs.getInt(5), rs.getString(6)));
+                }
+                return out;
+            }
+        } catch (Exception e) { throw new RuntimeException("Failed to read movements of " + productCode, e); }
+    }
+
+    /**
+     * Split the catch-all {@code p_future} partition so every month up to {@code monthsAhead} from
+     * now has its own partition. Splitting is cheap while {@code p_future} holds no rows, so this
+     * runs at startup ahead of time; does nothing if the table is not partitioned.
+     */
+    public void ensureMonthlyPartitions(int monthsAhead) {
+        String sql = """
+            SELECT partition_name, partition_description FROM information_schema.partitions
+            WHERE table_schema = DATABASE() AND table_name = 'inventory_movement' AND partition_name IS NOT NULL
+            """;
+        try (var con = ds.getConnection()) {
+            LocalDate highest = null;
+            boolean hasFuture = false;
+            try (var ps = con.prepareStatement(sql); var rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String bound = rs.getString(2);
+                    if ("p_future".equals(rs.getString(1))) { hasFuture = true; continue; }
+                    if (bound == null || bound.equals("MAXVALUE")) continue;
+                    // RANGE COLUMNS bounds read back quoted, e.g. '2026-01-01 00:00:00'
+                    LocalDate b = LocalDate.parse(bound.replace("'", "").substring(0, 10));
+                    if (highest == null || b.isAfter(highest)) highest = b;
+                }
+            }
+            if (!hasFuture || highest == null) return;
+
+            LocalDate until = LocalDate.now().withDayOfMonth(1).plusMonths(monthsAhead + 1);
+            var split = new StringBuilder();
+            for (LocalDate month = highest.withDayOfMonth(1); month.isBefore(until); month = month.plusMonths(1)) {
+                split.append("PARTITION ").append(month.format(PARTITION_NAME))
+                        .append(" VALUES LESS THAN ('").append(month.plusMonths(1)).append("'), ");
+            }
+            if (split.isEmpty()) return;
+            try (var st = con.createStatement()) {
+                st.execute("ALTER TABLE inventory_movement REORGANIZE PARTITION p_future INTO ("
+                        + split + "PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to add inventory_movement partitions", e);
+        }
+    }
+
+    private static void insertAll(Connection con, List<Movement> movements) {
+        try {
+            for (int from = 0; from < movements.size(); from += MAX_ROWS_PER_INSERT) {
+                int rows = Math.min(MAX_ROWS_PER_INSERT, movements.size() - from);
+                var sql = new StringBuilder(INSERT.length() + rows * 14).append(INSERT);
+                for (int r = 0; r < rows; r++) sql.append(r == 0 ? "(?,?,?,?,?,?)" : ",(?,?,?,?,?,?)");
+                try (var ps = con.prepareStatement(sql.toString())) {
+                    int i = 0;
+                    for (Movement m : movements.subList(from, from + rows)) {
+                        ps.setTimestamp(++i, Timestamp.valueOf(m.happenedAt()));
+                        ps.setString(++i, m.productCode());
+                        ps.setString(++i, m.from());
+                        ps.setString(++i, m.to());
+                        ps.setInt(++i, m.quantity());
+                        ps.setString(++i, m.note());
+                    }
+                    ps.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to write inventory movements", e);
+        }
+    }
+}
@@ -6,12 +6,16 @@ import main.java.domain.shared.Code;
 import main.java.domain.shared.Money;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 public final class JdbcProductRepository implements ProductRepository {
+    private static final int MAX_ROWS_PER_INSERT = 500;
+
     private final DataSource ds;
     public JdbcProductRepository(DataSource ds){ this.ds = ds; }
 
@@ -29,6 +33,27 @@ public final class JdbcProductRepository implements ProductRepository {
         } catch (Exception e) { throw new RuntimeException(e); }
     }
 
+    @Override public void upsertAll(Connection con, List<Product> products) {
+        try {
+            for (int from = 0; from < products.size(); from += MAX_ROWS_PER_INSERT) {
+                int rows = Math.min(MAX_ROWS_PER_INSERT, products.size() - from);
+                var sql = new StringBuilder("INSERT INTO product(code,name,price_cents,category_code) VALUES ");
+                for (int r = 0; r < rows; r++) sql.append(r == 0 ? "(?,?,?,?)" : ",(?,?,?,?)");
+                sql.append(" ON DUPLICATE KEY UPDATE name=VALUES(name), price_cents=VALUES(price_cents), category_code=VALUES(category_code)");
+                try (var ps = con.prepareStatement(sql.toString())) {
+                    int i = 0;
+                    for (Product p : products.subList(from, from + rows)) {
+                        ps.setString(++i, p.code().value());
+                        ps.setString(++i, p.name());
+                        ps.setLong(++i, p.price().amount().movePointRight(2).longValueExact());
+                        ps.setString(++i, p.categoryCode());
+                    }
+                    ps.executeUpdate();
+                }
+            }
+        } catch (SQLException e) { throw new RuntimeException(e); }
+    }
+
     @Override public Optional<Product> findByCode(Code code) {
         String sql = "SELECT code,name,price_cents,category_code FROM product WHERE code=?";
         try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
@@ -37,7 +62,7 @@ public final class JdbcProductRepository implements ProductRepository {
                 if (!rs.next()) return Optional.empty();
                 var price = Money.of(rs.getLong("price_cents"));
                 var categoryCode = rs.getString("category_code");
-                return Optional.of(new Product(new Code(rs.getString("code")), rs.getString("name"), price, categoryCode));
+                return Optional.of(new Product(Code.of(rs.getString("code")), rs.getString("name"), price, categoryCode));
             }
         } catch (Exception e) { throw new RuntimeException(e); }
     }
@@ -50,7 +75,7 @@ public final class JdbcProductRepository implements ProductRepository {
                 while (rs.next()) {
                     var price = Money.of(rs.getLong("price_cents"));
                     var categoryCode = rs.getString("category_code");
-                    products.add(new Product(new Code(rs.getString("code")), rs.getString("name"), price, categoryCode));
+                    products.add(new Product(Code.of(rs.getString("code")), rs.getString("name"), price, categoryCode));
                 }
             }
         } catch (Exception e) { throw new RuntimeException(e); }
@@ -5,6 +5,10 @@ import main.java.domain.user.Role;
 import main.java.domain.user.User;
 
 import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 public final class JdbcUserRepository implements UserRepository {
@@ -18,17 +22,21 @@ public final class JdbcUserRepository implements UserRepository {
             ps.setString(1, username);
             try (var rs = ps.executeQuery()) {
                 if (!rs.next()) return Optional.empty();
-                return Optional.of(new User(
-                        rs.getLong("id"),
-                        rs.getString("username"),
-                        rs.getString("password_hash"),
-                        rs.getString("email"),
-                        Role.valueOf(rs.getString("role"))
-                ));
+                return Optional.of(map(rs));
             }
         } catch (Exception e) { throw new RuntimeException(e); }
     }
 
+    @Override
+    public List<User> findAll() {
+        String sql = "SELECT id, username, password_hash, email, role FROM users";
+        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql); var rs = ps.executeQuery()) {
+            List<User> users = new ArrayList<>();
+            while (rs.next()) users.add(map(rs));
+            return users;
+        } catch (Exception e) { throw new RuntimeException(e); }
+    }
+
     @Override
     public void upsert(User u) {
         String sql = """
@@ -43,4 +51,14 @@ public final class JdbcUserRepository implements UserRepository {
             ps.executeUpdate();
         } catch (Exception e) { throw new RuntimeException(e); }
     }
-}
\ No newline at end of file
+
+    private static User map(ResultSet rs) throws SQLException {
+        return new User(
+                rs.getLong("id"),
+                rs.getString("username"),
+                rs.getString("password_hash"),
+                rs.getString("email"),
+                Role.valueOf(rs.getString("role"))
+        );
+    }
+}
@@ -0,0 +1,386 @@
+package main.java.infrastructure.persistence;
+
+import main.java.domain.product.Product;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory search over product codes and names.
+ * <p>
+ * Codes and names are split into lower-case words and the pieces between their punctuation. Each
+ * token maps to the products that contain it. The tokens are kept sorted, so a prefix
+ * is a range scan. For typos, every all-letter token is also indexed by its trigrams. A query word with
+ * no exact match is compared by edit distance only against tokens that share enough trigrams with
+ * it. Every word of the query must match a product. Results are ranked by how well the words
+ * matched: an exact code first, then exact words, prefixes and near misses. Only the best
+ * {@code limit} results are kept.
+ * <p>
+ * Reads take no locks; writes are serialised and a changed product is indexed under its new tokens
+ * before the old entry is dropped, so a concurrent search never misses it.
+ */
+public final class ProductSearchIndex {
+
+    private static final int EXACT_CODE = 1_000;
+    private static final int EXACT = 100;
+    private static final int PREFIX = 60;
+    private static final int FUZZY = 40;
+    private static final int FUZZY_PENALTY = 15;
+    /** Prefix range scans stop after this many distinct tokens, so a one-letter query stays cheap. */
+    private static final int MAX_PREFIX_TOKENS = 2_000;
+
+    /** Tie-break between equal scores, and the order postings are kept in: shorter name, then code. */
+    private static final Comparator<Entry> RANK = (a, b) -> {
+        if (a.nameLength != b.nameLength) return Integer.compare(a.nameLength, b.nameLength);
+        int byCode = a.code.compareTo(b.code);
+        return byCode != 0 ? byCode : Long.compare(a.seq, b.seq);
+    };
+
+    /** Indexed product; postings hold entries, so a hit needs no lookup by code. */
+    private static final class Entry {
+        private static final AtomicLong SEQ = new AtomicLong();
+
+        final Product product;
+        final String code;
+        final int nameLength;
+        final String[] tokens;
+        final long seq = SEQ.incrementAndGet(); // keeps the old and new entry of a changed product apart
+
+        Entry(Product product) {
+            this.product = product;
+            this.code = key(product.code().value());
+            this.nameLength = product.name().length();
+            this.tokens = tokens(product).toArray(String[]::new);
+        }
+    }
+
+    /** Products containing one token, and what matching that token is worth. */
+    private record Hit(String token, NavigableSet<Entry> entries, int score) {}
+
+    /** The index proper; replaced as a whole by {@link #replaceAll}, changed in place by single writes. */
+    private static final class State {
+        final Map<String, Entry> byCode;
+        final NavigableMap<String, NavigableSet<Entry>> postings;
+        final Map<String, Set<String>> trigrams = new ConcurrentHashMap<>();
+
+        State(Map<String, Entry> byCode, NavigableMap<String, NavigableSet<Entry>> postings) {
+            this.byCode = byCode;
+            this.postings = postings;
+        }
+    }
+
+    private volatile State state = new State(new ConcurrentHashMap<>(), new ConcurrentSkipListMap<>());
+
+    public Product get(String code) {
+        Entry e = state.byCode.get(key(code));
+        return e == null ? null : e.product;
+    }
+
+    public int size() {
+        return state.byCode.size();
+    }
+
+    public synchronized void put(Product p) {
+        State st = state;
+        Entry entry = new Entry(p);
+        for (String t : entry.tokens) {
+            st.postings.computeIfAbsent(t, k -> {
+                addGrams(st, k);
+                return new ConcurrentSkipListSet<>(RANK);
+            }).add(entry);
+        }
+        Entry old = st.byCode.put(entry.code, entry);
+        if (old != null) unindex(st, old);
+    }
+
+    public synchronized void remove(String code) {
+        State st = state;
+        Entry old = st.byCode.remove(key(code));
+        if (old != null) unindex(st, old);
+    }
+
+    /**
+     * Make the index hold exactly {@code products}, e.g. after a full reload. The new index is built
+     * aside, each posting sorted once, and swapped in whole; searches meanwhile use the old one.
+     */
+    public synchronized void replaceAll(Collection<Product> products) {
+        Map<String, Entry> byCode = new ConcurrentHashMap<>(products.size() * 4 / 3 + 1);
+        for (Product p : products) {
+            Entry e = new Entry(p);
+            byCode.put(e.code, e);
+        }
+        TreeMap<String, List<Entry>> byToken = new TreeMap<>();
+        for (Entry e : byCode.values()) {
+            for (String t : e.tokens) byToken.computeIfAbsent(t, k -> new ArrayList<>()).add(e);
+        }
+        TreeMap<String, NavigableSet<Entry>> postings = new TreeMap<>();
+        byToken.forEach((token, entries) -> {
+            entries.sort(RANK);
+            NavigableSet<Entry> set = new ConcurrentSkipListSet<>(RANK);
+            set.addAll(entries);
+            postings.put(token, set);
+        });
+        State next = new State(byCode, new ConcurrentSkipListMap<>(postings));
+        for (String token : postings.keySet()) addGrams(next, token);
+        state = next;
+    }
+
+    /**
+     * Best matches for {@code query}, best first; empty for a blank query.
+     * <p>
+     * The word with the fewest matching products drives the search: its postings are walked best
+     * token first and, within a token, in rank order. Each candidate is scored against the other
+     * words from its own tokens. A posting is left as soon as nothing further in it can enter the
+     * results, so a common word costs about as much as a rare one.
+     */
+    public List<Product> search(String query, int limit) {
+        List<String> words = words(query);
+        if (words.isEmpty() || limit <= 0) return List.of();
+        State st = state;
+        List<List<Hit>> perWord = new ArrayList<>(words.size());
+        for (String w : words) {
+            List<Hit> hits = match(st, w);
+            if (hits.isEmpty()) return List.of();
+            perWord.add(hits);
+        }
+        int driver = 0;
+        long fewest = Long.MAX_VALUE;
+        for (int i = 0; i < perWord.size(); i++) {
+            long n = 0;
+            for (Hit h : perWord.get(i)) n += h.entries().size();
+            if (n < fewest) { fewest = n; driver = i; }
+        }
+        // Token scores of the other words, and the most each can add
+        List<Map<String, Integer>> others = new ArrayList<>();
+        int othersMax = 0;
+        for (int i = 0; i < perWord.size(); i++) {
+            if (i == driver) continue;
+            Map<String, Integer> m = new HashMap<>();
+            int max = 0;
+            for (Hit h : perWord.get(i)) {
+                m.merge(h.token(), h.score(), Math::max);
+                max = Math.max(max, h.score());
+            }
+            others.add(m);
+            othersMax += max;
+        }
+
+        var best = new TopK(limit);
+        Entry exact = words.size() == 1 ? st.byCode.get(words.get(0)) : null;
+        if (exact != null) best.offer(exact, EXACT + EXACT_CODE);
+        List<Hit> driving = new ArrayList<>(perWord.get(driver));
+        driving.sort(Comparator.comparingInt(Hit::score).reversed());
+        Set<Entry> seen = driving.size() > 1 ? new HashSet<>() : null;
+        for (Hit hit : driving) {
+            int bound = hit.score() + othersMax;
+            if (!best.canEnter(bound, null)) break;
+            for (Entry e : hit.entries()) {
+                if (!best.canEnter(bound, e)) break;
+                if (e == exact || (seen != null && !seen.add(e))) continue;
+                int score = hit.score();
+                for (Map<String, Integer> m : others) {
+                    int s = 0;
+                    for (String t : e.tokens) {
+                        Integer v = m.get(t);
+                        if (v != null && v > s) s = v;
+                    }
+                    if (s == 0) { score = -1; break; }
+                    score += s;
+                }
+                if (score > 0) best.offer(e, score);
+            }
+        }
+        return best.results();
+    }
+
+    /** The best {@code limit} entries seen, by score and then {@link #RANK}. */
+    private static final class TopK {
+        private record Scored(Entry entry, int score) {}
+
+        private static final Comparator<Scored> WORST_FIRST = Comparator.comparingInt(Scored::score)
+                .thenComparing(Scored::entry, RANK.reversed());
+
+        private final int limit;
+        private final PriorityQueue<Scored> heap;
+
+        TopK(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(limit + 1, WORST_FIRST);
+        }
+
+        /** Whether an entry scoring at most {@code bound}, ranked no better than {@code next}, could still get in. */
+        boolean canEnter(int bound, Entry next) {
+            if (heap.size() < limit) return true;
+            Scored worst = heap.peek();
+            if (worst.score() != bound) return worst.score() < bound;
+            return next != null && RANK.compare(next, worst.entry()) < 0;
+        }
+
+        void offer(Entry e, int score) {
+            Scored s = new Scored(e, score);
+            if (heap.size() < limit) {
+                heap.add(s);
+            } else if (WORST_FIRST.compare(s, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(s);
+            }
+        }
+
+        List<Product> results() {
+            List<Product> out = new ArrayList<>(heap.size());
+            while (!heap.isEmpty()) out.add(heap.poll().entry().product);
+            Collections.reverse(out);
+            return out;
+        }
+    }
+
+    /** Tokens matching one query word: every token it is a prefix of, or else near misses. */
+    private static List<Hit> match(State st, String word) {
+        List<Hit> hits = new ArrayList<>();
+        int scanned = 0;
+        for (var e : st.postings.tailMap(word, true).entrySet()) {
+            if (!e.getKey().startsWith(word) || ++scanned > MAX_PREFIX_TOKENS) break;
+            hits.add(new Hit(e.getKey(), e.getValue(), e.getKey().length() == word.length() ? EXACT : PREFIX));
+        }
+        if (!hits.isEmpty() || word.length() < 3 || !fuzzy(word)) return hits;
+
+        int maxEdits = word.length() <= 5 ? 1 : 2;
+        Set<String> grams = grams(word);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String g : grams) {
+            Set<String> tokens = st.trigrams.get(g);
+            if (tokens != null) for (String t : tokens) shared.merge(t, 1, Integer::sum);
+        }
+        // Each edit changes at most three padded trigrams
+        int needed = Math.max(1, grams.size() - 3 * maxEdits);
+        for (var e : shared.entrySet()) {
+            String token = e.getKey();
+            if (e.getValue() < needed || Math.abs(token.length() - word.length()) > maxEdits) continue;
+            int d = distance(word, token, maxEdits);
+            if (d > maxEdits) continue;
+            NavigableSet<Entry> entries = st.postings.get(token);
+            if (entries != null) hits.add(new Hit(token, entries, FUZZY - FUZZY_PENALTY * (d - 1)));
+        }
+        return hits;
+    }
+
+    private static void addGrams(State st, String token) {
+        if (!fuzzy(token)) return;
+        for (String g : grams(token)) st.trigrams.computeIfAbsent(g, x -> ConcurrentHashMap.newKeySet()).add(token);
+    }
+
+    private static void unindex(State st, Entry entry) {
+        for (String token : entry.tokens) {
+            Set<Entry> entries = st.postings.get(token);
+            if (entries == null) continue;
+            entries.remove(entry);
+            if (!entries.isEmpty()) continue;
+            st.postings.remove(token);
+            if (!fuzzy(token)) continue;
+            for (String g : grams(token)) {
+                Set<String> tokens = st.trigrams.get(g);
+                if (tokens == null) continue;
+                tokens.remove(token);
+                if (tokens.isEmpty()) st.trigrams.remove(g);
+            }
+        }
+    }
+
+    /** Typo tolerance is for words; codes, sizes and other tokens with digits must be typed as they are. */
+    private static boolean fuzzy(String token) {
+        for (int i = 0; i < token.length(); i++) if (!Character.isLetter(token.charAt(i))) return false;
+        return true;
+    }
+
+    /** Optimal string alignment distance, giving up once it must exceed {@code max}. */
+    static int distance(String a, String b, int max) {
+        int n = a.length(), m = b.length();
+        int[] prev2 = new int[m + 1], prev = new int[m + 1], cur = new int[m + 1];
+        for (int j = 0; j <= m; j++) prev[j] = j;
+        for (int i = 1; i <= n; i++) {
+            cur[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(prev[j] + 1, cur[j - 1] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d = Math.min(d, prev2[j - 2] + 1);
+                }
+                cur[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > max) return max + 1;
+            int[] t = prev2; prev2 = prev; prev = cur; cur = t;
+        }
+        return prev[m];
+    }
+
+    /** Whole words and their pieces, so "coca-cola" is found by "coca-cola", "coca" and "cola". */
+    private static Set<String> tokens(Product p) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String text : List.of(p.code().value(), p.name())) {
+            for (String w : words(text)) {
+                tokens.add(w);
+                int start = -1;
+                for (int i = 0; i <= w.length(); i++) {
+                    boolean inPiece = i < w.length() && Character.isLetterOrDigit(w.charAt(i));
+                    if (inPiece && start < 0) start = i;
+                    if (!inPiece && start >= 0) {
+                        if (start > 0 || i < w.length()) tokens.add(w.substring(start, i));
+                        start = -1;
+                    }
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /** Lower-case words separated by white space, without surrounding punctuation. */
+    private static List<String> words(String text) {
+        List<String> out = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int i = 0, n = lower.length();
+        while (i < n) {
+            while (i < n && Character.isWhitespace(lower.charAt(i))) i++;
+            int end = i;
+            while (end < n && !Character.isWhitespace(lower.charAt(end))) end++;
+            int from = i, to = end;
+            while (from < to && !Character.isLetterOrDigit(lower.charAt(from))) from++;
+            while (to > from && !Character.isLetterOrDigit(lower.charAt(to - 1))) to--;
+            if (from < to) {
+                String w = lower.substring(from, to);
+                if (!out.contains(w)) out.add(w);
+            }
+            i = end;
+        }
+        return out;
+    }
+
+    private static Set<String> grams(String token) {
+        String padded = "^" + token + "$";
+        Set<String> out = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) out.add(padded.substring(i, i + 3));
+        return out;
+    }
+
+    private static String key(String code) {
+        return code.trim().toLowerCase(Locale.ROOT);
+    }
+}
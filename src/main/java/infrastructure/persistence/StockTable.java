@@ -0,0 +1,154 @@
+package main.java.infrastructure.persistence;
+
+import main.java.domain.inventory.StockLocation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Compact per-(product, location) stock counters without boxing.
+ * <p>
+ * Product codes (case-insensitive) map to dense ordinals through an open-addressing table;
+ * counters and thresholds live in {@code int[]} chunks indexed by
+ * {@code ordinal * LOCATIONS + location.ordinal()}. Chunks are never copied when the table
+ * grows, so concurrent {@link VarHandle} updates are never lost. Lookups take no lock;
+ * only registering a new product does. Each (product, location) costs 8 bytes (counter and
+ * threshold); each product adds about 16 bytes of code table plus its key string.
+ */
+public final class StockTable {
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle REFS = MethodHandles.arrayElementVarHandle(String[].class);
+
+    private static final int LOCATIONS = StockLocation.values().length;
+    private static final int CHUNK_SHIFT = 12;                 // 4096 products per chunk
+    private static final int CHUNK_PRODUCTS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_PRODUCTS - 1;
+
+    /** Threshold slot value meaning "use the caller's default". */
+    private static final int NO_THRESHOLD = -1;
+
+    /** Open-addressing code -> ordinal table; replaced as a whole when it grows. */
+    private static final class Codes {
+        final String[] keys;
+        final int[] ordinals;
+        final int mask;
+
+        Codes(int capacity) {
+            keys = new String[capacity];
+            ordinals = new int[capacity];
+            mask = capacity - 1;
+        }
+    }
+
+    private volatile Codes codes = new Codes(1 << 10);
+    private volatile int[][] quantities = new int[0][];
+    private volatile int[][] thresholds = new int[0][];
+    private int size;   // guarded by this
+
+    /** Committed quantity, or 0 for a product the table has never seen. */
+    public int quantity(String productCode, StockLocation location) {
+        int ordinal = ordinalOf(normalise(productCode));
+        if (ordinal < 0) return 0;
+        return (int) INTS.getVolatile(chunk(quantities, ordinal), slot(ordinal, location));
+    }
+
+    /** Low-stock threshold for the product at the location, or {@code fallback} when none is configured. */
+    public int threshold(String productCode, StockLocation location, int fallback) {
+        int ordinal = ordinalOf(normalise(productCode));
+        if (ordinal < 0) return fallback;
+        int t = (int) INTS.getVolatile(chunk(thresholds, ordinal), slot(ordinal, location));
+        return t == NO_THRESHOLD ? fallback : t;
+    }
+
+    public int add(String productCode, StockLocation location, int delta) {
+        int ordinal = register(normalise(productCode));
+        return (int) INTS.getAndAdd(chunk(quantities, ordinal), slot(ordinal, location), delta) + delta;
+    }
+
+    public void set(String productCode, StockLocation location, int quantity) {
+        int ordinal = register(normalise(productCode));
+        INTS.setVolatile(chunk(quantities, ordinal), slot(ordinal, location), quantity);
+    }
+
+    public void setThreshold(String productCode, StockLocation location, int threshold) {
+        int ordinal = register(normalise(productCode));
+        INTS.setVolatile(chunk(thresholds, ordinal), slot(ordinal, location), threshold);
+    }
+
+    /** Number of distinct products registered. */
+    public synchronized int products() {
+        return size;
+    }
+
+    private static String normalise(String productCode) {
+        return productCode.trim().toUpperCase();
+    }
+
+    private static int[] chunk(int[][] chunks, int ordinal) {
+        return chunks[ordinal >>> CHUNK_SHIFT];
+    }
+
+    private static int slot(int ordinal, StockLocation location) {
+        return (ordinal & CHUNK_MASK) * LOCATIONS + location.ordinal();
+    }
+
+    private int ordinalOf(String key) {
+        Codes c = codes;
+        int i = mix(key.hashCode()) & c.mask;
+        while (true) {
+            String k = (String) REFS.getAcquire(c.keys, i);
+            if (k == null) return -1;
+            if (k.equals(key)) return c.ordinals[i]; // ordinal written before the key was published
+            i = (i + 1) & c.mask;
+        }
+    }
+
+    private int register(String key) {
+        int ordinal = ordinalOf(key);
+        if (ordinal >= 0) return ordinal;
+        synchronized (this) {
+            ordinal = ordinalOf(key);
+            if (ordinal >= 0) return ordinal;
+
+            ordinal = size;
+            if ((ordinal >>> CHUNK_SHIFT) >= quantities.length) {
+                // Grow the chunk directories only; existing chunks (and their counters) are shared
+                int n = quantities.length + 1;
+                int[][] q = Arrays.copyOf(quantities, n);
+                int[][] t = Arrays.copyOf(thresholds, n);
+                q[n - 1] = new int[CHUNK_PRODUCTS * LOCATIONS];
+                t[n - 1] = new int[CHUNK_PRODUCTS * LOCATIONS];
+                Arrays.fill(t[n - 1], NO_THRESHOLD);
+                thresholds = t;
+                quantities = q;
+            }
+            if ((size + 1) * 2 > codes.keys.length) {
+                codes = rehash(codes, codes.keys.length * 2);
+            }
+            insert(codes, key, ordinal);
+            size++;
+            return ordinal;
+        }
+    }
+
+    private static Codes rehash(Codes old, int capacity) {
+        Codes c = new Codes(capacity);
+        for (int i = 0; i < old.keys.length; i++) {
+            if (old.keys[i] != null) insert(c, old.keys[i], old.ordinals[i]);
+        }
+        return c;
+    }
+
+    private static void insert(Codes c, String key, int ordinal) {
+        int i = mix(key.hashCode()) & c.mask;
+        while (c.keys[i] != null) i = (i + 1) & c.mask;
+        c.ordinals[i] = ordinal;
+        REFS.setRelease(c.keys, i, key);
+    }
+
+    private static int mix(int h) {
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,44 +1,71 @@
 package main.java.infrastructure.security;
 
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Base64;
 
 /**
- * Simple password encoder using SHA-256 with salt.
- * This is a basic implementation that doesn't require external dependencies.
- * For production use, consider using BCrypt or other stronger algorithms.
+ * Salted password hashes, with no external dependencies.
+ * <p>
+ * With {@code iterations > 0} new hashes use PBKDF2-HMAC-SHA256 at that cost, stored as
+ * {@code pbkdf2$iterations$salt$hash}; otherwise they are a single salted SHA-256, stored as
+ * {@code salt$hash}. Both formats are always accepted by {@link #matches}, and hashes are compared
+ * in constant time. Digests and key factories are kept per thread and the salt source is shared,
+ * so a login costs only the hashing itself.
  */
 public final class PasswordEncoder {
 
     private static final String ALGORITHM = "SHA-256";
+    private static final String KDF = "PBKDF2WithHmacSHA256";
+    private static final String KDF_PREFIX = "pbkdf2";
     private static final int SALT_LENGTH = 16;
+    private static final int KDF_KEY_BITS = 256;
     private static final String SEPARATOR = "$";
 
-    /**
-     * Hash a raw password with a random salt
-     * Format: salt$hashedPassword
-     */
-    public String hash(String raw) {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
         try {
-            // Generate random salt
-            byte[] salt = generateSalt();
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not available", e);
+        }
+    });
+    private static final ThreadLocal<SecretKeyFactory> KEY_FACTORY = ThreadLocal.withInitial(() -> {
+        try {
+            return SecretKeyFactory.getInstance(KDF);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(KDF + " not available", e);
+        }
+    });
 
-            // Hash password with salt
-            MessageDigest md = MessageDigest.getInstance(ALGORITHM);
-            md.update(salt);
-            byte[] hashedPassword = md.digest(raw.getBytes(StandardCharsets.UTF_8));
+    private final int iterations;
 
-            // Encode salt and hash to Base64
-            String saltString = Base64.getEncoder().encodeToString(salt);
-            String hashString = Base64.getEncoder().encodeToString(hashedPassword);
+    /** Single salted SHA-256 for new hashes. */
+    public PasswordEncoder() { this(0); }
 
-            return saltString + SEPARATOR + hashString;
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 algorithm not available", e);
+    /** PBKDF2 with the given iteration count for new hashes; 0 keeps single salted SHA-256. */
+    public PasswordEncoder(int iterations) {
+        if (iterations < 0) throw new IllegalArgumentException("Iterations cannot be negative");
+        this.iterations = iterations;
+    }
+
+    /**
+     * Hash a raw password with a random salt
+     * Format: salt$hashedPassword, or pbkdf2$iterations$salt$hashedPassword
+     */
+    public String hash(String raw) {
+        byte[] salt = generateSalt();
+        var b64 = Base64.getEncoder();
+        if (iterations == 0) {
+            return b64.encodeToString(salt) + SEPARATOR + b64.encodeToString(sha256(raw, salt));
         }
+        return KDF_PREFIX + SEPARATOR + iterations + SEPARATOR + b64.encodeToString(salt)
+                + SEPARATOR + b64.encodeToString(pbkdf2(raw, salt, iterations));
     }
 
     /**
@@ -46,38 +73,60 @@ public final class PasswordEncoder {
      */
     public boolean matches(String raw, String hash) {
         try {
-            // Split salt and hash
             String[] parts = hash.split("\\" + SEPARATOR);
-            if (parts.length != 2) {
-                return false;
+            var b64 = Base64.getDecoder();
+            if (parts.length == 2) {
+                return MessageDigest.isEqual(b64.decode(parts[1]), sha256(raw, b64.decode(parts[0])));
             }
+            if (parts.length == 4 && KDF_PREFIX.equals(parts[0])) {
+                return MessageDigest.isEqual(b64.decode(parts[3]), pbkdf2(raw, b64.decode(parts[2]), Integer.parseInt(parts[1])));
+            }
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
 
-            String saltString = parts[0];
-            String expectedHash = parts[1];
-
-            // Decode salt
-            byte[] salt = Base64.getDecoder().decode(saltString);
+    /**
+     * True when rehashing would strengthen {@code hash}: it is single SHA-256 and this encoder uses
+     * PBKDF2, or it is PBKDF2 at fewer iterations. Never true for a downgrade, so a till running
+     * with a lower (or no) iteration count leaves stronger hashes alone.
+     */
+    public boolean needsRehash(String hash) {
+        if (iterations == 0) return false;
+        String[] parts = hash.split("\\" + SEPARATOR);
+        if (parts.length != 4 || !KDF_PREFIX.equals(parts[0])) return true;
+        try {
+            return Integer.parseInt(parts[1]) < iterations;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
 
-            // Hash the raw password with the same salt
-            MessageDigest md = MessageDigest.getInstance(ALGORITHM);
-            md.update(salt);
-            byte[] hashedPassword = md.digest(raw.getBytes(StandardCharsets.UTF_8));
+    private static byte[] sha256(String raw, byte[] salt) {
+        MessageDigest md = DIGEST.get();
+        md.reset();
+        md.update(salt);
+        return md.digest(raw.getBytes(StandardCharsets.UTF_8));
+    }
 
-            // Compare hashes
-            String actualHash = Base64.getEncoder().encodeToString(hashedPassword);
-            return expectedHash.equals(actualHash);
-        } catch (Exception e) {
-            return false;
+    private static byte[] pbkdf2(String raw, byte[] salt, int iterations) {
+        var spec = new PBEKeySpec(raw.toCharArray(), salt, iterations, KDF_KEY_BITS);
+        try {
+            return KEY_FACTORY.get().generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Failed to derive password key", e);
+        } finally {
+            spec.clearPassword();
         }
     }
 
     /**
      * Generate a random salt
      */
-    private byte[] generateSalt() {
-        SecureRandom random = new SecureRandom();
+    private static byte[] generateSalt() {
         byte[] salt = new byte[SALT_LENGTH];
-        random.nextBytes(salt);
+        RANDOM.nextBytes(salt);
         return salt;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,3 @@
+-- FIFO candidate lookup: equality on product/location, rows already in received_at order,
+-- quantity checked from the index without touching the clustered row
+CREATE INDEX ix_batch_fifo ON batch(product_code, location, received_at, quantity);
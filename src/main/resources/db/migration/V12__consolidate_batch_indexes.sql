@@ -0,0 +1,16 @@
+-- Replace the overlapping batch indexes from V2/V6/V8 with ones matching the actual predicates.
+--   ix_batch_stock : product_code = ? AND location = ? [AND quantity > 0], SUM(quantity) -> covering
+--   ix_batch_expiry: product_code = ? AND location = ? AND expiry = ? / IS NULL (transfer merge)
+-- ix_batch_fifo from V11 stays: it is the only index that returns a slot's rows in received_at order.
+-- Each CREATE/DROP INDEX is checked against information_schema first (MigrationRunner), so legacy
+-- installs without the V6/V8 indexes and re-runs after a partial failure both go through.
+-- uniq_batch_identity stays as the business key; its (product_code, location) prefix also backs fk_batch_product.
+CREATE INDEX ix_batch_stock ON batch(product_code, location, quantity);
+CREATE INDEX ix_batch_expiry ON batch(product_code, location, expiry);
+
+DROP INDEX idx_batch_lookup ON batch;
+DROP INDEX ix_batch_code_loc ON batch;
+DROP INDEX ix_batch_code_loc_exp ON batch;
+
+-- Date-range scans for sales reporting
+CREATE INDEX ix_bill_date_time ON bill(date_time);
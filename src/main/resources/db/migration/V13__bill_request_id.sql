@@ -0,0 +1,5 @@
+-- Client-generated checkout request id; a replayed checkout finds the original bill instead of creating a second one.
+-- NULL for bills created without one (multiple NULLs are allowed by the unique key).
+ALTER TABLE bill
+    ADD COLUMN request_id VARCHAR(64) NULL,
+    ADD UNIQUE KEY uq_bill_request_id (request_id);
@@ -0,0 +1,15 @@
+-- Per-day, per-product sales totals kept up to date by every bill insert (JdbcBillRepository).
+-- Reports sum these rows instead of scanning bill/bill_line; archived days keep their totals here.
+CREATE TABLE IF NOT EXISTS sales_daily (
+    day DATE NOT NULL,
+    product_code VARCHAR(64) NOT NULL,
+    qty BIGINT NOT NULL,
+    revenue_cents BIGINT NOT NULL,
+    PRIMARY KEY (day, product_code)
+);
+
+-- Backfill from the bills already recorded
+INSERT INTO sales_daily(day, product_code, qty, revenue_cents)
+SELECT DATE(b.date_time), l.product_code, SUM(l.qty), SUM(l.line_total_cents)
+FROM bill b JOIN bill_line l ON l.bill_id = b.id
+GROUP BY DATE(b.date_time), l.product_code;
@@ -0,0 +1,3 @@
+-- Date-range partitions of the end-of-day reports (ReportCatalog) filter on time alone
+CREATE INDEX ix_mov_happened_at ON inventory_movement(happened_at);
+CREATE INDEX ix_shortage_created_at ON notify_shortage(created_at);
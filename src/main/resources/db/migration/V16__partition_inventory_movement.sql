@@ -0,0 +1,8 @@
+-- Stock ledger: month partitions on happened_at (JdbcMovementRepository.ensureMonthlyPartitions splits p_future ahead of time).
+-- RANGE COLUMNS needs DATETIME, and every unique key of a partitioned table must contain the partitioning column.
+ALTER TABLE inventory_movement MODIFY happened_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE inventory_movement DROP PRIMARY KEY, ADD PRIMARY KEY (id, happened_at);
+ALTER TABLE inventory_movement PARTITION BY RANGE COLUMNS(happened_at) (
+    PARTITION p_history VALUES LESS THAN ('2026-01-01'),
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
@@ -0,0 +1,10 @@
+-- Periodic stock levels per (product, location); StockHistoryService replays inventory_movement from the nearest one.
+-- Every snapshot covers all stock at its taken_at, so a missing row means zero.
+CREATE TABLE IF NOT EXISTS stock_snapshot (
+    taken_at DATETIME NOT NULL,
+    product_code VARCHAR(64) NOT NULL,
+    location VARCHAR(16) NOT NULL,
+    quantity INT NOT NULL,
+    PRIMARY KEY (product_code, location, taken_at)
+);
+CREATE INDEX ix_snapshot_taken_at ON stock_snapshot(taken_at);
@@ -0,0 +1,11 @@
+-- Bulk catalog imports (ImportService): progress is committed with each chunk so a failed import resumes exactly where it stopped
+CREATE TABLE IF NOT EXISTS import_progress (
+    import_key VARCHAR(500) PRIMARY KEY,
+    fingerprint VARCHAR(255) NOT NULL,
+    records BIGINT NOT NULL,
+    imported BIGINT NOT NULL,
+    failed BIGINT NOT NULL,
+    error_bytes BIGINT NOT NULL,
+    finished BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
@@ -7,5 +7,4 @@ INSERT IGNORE INTO bill_number(scope, next_val) VALUES ('COUNTER', 1), ('WEB', 1
 
 -- Make bill.serial unique (if not already)
 ALTER TABLE bill
-DROP INDEX IF EXISTS uq_bill_serial,
 ADD UNIQUE KEY uq_bill_serial (serial);
\ No newline at end of file
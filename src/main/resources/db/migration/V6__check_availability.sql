@@ -1 +1 @@
-CREATE INDEX IF NOT EXISTS ix_batch_code_loc ON batch(product_code, location);
\ No newline at end of file
+CREATE INDEX ix_batch_code_loc ON batch(product_code, location);
\ No newline at end of file
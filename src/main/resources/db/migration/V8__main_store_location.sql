@@ -6,7 +6,7 @@
 # UPDATE batch SET location = UPPER(location);
 
 -- helpful composite index
-CREATE INDEX IF NOT EXISTS ix_batch_code_loc_exp ON batch(product_code, location, expiry, received_at);
+CREATE INDEX ix_batch_code_loc_exp ON batch(product_code, location, expiry, received_at);
 
 -- OPTIONAL: a simple threshold table you can use later per location
 CREATE TABLE IF NOT EXISTS stock_threshold (
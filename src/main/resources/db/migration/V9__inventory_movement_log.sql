@@ -7,4 +7,4 @@ CREATE TABLE IF NOT EXISTS inventory_movement (
     quantity INT NOT NULL,
     note VARCHAR(255) NULL
 );
-CREATE INDEX IF NOT EXISTS ix_mov_product_time ON inventory_movement(product_code, happened_at);
\ No newline at end of file
+CREATE INDEX ix_mov_product_time ON inventory_movement(product_code, happened_at);
\ No newline at end of file